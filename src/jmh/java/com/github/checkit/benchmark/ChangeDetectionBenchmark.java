@@ -0,0 +1,231 @@
+package com.github.checkit.benchmark;
+
+import com.github.checkit.config.properties.ApplicationConfigProperties;
+import com.github.checkit.dao.ChangeDao;
+import com.github.checkit.dto.ChangeDto;
+import com.github.checkit.model.Change;
+import com.github.checkit.model.ChangeObject;
+import com.github.checkit.model.ProjectContext;
+import com.github.checkit.model.VocabularyContext;
+import com.github.checkit.service.LabelService;
+import com.github.checkit.service.auxiliary.ChangeDtoComposer;
+import com.github.checkit.service.auxiliary.ChangeReconciler;
+import com.github.checkit.service.auxiliary.ChangeResolver;
+import com.github.checkit.service.auxiliary.GraphDelta;
+import com.github.checkit.service.auxiliary.GraphDeltaReader;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFDataMgr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of change detection pipeline on test datasets in {@code doc/Test-datasets}.
+ *
+ * <p>Every dataset pair consists of canonical and draft version of a vocabulary. Directory of the datasets is taken
+ * from system property {@value #DATASETS_PROPERTY}. Labels of entities outside compared graphs are not resolved, so
+ * only the pipeline itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChangeDetectionBenchmark {
+
+    private static final String DATASETS_PROPERTY = "checkit.datasets";
+    private static final String PAIR_SEPARATOR = "\\|";
+
+    @Param({
+        "simple.ttl|simple-edited.ttl",
+        "simple.ttl|simple_blank-changed-blank.ttl",
+        "real-world_(361-2000).ttl|real-world_(361-2000)-edited.ttl",
+        "real-world_(361-2000)-same-blanknode.ttl|real-world_(361-2000)-changed-blankNode.ttl"
+    })
+    public String datasets;
+
+    private Model canonicalGraph;
+    private Model draftGraph;
+    private VocabularyContext draftContext;
+    private ProjectContext project;
+    private LabelService labelService;
+    private ChangeDao changeDao;
+    private GraphDelta delta;
+    private List<Change> existingChanges;
+    private List<Change> currentChanges;
+
+    /**
+     * Loads dataset pair and prepares changes of it for benchmarks of later phases.
+     */
+    @Setup
+    public void setUp() {
+        Path directory = Path.of(System.getProperty(DATASETS_PROPERTY, "doc/Test-datasets"));
+        String[] pair = datasets.split(PAIR_SEPARATOR);
+        canonicalGraph = RDFDataMgr.loadModel(directory.resolve(pair[0]).toString());
+        draftGraph = RDFDataMgr.loadModel(directory.resolve(pair[1]).toString());
+        draftContext = new VocabularyContext();
+        draftContext.setUri(URI.create("https://example.org/benchmark/vocabulary-context"));
+        project = new ProjectContext();
+        project.setUri(URI.create("https://example.org/benchmark/project-context"));
+        labelService = new LabelService(null, applicationConfigProperties()) {
+            @Override
+            public Map<URI, MultilingualString> getLabels(URI projectUri, Collection<URI> iris) {
+                return Map.of();
+            }
+        };
+        changeDao = new ChangeDao(null, null, null, null) {
+        };
+        delta = compareGraphs();
+        existingChanges = detectChanges();
+        existingChanges.stream().filter(change -> change.getUri() == null)
+            .forEach(change -> change.setUri(changeDao.generateEntityUri()));
+        currentChanges = detectChanges();
+    }
+
+    /**
+     * Reads both graphs, compares their fingerprints and gathers statements that differ.
+     */
+    @Benchmark
+    public GraphDelta compareGraphs() {
+        return GraphDeltaReader.read(GraphDeltaReader.subjectSorted(canonicalGraph.getGraph()),
+            GraphDeltaReader.subjectSorted(draftGraph.getGraph()));
+    }
+
+    /**
+     * Resolves changes in statements without blank node from prepared delta.
+     */
+    @Benchmark
+    public List<Change> findChangesInStatementsWithoutBlankNode() {
+        ChangeResolver changeResolver = createChangeResolver(delta);
+        changeResolver.findChangesInStatementsWithoutBlankNode();
+        return changeResolver.getChanges();
+    }
+
+    /**
+     * Resolves changes in blank node sub-graphs from prepared delta.
+     */
+    @Benchmark
+    public List<Change> findChangesInSubGraphs() {
+        ChangeResolver changeResolver = createChangeResolver(delta);
+        changeResolver.findChangesInSubGraphs();
+        return changeResolver.getChanges();
+    }
+
+    /**
+     * Runs the whole change detection the same way change service does.
+     */
+    @Benchmark
+    public List<Change> detectChanges() {
+        GraphDelta graphDelta = compareGraphs();
+        if (graphDelta.isUnchanged()) {
+            return new ArrayList<>();
+        }
+        ChangeResolver changeResolver = createChangeResolver(graphDelta);
+        changeResolver.findChangesInStatementsWithoutBlankNode();
+        changeResolver.findChangesInSubGraphs();
+        return changeResolver.getChanges();
+    }
+
+    /**
+     * Composes relationships from change DTOs.
+     */
+    @Benchmark
+    public List<ChangeDto> composeChanges() {
+        List<ChangeDto> changeDtos = new ArrayList<>(existingChanges.stream().map(ChangeDto::new).toList());
+        ChangeDtoComposer changeDtoComposer = new ChangeDtoComposer(changeDtos);
+        changeDtoComposer.compose();
+        changeDtos.addAll(changeDtoComposer.getGroupChangeDtosOfRelationships());
+        return changeDtos;
+    }
+
+    /**
+     * Marks changes countable to statistics.
+     */
+    @Benchmark
+    public List<Change> resolveCountable(ChangesCopy changes) {
+        ChangeDtoComposer.resolveCountable(changes.existingChanges);
+        return changes.existingChanges;
+    }
+
+    /**
+     * Reconciles changes detected again with the same changes already in publication context.
+     */
+    @Benchmark
+    public Set<Change> reconcileChanges(ChangesCopy changes) {
+        ChangeReconciler changeReconciler =
+            new ChangeReconciler(new HashSet<>(changes.currentChanges), new HashSet<>(changes.existingChanges));
+        return changeReconciler.reconcile();
+    }
+
+    /**
+     * Copies of prepared changes for benchmarks that modify them, so every invocation starts from the same changes.
+     */
+    @State(Scope.Thread)
+    public static class ChangesCopy {
+        private List<Change> existingChanges;
+        private List<Change> currentChanges;
+
+        /**
+         * Copies prepared changes before every invocation.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(ChangeDetectionBenchmark benchmark) {
+            existingChanges = benchmark.existingChanges.stream().map(ChangesCopy::copyOf).toList();
+            currentChanges = benchmark.currentChanges.stream().map(ChangesCopy::copyOf).toList();
+        }
+
+        private static Change copyOf(Change change) {
+            Change copy = new Change(change.getContext());
+            copy.setUri(change.getUri());
+            copy.setChangeType(change.getChangeType());
+            copy.setLabel(new MultilingualString(change.getLabel().getValue()));
+            copy.setCountable(change.getCountable());
+            copy.setSubjectType(change.getSubjectType());
+            copy.setSubject(change.getSubject());
+            copy.setPredicate(change.getPredicate());
+            copy.setObject(copyOf(change.getObject()));
+            if (change.getNewObject() != null) {
+                copy.setNewObject(copyOf(change.getNewObject()));
+            }
+            copy.setApprovedBy(new HashSet<>(change.getApprovedBy()));
+            copy.setRejectedBy(new HashSet<>(change.getRejectedBy()));
+            return copy;
+        }
+
+        private static ChangeObject copyOf(ChangeObject changeObject) {
+            ChangeObject copy = new ChangeObject();
+            copy.setUri(changeObject.getUri());
+            copy.setValueWithLanguageTag(new MultilingualString(changeObject.getValueWithLanguageTag().getValue()));
+            copy.setType(changeObject.getType());
+            return copy;
+        }
+    }
+
+    private ChangeResolver createChangeResolver(GraphDelta graphDelta) {
+        return new ChangeResolver(graphDelta, draftContext, project, labelService, changeDao);
+    }
+
+    private ApplicationConfigProperties applicationConfigProperties() {
+        ApplicationConfigProperties.LabelProperties labelProperties = new ApplicationConfigProperties.LabelProperties();
+        labelProperties.setCacheSize(1);
+        labelProperties.setCacheTimeToLive(Duration.ZERO);
+        ApplicationConfigProperties applicationConfigProperties = new ApplicationConfigProperties();
+        applicationConfigProperties.setLabel(labelProperties);
+        return applicationConfigProperties;
+    }
+}
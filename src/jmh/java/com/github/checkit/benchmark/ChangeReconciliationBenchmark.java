@@ -0,0 +1,83 @@
+package com.github.checkit.benchmark;
+
+import com.github.checkit.model.Change;
+import com.github.checkit.model.ChangeObject;
+import com.github.checkit.model.ChangeType;
+import com.github.checkit.model.VocabularyContext;
+import com.github.checkit.model.auxilary.ChangeSubjectType;
+import com.github.checkit.service.auxiliary.ChangeReconciler;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark of reconciliation of changes of large publication context with changes found in its resubmitted project.
+ *
+ * <p>Most of the changes are found again, every tenth is modified in a different way and every twentieth is not found
+ * anymore and becomes obsolete.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ChangeReconciliationBenchmark {
+
+    private static final String TERM_NAMESPACE = "https://example.org/benchmark/term/";
+    private static final String CHANGE_NAMESPACE = "https://example.org/benchmark/change/";
+
+    @Param({"1000", "10000", "50000"})
+    public int changeCount;
+
+    private Set<Change> existingChanges;
+    private Set<Change> currentChanges;
+
+    /**
+     * Generates existing changes of publication context and changes found in resubmitted project.
+     */
+    @Setup
+    public void setUp() {
+        VocabularyContext context = new VocabularyContext();
+        context.setUri(URI.create("https://example.org/benchmark/vocabulary-context"));
+        existingChanges = new HashSet<>();
+        currentChanges = new HashSet<>();
+        for (int i = 0; i < changeCount; i++) {
+            Change existingChange = createChange(context, i, "definition " + i);
+            existingChange.setUri(URI.create(CHANGE_NAMESPACE + i));
+            existingChanges.add(existingChange);
+            if (i % 20 != 0) {
+                String newDefinition = i % 10 == 0 ? "new definition " + i : "definition " + i;
+                currentChanges.add(createChange(context, i, newDefinition));
+            }
+        }
+    }
+
+    /**
+     * Reconciles changes found in resubmitted project with changes of publication context.
+     */
+    @Benchmark
+    public Set<Change> reconcileChanges() {
+        ChangeReconciler changeReconciler =
+            new ChangeReconciler(new HashSet<>(currentChanges), new HashSet<>(existingChanges));
+        return changeReconciler.reconcile();
+    }
+
+    private Change createChange(VocabularyContext context, int index, String newDefinition) {
+        Change change = new Change(context);
+        change.setChangeType(ChangeType.MODIFIED);
+        change.setSubjectType(ChangeSubjectType.TERM);
+        change.setSubject(URI.create(TERM_NAMESPACE + index));
+        change.setPredicate(URI.create(SKOS.DEFINITION));
+        change.setObject(new ChangeObject("old definition " + index, null, "cs"));
+        change.setNewObject(new ChangeObject(newDefinition, null, "cs"));
+        return change;
+    }
+}
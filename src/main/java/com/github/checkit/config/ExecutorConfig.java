@@ -0,0 +1,21 @@
+package com.github.checkit.config;
+
+import com.github.checkit.config.properties.ApplicationConfigProperties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Bounded pool reading and comparing vocabularies when publication context is created or updated.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService vocabularyComparisonExecutor(ApplicationConfigProperties applicationConfigProperties) {
+        int poolSize = applicationConfigProperties.getPublicationContext().getComparisonPoolSize();
+        return Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("vocabulary-comparison-"));
+    }
+}
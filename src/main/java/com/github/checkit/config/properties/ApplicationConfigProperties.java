@@ -1,6 +1,7 @@
 package com.github.checkit.config.properties;
 
 import jakarta.annotation.Nonnull;
+import java.time.Duration;
 import java.util.Objects;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,6 +26,8 @@ public class ApplicationConfigProperties {
     private PublicationContextProperties publicationContext;
     @Nonnull
     private NotificationProperties notification;
+    @Nonnull
+    private LabelProperties label;
 
     @Getter
     @Setter
@@ -33,6 +36,16 @@ public class ApplicationConfigProperties {
     public static class PublicationContextProperties {
         @Nonnull
         private Integer pageSize;
+        /**
+         * Number of vocabularies read and compared concurrently when publication context is created or updated.
+         */
+        @Nonnull
+        private Integer comparisonPoolSize;
+        /**
+         * Maximal number of changes whose publication context is kept in memory.
+         */
+        @Nonnull
+        private Integer changeLocationCacheSize;
     }
 
     @Getter
@@ -52,4 +65,21 @@ public class ApplicationConfigProperties {
         @Nonnull
         private Integer rejectionMinimalContentLength;
     }
+
+    @Getter
+    @Setter
+    @Configuration
+    @ConfigurationProperties("label")
+    public static class LabelProperties {
+        /**
+         * Maximal number of labels of entities outside compared graphs kept in memory.
+         */
+        @Nonnull
+        private Integer cacheSize;
+        /**
+         * Time after which a cached label is fetched again, so labels changed in the repository are picked up.
+         */
+        @Nonnull
+        private Duration cacheTimeToLive;
+    }
 }
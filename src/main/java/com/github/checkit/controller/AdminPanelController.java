@@ -1,7 +1,11 @@
 package com.github.checkit.controller;
 
 import com.github.checkit.dto.AdminPanelSummaryDto;
+import com.github.checkit.dto.EntityCacheStatisticsDto;
+import com.github.checkit.dto.LabelCacheStatisticsDto;
+import com.github.checkit.dto.RepositoryFetchStatisticsDto;
 import com.github.checkit.service.AdminPanelService;
+import java.util.List;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -22,4 +26,19 @@ public class AdminPanelController extends AdminManagementController {
     public AdminPanelSummaryDto getSummary() {
         return adminPanelService.getSummary();
     }
+
+    @GetMapping("/cache-statistics")
+    public List<EntityCacheStatisticsDto> getCacheStatistics() {
+        return adminPanelService.getCacheStatistics();
+    }
+
+    @GetMapping("/fetch-statistics")
+    public RepositoryFetchStatisticsDto getFetchStatistics() {
+        return adminPanelService.getFetchStatistics();
+    }
+
+    @GetMapping("/label-cache-statistics")
+    public LabelCacheStatisticsDto getLabelCacheStatistics() {
+        return adminPanelService.getLabelCacheStatistics();
+    }
 }
@@ -1,5 +1,6 @@
 package com.github.checkit.controller;
 
+import com.github.checkit.dto.CursorPageDto;
 import com.github.checkit.dto.NotificationDto;
 import com.github.checkit.service.NotificationService;
 import java.net.URI;
@@ -31,6 +32,12 @@ public class NotificationController extends BaseController {
         return notificationService.getAllForCurrent(pageNumber, languageTag);
     }
 
+    @GetMapping("/cursor")
+    public CursorPageDto<NotificationDto> getAllForCurrentAfter(@RequestParam(required = false) String cursor,
+                                                                @RequestParam String languageTag) {
+        return notificationService.getAllForCurrentAfter(cursor, languageTag);
+    }
+
     @GetMapping("/unread/count")
     public int getUnreadCountForCurrent() {
         return notificationService.getUnreadCountForCurrent();
@@ -2,13 +2,18 @@ package com.github.checkit.controller;
 
 import com.github.checkit.config.properties.RepositoryConfigProperties;
 import com.github.checkit.dto.ContextChangesDto;
+import com.github.checkit.dto.CursorPageDto;
 import com.github.checkit.dto.PublicationContextDetailDto;
 import com.github.checkit.dto.PublicationContextDto;
+import com.github.checkit.model.ChangeType;
+import com.github.checkit.service.ChangeService;
 import com.github.checkit.service.PublicationContextService;
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -17,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping(PublicationContextController.MAPPING)
@@ -24,11 +30,17 @@ public class PublicationContextController extends BaseController {
 
     public static final String MAPPING = "/publication-contexts";
     private final PublicationContextService publicationContextService;
+    private final ChangeService changeService;
     private final RepositoryConfigProperties repositoryConfigProperties;
 
+    /**
+     * Constructor.
+     */
     public PublicationContextController(PublicationContextService publicationContextService,
+                                        ChangeService changeService,
                                         RepositoryConfigProperties repositoryConfigProperties) {
         this.publicationContextService = publicationContextService;
+        this.changeService = changeService;
         this.repositoryConfigProperties = repositoryConfigProperties;
     }
 
@@ -48,13 +60,30 @@ public class PublicationContextController extends BaseController {
         return publicationContextService.getClosedPublicationContexts(pageNumber);
     }
 
+    @GetMapping("/closed/cursor")
+    public CursorPageDto<PublicationContextDto> getClosedPublicationContextsAfter(
+        @RequestParam(required = false) String cursor) {
+        return publicationContextService.getClosedPublicationContextsAfter(cursor);
+    }
+
     @GetMapping("/closed/page-count")
     public int getPageCountOfClosedPublicationContexts() {
         return publicationContextService.getPageCountOfClosedPublicationContexts();
     }
 
+    /**
+     * Get detail of specified publication context.
+     *
+     * @param publicationContextId identifier of publication context
+     * @param request              request checked for a matching entity tag
+     * @return detail of publication context, nothing if it was not modified
+     */
     @GetMapping("/{publicationContextId}")
-    public PublicationContextDetailDto getPublicationContextDetail(@PathVariable String publicationContextId) {
+    public PublicationContextDetailDto getPublicationContextDetail(@PathVariable String publicationContextId,
+                                                                   WebRequest request) {
+        if (request.checkNotModified(publicationContextService.getPublicationContextETag(publicationContextId))) {
+            return null;
+        }
         return publicationContextService.getPublicationContextDetail(publicationContextId);
     }
 
@@ -64,19 +93,92 @@ public class PublicationContextController extends BaseController {
      * @param publicationContextId identifier of publication context
      * @param vocabularyUri        URI identifier of vocabulary
      * @param language             preferred language tag
-     * @return Object with name of vocabulary a list of changes
+     * @param request              request checked for a matching entity tag
+     * @return Object with name of vocabulary a list of changes, nothing if it was not modified
      */
     @GetMapping("/{publicationContextId}/vocabulary-changes")
     public ContextChangesDto getChangesInContextInPublicationContext(@PathVariable String publicationContextId,
                                                                      @RequestParam("vocabularyUri") URI vocabularyUri,
-                                                                     @RequestParam(required = false) String language) {
+                                                                     @RequestParam(required = false) String language,
+                                                                     WebRequest request) {
         if (Objects.isNull(language) || language.isEmpty()) {
             language = repositoryConfigProperties.getLanguage();
         }
+        if (request.checkNotModified(
+            publicationContextService.getPublicationContextETag(publicationContextId, vocabularyUri, language))) {
+            return null;
+        }
         return publicationContextService.getChangesInContextInPublicationContext(publicationContextId, vocabularyUri,
             language);
     }
 
+    /**
+     * Approves all changes of specified vocabulary in specified publication context matching optional criteria.
+     *
+     * @param publicationContextId identifier of publication context
+     * @param vocabularyUri        URI identifier of vocabulary
+     * @param versionDate          date of publication context last update
+     * @param subject              subject of changed statements
+     * @param changeType           type of changes
+     * @param predicate            predicate of changed statements
+     */
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PostMapping("/{publicationContextId}/vocabulary-changes/approved")
+    public void approveChangesInVocabulary(@PathVariable String publicationContextId,
+                                           @RequestParam URI vocabularyUri, @RequestParam Instant versionDate,
+                                           @RequestParam(required = false) URI subject,
+                                           @RequestParam(required = false) ChangeType changeType,
+                                           @RequestParam(required = false) URI predicate) {
+        changeService.approveSelectedChanges(
+            changeService.createSelection(publicationContextId, vocabularyUri, subject, changeType, predicate),
+            versionDate);
+    }
+
+    /**
+     * Rejects all changes of specified vocabulary in specified publication context matching optional criteria.
+     *
+     * @param publicationContextId identifier of publication context
+     * @param vocabularyUri        URI identifier of vocabulary
+     * @param versionDate          date of publication context last update
+     * @param subject              subject of changed statements
+     * @param changeType           type of changes
+     * @param predicate            predicate of changed statements
+     */
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PostMapping("/{publicationContextId}/vocabulary-changes/rejected")
+    public void rejectChangesInVocabulary(@PathVariable String publicationContextId,
+                                          @RequestParam URI vocabularyUri, @RequestParam Instant versionDate,
+                                          @RequestParam(required = false) URI subject,
+                                          @RequestParam(required = false) ChangeType changeType,
+                                          @RequestParam(required = false) URI predicate) {
+        changeService.rejectSelectedChanges(
+            changeService.createSelection(publicationContextId, vocabularyUri, subject, changeType, predicate),
+            versionDate);
+    }
+
+    /**
+     * Removes review of all changes of specified vocabulary in specified publication context matching optional
+     * criteria.
+     *
+     * @param publicationContextId identifier of publication context
+     * @param vocabularyUri        URI identifier of vocabulary
+     * @param versionDate          date of publication context last update
+     * @param subject              subject of changed statements
+     * @param changeType           type of changes
+     * @param predicate            predicate of changed statements
+     */
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @DeleteMapping("/{publicationContextId}/vocabulary-changes/review")
+    public void removeChangesInVocabularyReview(@PathVariable String publicationContextId,
+                                                @RequestParam URI vocabularyUri, @RequestParam Instant versionDate,
+                                                @RequestParam(required = false) URI subject,
+                                                @RequestParam(required = false) ChangeType changeType,
+                                                @RequestParam(required = false) URI predicate) {
+        changeService.removeSelectedChangesReview(
+            changeService.createSelection(publicationContextId, vocabularyUri, subject, changeType, predicate),
+            versionDate);
+    }
+
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
     public URI submitProjectForReview(@RequestBody URI projectUri) {
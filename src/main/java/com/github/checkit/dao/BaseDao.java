@@ -2,11 +2,15 @@ package com.github.checkit.dao;
 
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.auxilary.HasIdentifier;
+import com.github.checkit.persistence.EntityCache;
 import com.github.checkit.util.EntityToOwlClassMapper;
+import com.github.checkit.util.TimeOrderedIdentifierGenerator;
 import cz.cvut.kbss.jopa.model.EntityManager;
-import cz.cvut.kbss.ontodriver.Connection;
-import cz.cvut.kbss.ontodriver.exception.OntoDriverException;
+import cz.cvut.kbss.jopa.model.descriptors.EntityDescriptor;
 import java.net.URI;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -22,11 +26,36 @@ public abstract class BaseDao<T extends HasIdentifier> implements GenericDao<T>
     protected final URI typeUri;
 
     protected final EntityManager em;
+    protected final EntityCache entityCache;
 
-    protected BaseDao(Class<T> type, EntityManager em) {
+    protected BaseDao(Class<T> type, EntityManager em, EntityCache entityCache) {
         this.type = type;
         this.typeUri = URI.create(EntityToOwlClassMapper.getOwlClassForEntity(type));
         this.em = em;
+        this.entityCache = entityCache;
+    }
+
+    /**
+     * Converts value of a native query result column holding {@code xsd:dateTime} to instant. The value is mapped to
+     * {@link OffsetDateTime} by JOPA, lexical forms with any offset are accepted as well.
+     *
+     * @param value column value, may be {@code null}
+     * @return instant or {@code null} if the value is not bound
+     */
+    protected static Instant toInstant(Object value) {
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        if (value instanceof OffsetDateTime dateTime) {
+            return dateTime.toInstant();
+        }
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        if (value instanceof Date date) {
+            return date.toInstant();
+        }
+        return OffsetDateTime.parse(value.toString()).toInstant();
     }
 
     @Override
@@ -44,6 +73,7 @@ public abstract class BaseDao<T extends HasIdentifier> implements GenericDao<T>
     public Optional<T> find(URI id) {
         Objects.requireNonNull(id);
         try {
+            entityCache.recordLookup(type, id, new EntityDescriptor());
             return Optional.ofNullable(em.find(type, id));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -115,11 +145,7 @@ public abstract class BaseDao<T extends HasIdentifier> implements GenericDao<T>
 
     @Override
     public URI generateEntityUri() {
-        try {
-            return em.unwrap(Connection.class).generateIdentifier(em.getMetamodel().entity(type).getIRI().toURI());
-        } catch (OntoDriverException e) {
-            throw new RuntimeException(e);
-        }
+        return TimeOrderedIdentifierGenerator.nextUri(typeUri.toString());
     }
 }
 
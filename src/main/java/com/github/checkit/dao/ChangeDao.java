@@ -3,24 +3,45 @@ package com.github.checkit.dao;
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.Change;
 import com.github.checkit.model.ChangeType;
+import com.github.checkit.model.PublicationContext;
+import com.github.checkit.model.auxilary.ChangeReviewCheck;
+import com.github.checkit.model.auxilary.ChangeSelection;
+import com.github.checkit.persistence.ChangeLocationCache;
 import com.github.checkit.persistence.DescriptorFactory;
+import com.github.checkit.persistence.EntityCache;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.annotations.Individual;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
 import java.net.URI;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class ChangeDao extends BaseDao<Change> {
 
+    /**
+     * Matches publication context ?pc only if it is not closed and it was last modified at ?versionDate.
+     */
+    private static final String OPEN_AND_UP_TO_DATE_PATTERN = "?pc ?updated ?versionDate . "
+        + "FILTER NOT EXISTS { ?comment ?topic ?pc . } ";
+
     private final DescriptorFactory descriptorFactory;
+    private final ChangeLocationCache changeLocationCache;
 
-    protected ChangeDao(EntityManager em, DescriptorFactory descriptorFactory) {
-        super(Change.class, em);
+    protected ChangeDao(EntityManager em, EntityCache entityCache, DescriptorFactory descriptorFactory,
+                        ChangeLocationCache changeLocationCache) {
+        super(Change.class, em, entityCache);
         this.descriptorFactory = descriptorFactory;
+        this.changeLocationCache = changeLocationCache;
     }
 
     @Override
@@ -28,55 +49,155 @@ public class ChangeDao extends BaseDao<Change> {
         Objects.requireNonNull(uri);
         try {
             Descriptor descriptor = descriptorFactory.changeDescriptor(resolvePublicationContextUri(uri));
+            entityCache.recordLookup(type, uri, descriptor);
             return Optional.ofNullable(em.find(type, uri, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    @Override
+    public Change update(Change entity) {
+        Objects.requireNonNull(entity);
+        try {
+            URI publicationContextUri = resolvePublicationContextUri(entity.getUri());
+            Descriptor descriptor = descriptorFactory.changeDescriptor(publicationContextUri);
+            Change merged = em.merge(entity, descriptor);
+            entityCache.evict(type, entity.getUri(), descriptor);
+            entityCache.evict(PublicationContext.class, publicationContextUri, publicationContextUri);
+            return merged;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     /**
-     * Finds any change in specified context of specified publication context.
+     * Finds facts needed to decide if specified user can review specified changes at once. Changes that don't exist
+     * are omitted.
      *
-     * @param publicationContextUri URI identifier of publication context
-     * @param contextUri            URI identifier of context
-     * @return change if context is present publication context
+     * @param changeUris URI identifiers of changes
+     * @param userUri    URI identifier of user
+     * @return list of checks of existing changes
      */
-    public Optional<Change> findAnyInContextInPublicationContext(URI publicationContextUri, URI contextUri) {
-        Objects.requireNonNull(publicationContextUri);
-        Objects.requireNonNull(contextUri);
+    public List<ChangeReviewCheck> findReviewChecks(Collection<URI> changeUris, URI userUri) {
+        Objects.requireNonNull(changeUris);
+        Objects.requireNonNull(userUri);
+        if (changeUris.isEmpty()) {
+            return new ArrayList<>();
+        }
         try {
-            Optional<URI> anyChange = em.createNativeQuery("SELECT ?change WHERE { "
-                    + "?change a ?type ; "
-                    + "        ?inContext ?ctx ; "
-                    + "        ?isOfType ?changeType . "
-                    + "FILTER (STR(?changeType) != ?rollbacked) "
+            List<?> rows = em.createNativeQuery("SELECT ?change ?pc ?modified ?closed ?gestored WHERE { "
+                    + "VALUES ?change { " + toValues(changeUris) + " } "
+                    + "?change a ?type . "
                     + "?pc ?hasChange ?change . "
-                    + "}", URI.class)
+                    + "OPTIONAL { ?pc ?updated ?modified . } "
+                    + "BIND(EXISTS { ?comment ?hasTopic ?pc . } as ?closed) "
+                    + "BIND(EXISTS { "
+                    + "     ?change ?inContext ?ctx . "
+                    + "     ?ctx ?basedOn ?voc . "
+                    + "     ?voc ?gestoredBy ?user . "
+                    + "     } as ?gestored) "
+                    + "}")
                 .setParameter("type", typeUri)
+                .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
+                .setParameter("updated", URI.create(TermVocabulary.s_p_ma_datum_a_cas_posledni_modifikace))
+                .setParameter("hasTopic", URI.create(TermVocabulary.s_p_topic))
                 .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
-                .setParameter("ctx", contextUri)
+                .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
+                .setParameter("gestoredBy", URI.create(TermVocabulary.s_p_ma_gestora))
+                .setParameter("user", userUri)
+                .getResultList();
+            return rows.stream().map(row -> {
+                Object[] columns = (Object[]) row;
+                return new ChangeReviewCheck(URI.create(columns[0].toString()), URI.create(columns[1].toString()),
+                    toInstant(columns[2]), Boolean.TRUE.equals(columns[3]),
+                    Boolean.TRUE.equals(columns[4]));
+            }).toList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Sets review of specified user on specified changes of specified publication context in a single SPARQL UPDATE.
+     * Previous review of the user on the changes is replaced. Nothing is changed if the publication context was closed
+     * or modified after specified time. Stored review counters of the publication context are adjusted in the same
+     * update by the reviews that are actually changed.
+     *
+     * @param publicationContextUri URI identifier of publication context
+     * @param changeUris            URI identifiers of changes
+     * @param versionDate           date of publication context last update
+     * @param userUri               URI identifier of reviewer
+     * @param approved              if the changes are approved
+     * @param rejected              if the changes are rejected
+     */
+    public void updateReviews(URI publicationContextUri, Collection<URI> changeUris, Instant versionDate, URI userUri,
+                              boolean approved, boolean rejected) {
+        Objects.requireNonNull(publicationContextUri);
+        Objects.requireNonNull(changeUris);
+        Objects.requireNonNull(versionDate);
+        Objects.requireNonNull(userUri);
+        if (changeUris.isEmpty()) {
+            return;
+        }
+        try {
+            String changesPattern = OPEN_AND_UP_TO_DATE_PATTERN
+                + "VALUES ?change { " + toValues(changeUris) + " } "
+                + "?pc ?hasChange ?change . ";
+            setReviewParameters(em.createNativeQuery(reviewUpdate(changesPattern, approved, rejected)), userUri,
+                versionDate, approved, rejected)
                 .setParameter("pc", publicationContextUri)
                 .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
-                .setParameter("isOfType", URI.create(TermVocabulary.s_p_je_typu))
-                .setParameter("rollbacked", URI.create(TermVocabulary.s_c_vraceno_zpet))
-                .getResultStream().findFirst();
-            if (anyChange.isEmpty()) {
-                return Optional.empty();
-            }
-            return find(anyChange.get());
+                .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
+                .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
+                .executeUpdate();
+            entityCache.evictContext(PublicationContext.class, publicationContextUri);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
-    @Override
-    public Change update(Change entity) {
-        Objects.requireNonNull(entity);
+    /**
+     * Sets review of specified user on all selected changes in a single SPARQL UPDATE. Previous review of the user on
+     * the changes is replaced. Nothing is changed if the publication context was closed or modified after specified
+     * time. Stored review counters of the publication context are adjusted in the same update by the reviews that are
+     * actually changed.
+     *
+     * @param selection   selection of changes
+     * @param versionDate date of publication context last update
+     * @param userUri     URI identifier of reviewer
+     * @param approved    if the changes are approved
+     * @param rejected    if the changes are rejected
+     */
+    public void updateReviews(ChangeSelection selection, Instant versionDate, URI userUri, boolean approved,
+                              boolean rejected) {
+        Objects.requireNonNull(selection);
+        Objects.requireNonNull(versionDate);
+        Objects.requireNonNull(userUri);
         try {
-            Descriptor descriptor = descriptorFactory.changeDescriptor(resolvePublicationContextUri(entity.getUri()));
-            Change merged = em.merge(entity, descriptor);
-            em.getEntityManagerFactory().getCache().evict(entity.getUri());
-            return merged;
+            String changesPattern = OPEN_AND_UP_TO_DATE_PATTERN + selectionPattern(selection);
+            Query query = setReviewParameters(em.createNativeQuery(reviewUpdate(changesPattern, approved, rejected)),
+                userUri, versionDate, approved, rejected);
+            setSelectionParameters(query, selection).executeUpdate();
+            entityCache.evictContext(PublicationContext.class, selection.publicationContextUri());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds URI identifiers of all selected changes.
+     *
+     * @param selection selection of changes
+     * @return list of URI identifiers of changes
+     */
+    public List<URI> findAllSelected(ChangeSelection selection) {
+        Objects.requireNonNull(selection);
+        try {
+            return setSelectionParameters(em.createNativeQuery("SELECT ?change WHERE { "
+                + selectionPattern(selection)
+                + "}", URI.class), selection)
+                .getResultList();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -161,10 +282,21 @@ public class ChangeDao extends BaseDao<Change> {
         }
     }
 
-    private URI resolvePublicationContextUri(URI changeUri) {
+    /**
+     * Resolves publication context specified change is in. Publication contexts of recently used changes are kept in
+     * {@link ChangeLocationCache}, so they are not queried again.
+     *
+     * @param changeUri URI identifier of change
+     * @return URI identifier of publication context
+     */
+    public URI resolvePublicationContextUri(URI changeUri) {
         Objects.requireNonNull(changeUri);
+        Optional<URI> cached = changeLocationCache.get(changeUri);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         try {
-            return em.createNativeQuery("SELECT ?pc WHERE { "
+            URI publicationContextUri = em.createNativeQuery("SELECT ?pc WHERE { "
                     + "?change a ?type . "
                     + "?pc ?hasChange ?change . "
                     + "}", URI.class)
@@ -172,8 +304,145 @@ public class ChangeDao extends BaseDao<Change> {
                 .setParameter("type", typeUri)
                 .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
                 .getSingleResult();
+            changeLocationCache.put(changeUri, publicationContextUri);
+            return publicationContextUri;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
+
+    /**
+     * Creates update replacing review of ?user on changes matched by specified pattern. It is preceded by update of
+     * stored review counters of publication context ?pc, so the counters are adjusted by differences between the
+     * current and the new reviews. Counters are adjusted only if they were materialized before.
+     */
+    private static String reviewUpdate(String changesPattern, boolean approved, boolean rejected) {
+        String approvedValue = approved ? "1" : "0";
+        return "DELETE { "
+            + "GRAPH ?pc { "
+            + "     ?statistics ?approvedCount ?oldApproved ; "
+            + "                 ?rejectedCount ?oldRejected . "
+            + "     } "
+            + "} INSERT { "
+            + "GRAPH ?pc { "
+            + "     ?pc ?hasStatistics ?statistics . "
+            + "     ?statistics a ?statisticsType ; "
+            + "                 ?inVocabulary ?vocabulary ; "
+            + "                 ?hasReviewer ?reviewer ; "
+            + "                 ?approvedCount ?newApproved ; "
+            + "                 ?rejectedCount ?newRejected . "
+            + "     } "
+            + "} WHERE { "
+            + "FILTER EXISTS { GRAPH ?pc { "
+            + "     ?pc ?hasStatistics ?contextStatistics . "
+            + "     FILTER NOT EXISTS { ?contextStatistics ?inVocabulary ?anyVocabulary . } "
+            + "     } } "
+            + "{ "
+            + "     SELECT (SUM(?approvedDifference) as ?approvedDelta) WHERE { "
+            + changesPattern
+            + "         ?change ?countable ?true . "
+            + "         BIND(EXISTS { ?change ?approvedBy ?otherReviewer . FILTER(?otherReviewer != ?user) } "
+            + "             as ?approvedByOther) "
+            + "         BIND(IF(" + approved + " || ?approvedByOther, 1, 0) "
+            + "             - IF(?approvedByOther || EXISTS { ?change ?approvedBy ?user . }, 1, 0) "
+            + "             as ?approvedDifference) "
+            + "         } HAVING (SUM(?approvedDifference) != 0) "
+            + "} UNION { "
+            + "     SELECT ?vocabulary ?reviewer (SUM(?approvedDifference) as ?approvedDelta) "
+            + "            (SUM(?rejectedDifference) as ?rejectedDelta) WHERE { "
+            + changesPattern
+            + "         ?change ?countable ?true ; "
+            + "                 ?inContext ?ctx . "
+            + "         ?ctx ?basedOn ?vocabulary . "
+            + "         BIND(?user as ?reviewer) "
+            + "         BIND(" + approvedValue + " - IF(EXISTS { ?change ?approvedBy ?user . }, 1, 0) "
+            + "             as ?approvedDifference) "
+            + "         BIND(" + (rejected ? "1" : "0") + " - IF(EXISTS { ?change ?rejectedBy ?user . }, 1, 0) "
+            + "             as ?rejectedDifference) "
+            + "         } GROUP BY ?vocabulary ?reviewer "
+            + "         HAVING (SUM(?approvedDifference) != 0 || SUM(?rejectedDifference) != 0) "
+            + "} "
+            + PublicationContextDao.STATISTICS_URI_BINDING
+            + "OPTIONAL { GRAPH ?pc { ?statistics ?approvedCount ?oldApproved . } } "
+            + "OPTIONAL { GRAPH ?pc { ?statistics ?rejectedCount ?oldRejected . } } "
+            + "BIND(COALESCE(?oldApproved, 0) + ?approvedDelta as ?newApproved) "
+            + "BIND(COALESCE(?oldRejected, 0) + ?rejectedDelta as ?newRejected) "
+            + "} ; "
+            + "DELETE { "
+            + "GRAPH ?pc { "
+            + "     ?change ?approvedBy ?user . "
+            + "     ?change ?rejectedBy ?user . "
+            + "     } "
+            + "} "
+            + (approved || rejected ? "INSERT { GRAPH ?pc { ?change ?reviewedBy ?user . } } " : "")
+            + "WHERE { "
+            + changesPattern
+            + "}";
+    }
+
+    private static <Q extends Query> Q setReviewParameters(Q query, URI userUri, Instant versionDate,
+                                                           boolean approved, boolean rejected) {
+        query.setParameter("updated", URI.create(TermVocabulary.s_p_ma_datum_a_cas_posledni_modifikace))
+            .setParameter("versionDate", versionDate)
+            .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
+            .setParameter("approvedBy", URI.create(TermVocabulary.s_p_schvaleno))
+            .setParameter("rejectedBy", URI.create(TermVocabulary.s_p_zamitnuto))
+            .setParameter("user", userUri)
+            .setParameter("countable", URI.create(TermVocabulary.s_p_je_pocitatelna_do_statistiky))
+            .setParameter("true", true)
+            .setParameter("hasStatistics", URI.create(TermVocabulary.s_p_ma_statistiku_revizi))
+            .setParameter("statisticsType", URI.create(TermVocabulary.s_c_statistika_revizi))
+            .setParameter("inVocabulary", URI.create(TermVocabulary.s_p_ve_slovniku))
+            .setParameter("hasReviewer", URI.create(TermVocabulary.s_p_ma_revidujiciho))
+            .setParameter("approvedCount", URI.create(TermVocabulary.s_p_ma_pocet_schvalenych_zmen))
+            .setParameter("rejectedCount", URI.create(TermVocabulary.s_p_ma_pocet_zamitnutych_zmen));
+        if (approved || rejected) {
+            query.setParameter("reviewedBy",
+                URI.create(approved ? TermVocabulary.s_p_schvaleno : TermVocabulary.s_p_zamitnuto));
+        }
+        return query;
+    }
+
+    private static String selectionPattern(ChangeSelection selection) {
+        return "?pc ?hasChange ?change . "
+            + "?change a ?type ; "
+            + "        ?inContext ?ctx . "
+            + "?ctx ?basedOn ?voc . "
+            + (Objects.nonNull(selection.subject()) ? "?change ?hasSubject ?subject . " : "")
+            + (Objects.nonNull(selection.changeType()) ? "?change ?hasChangeType ?changeType . " : "")
+            + (Objects.nonNull(selection.predicate()) ? "?change ?hasPredicate ?predicate . " : "");
+    }
+
+    private <Q extends Query> Q setSelectionParameters(Q query, ChangeSelection selection) {
+        query.setParameter("pc", selection.publicationContextUri())
+            .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
+            .setParameter("type", typeUri)
+            .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
+            .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
+            .setParameter("voc", selection.vocabularyUri());
+        if (Objects.nonNull(selection.subject())) {
+            query.setParameter("hasSubject", URI.create(RDF.SUBJECT)).setParameter("subject", selection.subject());
+        }
+        if (Objects.nonNull(selection.changeType())) {
+            query.setParameter("hasChangeType", URI.create(TermVocabulary.s_p_je_typu))
+                .setParameter("changeType", changeTypeUri(selection.changeType()));
+        }
+        if (Objects.nonNull(selection.predicate())) {
+            query.setParameter("hasPredicate", URI.create(RDF.PREDICATE))
+                .setParameter("predicate", selection.predicate());
+        }
+        return query;
+    }
+
+    private static URI changeTypeUri(ChangeType changeType) {
+        try {
+            return URI.create(ChangeType.class.getField(changeType.name()).getAnnotation(Individual.class).iri());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toValues(Collection<URI> uris) {
+        return uris.stream().map(uri -> "<" + uri + ">").collect(Collectors.joining(" "));
+    }
 }
@@ -1,30 +1,41 @@
 package com.github.checkit.dao;
 
+import com.github.checkit.config.properties.RepositoryConfigProperties;
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.Change;
 import com.github.checkit.model.Comment;
 import com.github.checkit.model.PublicationContext;
 import com.github.checkit.model.User;
+import com.github.checkit.model.auxilary.ChangeComments;
 import com.github.checkit.model.auxilary.CommentTag;
 import com.github.checkit.persistence.DescriptorFactory;
+import com.github.checkit.persistence.EntityCache;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.exceptions.NoResultException;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class CommentDao extends BaseDao<Comment> {
 
     private final DescriptorFactory descriptorFactory;
+    private final URI commentContext;
 
-    protected CommentDao(EntityManager em, DescriptorFactory descriptorFactory) {
-        super(Comment.class, em);
+    protected CommentDao(EntityManager em, EntityCache entityCache, DescriptorFactory descriptorFactory,
+                         RepositoryConfigProperties repositoryConfigProperties) {
+        super(Comment.class, em, entityCache);
         this.descriptorFactory = descriptorFactory;
+        this.commentContext = URI.create(repositoryConfigProperties.getComment().getContext());
     }
 
     /**
@@ -88,6 +99,7 @@ public class CommentDao extends BaseDao<Comment> {
         Objects.requireNonNull(uri);
         try {
             Descriptor descriptor = descriptorFactory.commentDescriptor();
+            entityCache.recordLookup(type, uri, descriptor);
             return Optional.ofNullable(em.find(type, uri, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -158,10 +170,115 @@ public class CommentDao extends BaseDao<Comment> {
         }
     }
 
+    /**
+     * Finds final comments and number of discussion comments of specified changes in a single query over the comment
+     * context.
+     *
+     * @param changeUris URI identifiers of changes
+     * @return map of URI identifiers of changes to their comments, changes without comments are omitted
+     */
+    public Map<URI, ChangeComments> findCommentsOfChanges(Collection<URI> changeUris) {
+        Objects.requireNonNull(changeUris);
+        if (changeUris.isEmpty()) {
+            return new HashMap<>();
+        }
+        String changes = changeUris.stream().map(changeUri -> "<" + changeUri + ">").collect(Collectors.joining(" "));
+        try {
+            List<?> rows = em.createNativeQuery("SELECT ?change ?comment ?count WHERE { "
+                    + "GRAPH ?commentContext { "
+                    + "     { "
+                    + "         VALUES ?change { " + changes + " } "
+                    + "         ?comment a ?type ; "
+                    + "                  ?topic ?change ; "
+                    + "                  ?hasTag ?tag . "
+                    + "         FILTER(STR(?tag) != ?discussion) "
+                    + "     } UNION { "
+                    + "         SELECT ?change (COUNT(?discussionComment) as ?count) WHERE { "
+                    + "             VALUES ?change { " + changes + " } "
+                    + "             ?discussionComment a ?type ; "
+                    + "                                ?topic ?change ; "
+                    + "                                ?hasTag ?discussionTag . "
+                    + "             FILTER(STR(?discussionTag) = ?discussion) "
+                    + "         } GROUP BY ?change "
+                    + "     } "
+                    + "     } "
+                    + "}")
+                .setParameter("commentContext", commentContext)
+                .setParameter("type", typeUri)
+                .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
+                .setParameter("hasTag", URI.create(TermVocabulary.s_p_ma_stitek))
+                .setParameter("discussion", CommentTag.DISCUSSION)
+                .getResultList();
+            Map<URI, List<Comment>> finalComments = new HashMap<>();
+            Map<URI, Integer> discussionCommentsCounts = new HashMap<>();
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                URI changeUri = URI.create(columns[0].toString());
+                if (Objects.nonNull(columns[1])) {
+                    find(URI.create(columns[1].toString())).ifPresent(comment ->
+                        finalComments.computeIfAbsent(changeUri, key -> new ArrayList<>()).add(comment));
+                } else {
+                    discussionCommentsCounts.put(changeUri, Integer.parseInt(columns[2].toString()));
+                }
+            }
+            Map<URI, ChangeComments> comments = new HashMap<>();
+            for (URI changeUri : changeUris) {
+                List<Comment> changeFinalComments = finalComments.getOrDefault(changeUri, List.of());
+                int discussionCommentsCount = discussionCommentsCounts.getOrDefault(changeUri, 0);
+                if (!changeFinalComments.isEmpty() || discussionCommentsCount > 0) {
+                    comments.put(changeUri, new ChangeComments(changeFinalComments, discussionCommentsCount));
+                }
+            }
+            return comments;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds final comments on specified changes created by specified user.
+     *
+     * @param changeUris URI identifiers of changes
+     * @param userUri    URI identifier of user
+     * @return list of comments
+     */
+    public List<Comment> findAllFinalCommentsOfUser(Collection<URI> changeUris, URI userUri) {
+        Objects.requireNonNull(changeUris);
+        Objects.requireNonNull(userUri);
+        if (changeUris.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return em.createNativeQuery("SELECT ?comment WHERE { "
+                    + "VALUES ?change { "
+                    + changeUris.stream().map(changeUri -> "<" + changeUri + ">").collect(Collectors.joining(" "))
+                    + " } "
+                    + "?comment a ?type ; "
+                    + "         ?topic ?change ; "
+                    + "         ?hasCreator ?user ; "
+                    + "         ?hasTag ?tag . "
+                    + "FILTER(STR(?tag) != ?discussion) "
+                    + "}", type)
+                .setParameter("type", typeUri)
+                .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
+                .setParameter("hasCreator", URI.create(TermVocabulary.s_p_has_creator))
+                .setParameter("user", userUri)
+                .setParameter("hasTag", URI.create(TermVocabulary.s_p_ma_stitek))
+                .setParameter("discussion", CommentTag.DISCUSSION)
+                .setDescriptor(descriptorFactory.commentDescriptor())
+                .getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     @Override
     public void persist(Comment entity) {
         Objects.requireNonNull(entity);
         try {
+            if (Objects.isNull(entity.getUri())) {
+                entity.setUri(generateEntityUri());
+            }
             em.persist(entity, descriptorFactory.commentDescriptor());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -79,7 +79,8 @@ public interface GenericDao<T extends HasIdentifier> {
     boolean exists(URI id);
 
     /**
-     * Generates a unique URI for the class managed by this DAO.
+     * Generates a unique URI for the class managed by this DAO. Uniqueness is guaranteed by time-ordered UUID, so no
+     * round trip to repository is needed.
      *
      * @return generated URI
      */
@@ -2,10 +2,13 @@ package com.github.checkit.dao;
 
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.GestoringRequest;
+import com.github.checkit.model.Vocabulary;
 import com.github.checkit.persistence.DescriptorFactory;
+import com.github.checkit.persistence.EntityCache;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.exceptions.NoResultException;
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
 import java.net.URI;
 import java.util.List;
 import java.util.Objects;
@@ -17,8 +20,8 @@ public class GestoringRequestDao extends BaseDao<GestoringRequest> {
 
     private final DescriptorFactory descriptorFactory;
 
-    protected GestoringRequestDao(EntityManager em, DescriptorFactory descriptorFactory) {
-        super(GestoringRequest.class, em);
+    protected GestoringRequestDao(EntityManager em, EntityCache entityCache, DescriptorFactory descriptorFactory) {
+        super(GestoringRequest.class, em, entityCache);
         this.descriptorFactory = descriptorFactory;
     }
 
@@ -46,7 +49,9 @@ public class GestoringRequestDao extends BaseDao<GestoringRequest> {
     public Optional<GestoringRequest> find(URI uri) {
         Objects.requireNonNull(uri);
         try {
-            return Optional.ofNullable(em.find(type, uri, descriptorFactory.gestoringRequestDescriptor()));
+            Descriptor descriptor = descriptorFactory.gestoringRequestDescriptor();
+            entityCache.recordLookup(type, uri, descriptor);
+            return Optional.ofNullable(em.find(type, uri, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -86,7 +91,7 @@ public class GestoringRequestDao extends BaseDao<GestoringRequest> {
         Objects.requireNonNull(entity);
         try {
             em.persist(entity, descriptorFactory.gestoringRequestDescriptor());
-            em.getEntityManagerFactory().getCache().evict(GestoringRequest.class);
+            evictVocabulary(entity);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -97,12 +102,18 @@ public class GestoringRequestDao extends BaseDao<GestoringRequest> {
         Objects.requireNonNull(entity);
         try {
             em.remove(entity);
-            em.getEntityManagerFactory().getCache().evict(GestoringRequest.class);
+            entityCache.evict(type, entity.getUri(), descriptorFactory.gestoringRequestDescriptor());
+            evictVocabulary(entity);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    private void evictVocabulary(GestoringRequest entity) {
+        entityCache.evict(Vocabulary.class, entity.getVocabulary(),
+            descriptorFactory.vocabularyDescriptor(entity.getVocabulary()));
+    }
+
     /**
      * Counts gestoring requests.
      *
@@ -2,9 +2,13 @@ package com.github.checkit.dao;
 
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.Notification;
+import com.github.checkit.model.auxilary.PageCursor;
 import com.github.checkit.persistence.DescriptorFactory;
+import com.github.checkit.persistence.EntityCache;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import java.net.URI;
 import java.util.List;
 import java.util.Objects;
@@ -16,8 +20,8 @@ public class NotificationDao extends BaseDao<Notification> {
 
     private final DescriptorFactory descriptorFactory;
 
-    protected NotificationDao(EntityManager em, DescriptorFactory descriptorFactory) {
-        super(Notification.class, em);
+    protected NotificationDao(EntityManager em, EntityCache entityCache, DescriptorFactory descriptorFactory) {
+        super(Notification.class, em, entityCache);
         this.descriptorFactory = descriptorFactory;
     }
 
@@ -61,6 +65,39 @@ public class NotificationDao extends BaseDao<Notification> {
         }
     }
 
+    /**
+     * Finds notifications for specified user following specified cursor, ordered from the newest.
+     *
+     * @param userUri  URI identifier of user
+     * @param cursor   position after which notifications are returned, {@code null} for the first page
+     * @param pageSize maximal number of notifications
+     */
+    public List<Notification> getAllForUser(URI userUri, PageCursor cursor, int pageSize) {
+        Objects.requireNonNull(userUri);
+        try {
+            TypedQuery<Notification> query = em.createNativeQuery("SELECT ?n WHERE { "
+                    + "?n a ?type ;"
+                    + "   ?addressedTo ?user ; "
+                    + "   ?created ?time . "
+                    + (Objects.isNull(cursor) ? "" :
+                       "FILTER (?time < ?cursorTime || (?time = ?cursorTime && STR(?n) < STR(?cursorUri))) ")
+                    + "} ORDER BY DESC(?time) DESC(STR(?n))", type)
+                .setParameter("type", typeUri)
+                .setParameter("addressedTo", URI.create(TermVocabulary.s_p_addressed_to))
+                .setParameter("user", userUri)
+                .setParameter("created", URI.create(TermVocabulary.s_p_ma_datum_a_cas_vytvoreni))
+                .setMaxResults(pageSize)
+                .setDescriptor(descriptorFactory.notificationDescriptor());
+            if (Objects.nonNull(cursor)) {
+                query.setParameter("cursorTime", cursor.time())
+                    .setParameter("cursorUri", cursor.uri());
+            }
+            return query.getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     /**
      * Finds all unread notifications for specified user.
      *
@@ -91,7 +128,9 @@ public class NotificationDao extends BaseDao<Notification> {
     public Optional<Notification> find(URI id) {
         Objects.requireNonNull(id);
         try {
-            return Optional.ofNullable(em.find(type, id, descriptorFactory.notificationDescriptor()));
+            Descriptor descriptor = descriptorFactory.notificationDescriptor();
+            entityCache.recordLookup(type, id, descriptor);
+            return Optional.ofNullable(em.find(type, id, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -101,6 +140,9 @@ public class NotificationDao extends BaseDao<Notification> {
     public void persist(Notification entity) {
         Objects.requireNonNull(entity);
         try {
+            if (Objects.isNull(entity.getUri())) {
+                entity.setUri(generateEntityUri());
+            }
             em.persist(entity, descriptorFactory.notificationDescriptor());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -3,6 +3,7 @@ package com.github.checkit.dao;
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.ProjectContext;
 import com.github.checkit.persistence.DescriptorFactory;
+import com.github.checkit.persistence.EntityCache;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.MultilingualString;
@@ -10,17 +11,25 @@ import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
 import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class ProjectContextDao extends BaseDao<ProjectContext> {
 
+    private static final int LABEL_BATCH_SIZE = 500;
+
     private final DescriptorFactory descriptorFactory;
 
-    protected ProjectContextDao(EntityManager em, DescriptorFactory descriptorFactory) {
-        super(ProjectContext.class, em);
+    protected ProjectContextDao(EntityManager em, EntityCache entityCache, DescriptorFactory descriptorFactory) {
+        super(ProjectContext.class, em, entityCache);
         this.descriptorFactory = descriptorFactory;
     }
 
@@ -29,6 +38,7 @@ public class ProjectContextDao extends BaseDao<ProjectContext> {
         Objects.requireNonNull(id);
         try {
             Descriptor descriptor = descriptorFactory.projectContextDescriptor(id);
+            entityCache.recordLookup(type, id, descriptor);
             return Optional.ofNullable(em.find(type, id, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -36,60 +46,84 @@ public class ProjectContextDao extends BaseDao<ProjectContext> {
     }
 
     /**
-     * Finds the labels of an IRI entity in a scope of specified project.
+     * Finds the labels of IRI entities in a scope of specified project.
      *
-     * @param projectContextUri project context where label should be searched
-     * @param iri               URI identifier of entity
-     * @return multilingual string
+     * @param projectContextUri project context where labels should be searched
+     * @param iris              URI identifiers of entities
+     * @return map of found labels, entities without label are not present
      */
-    public MultilingualString getPrefLabelOfIRI(URI projectContextUri, URI iri) {
+    public Map<URI, MultilingualString> getPrefLabelsOfIRIs(URI projectContextUri, Collection<URI> iris) {
         Objects.requireNonNull(projectContextUri);
-        Objects.requireNonNull(iri);
+        Objects.requireNonNull(iris);
+        Map<URI, MultilingualString> labels = new HashMap<>();
         try {
-            MultilingualString multilingualString = new MultilingualString();
-            em.createNativeQuery("SELECT DISTINCT ?lang ?label WHERE { "
-                    + "?project ?linksToContext ?graph . "
-                    + "GRAPH ?graph { "
-                    + "     ?iri ?prefLabel|?title ?literal . "
-                    + "     BIND(STR(?literal) as ?label) "
-                    + "     BIND(LANG(?literal) as ?lang) "
-                    + "}}")
-                .setParameter("project", projectContextUri)
-                .setParameter("linksToContext", URI.create(TermVocabulary.s_p_odkazuje_na_kontext))
-                .setParameter("iri", iri)
-                .setParameter("title", URI.create(DC.Terms.TITLE))
-                .setParameter("prefLabel", URI.create(SKOS.PREF_LABEL))
-                .getResultList().forEach(label -> multilingualString.set(((Object[]) label)[0].toString(),
-                    ((Object[]) label)[1].toString()));
-            return multilingualString;
+            for (List<URI> batch : splitToBatches(iris)) {
+                addLabels(labels, em.createNativeQuery("SELECT DISTINCT ?iri ?lang ?label WHERE { "
+                        + "?project ?linksToContext ?graph . "
+                        + createValuesClause(batch)
+                        + "GRAPH ?graph { "
+                        + "     ?iri ?prefLabel|?title ?literal . "
+                        + "     BIND(STR(?literal) as ?label) "
+                        + "     BIND(LANG(?literal) as ?lang) "
+                        + "}}")
+                    .setParameter("project", projectContextUri)
+                    .setParameter("linksToContext", URI.create(TermVocabulary.s_p_odkazuje_na_kontext))
+                    .setParameter("title", URI.create(DC.Terms.TITLE))
+                    .setParameter("prefLabel", URI.create(SKOS.PREF_LABEL))
+                    .getResultList());
+            }
+            return labels;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
     /**
-     * Finds the labels of an IRI entity.
+     * Finds the labels of IRI entities.
      *
-     * @param iri URI identifier of entity
-     * @return multilingual string
+     * @param iris URI identifiers of entities
+     * @return map of found labels, entities without label are not present
      */
-    public MultilingualString getPrefLabelOfIRI(URI iri) {
-        Objects.requireNonNull(iri);
+    public Map<URI, MultilingualString> getPrefLabelsOfIRIs(Collection<URI> iris) {
+        Objects.requireNonNull(iris);
+        Map<URI, MultilingualString> labels = new HashMap<>();
         try {
-            MultilingualString multilingualString = new MultilingualString();
-            em.createNativeQuery("SELECT DISTINCT ?lang ?label WHERE { "
-                    + "?iri ?prefLabel|?title ?literal . "
-                    + "BIND(STR(?literal) as ?label) "
-                    + "BIND(LANG(?literal) as ?lang) "
-                    + "}")
-                .setParameter("iri", iri)
-                .setParameter("title", URI.create(DC.Terms.TITLE))
-                .setParameter("prefLabel", URI.create(SKOS.PREF_LABEL))
-                .getResultList().forEach(label -> multilingualString.set(((Object[]) label)[0].toString(),
-                    ((Object[]) label)[1].toString()));
-            return multilingualString;
+            for (List<URI> batch : splitToBatches(iris)) {
+                addLabels(labels, em.createNativeQuery("SELECT DISTINCT ?iri ?lang ?label WHERE { "
+                        + createValuesClause(batch)
+                        + "?iri ?prefLabel|?title ?literal . "
+                        + "BIND(STR(?literal) as ?label) "
+                        + "BIND(LANG(?literal) as ?lang) "
+                        + "}")
+                    .setParameter("title", URI.create(DC.Terms.TITLE))
+                    .setParameter("prefLabel", URI.create(SKOS.PREF_LABEL))
+                    .getResultList());
+            }
+            return labels;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
+
+    private List<List<URI>> splitToBatches(Collection<URI> iris) {
+        List<URI> distinctIris = iris.stream().distinct().toList();
+        List<List<URI>> batches = new ArrayList<>();
+        for (int i = 0; i < distinctIris.size(); i += LABEL_BATCH_SIZE) {
+            batches.add(distinctIris.subList(i, Math.min(i + LABEL_BATCH_SIZE, distinctIris.size())));
+        }
+        return batches;
+    }
+
+    private String createValuesClause(List<URI> iris) {
+        return iris.stream().map(iri -> "<" + iri + ">")
+            .collect(Collectors.joining(" ", "VALUES ?iri { ", " } "));
+    }
+
+    private void addLabels(Map<URI, MultilingualString> labels, List<?> rows) {
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            labels.computeIfAbsent(URI.create(columns[0].toString()), iri -> new MultilingualString())
+                .set(columns[1].toString(), columns[2].toString());
+        }
+    }
 }
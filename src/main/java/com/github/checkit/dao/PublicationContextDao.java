@@ -1,48 +1,136 @@
 package com.github.checkit.dao;
 
+import com.github.checkit.config.properties.RepositoryConfigProperties;
 import com.github.checkit.exception.PersistenceException;
+import com.github.checkit.model.Change;
 import com.github.checkit.model.ChangeType;
 import com.github.checkit.model.PublicationContext;
-import com.github.checkit.model.auxilary.AbstractChangeableContext;
+import com.github.checkit.model.auxilary.ChangeSnapshot;
 import com.github.checkit.model.auxilary.CommentTag;
+import com.github.checkit.model.auxilary.PageCursor;
+import com.github.checkit.model.auxilary.PublicationContextOverview;
+import com.github.checkit.model.auxilary.PublicationContextVersion;
+import com.github.checkit.model.auxilary.RelationshipGroup;
+import com.github.checkit.model.auxilary.ReviewStatistics;
+import com.github.checkit.persistence.ChangeLocationCache;
 import com.github.checkit.persistence.DescriptorFactory;
+import com.github.checkit.persistence.EntityCache;
+import com.github.checkit.persistence.PublicationContextUpdateBuilder;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.exceptions.NoResultException;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.jopa.model.query.TypedQuery;
+import cz.cvut.kbss.jopa.vocabulary.DC;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class PublicationContextDao extends BaseDao<PublicationContext> {
 
+    /**
+     * Aggregates counters of changes countable to statistics of publication context ?pc. Counters of whole publication
+     * context are bound without ?vocabulary and ?reviewer, number of changes in vocabulary without ?reviewer.
+     */
+    private static final String REVIEW_STATISTICS_PATTERN = "{ "
+        + "     SELECT (COUNT(DISTINCT ?change) as ?total) (COUNT(DISTINCT ?approvedChange) as ?approved) WHERE { "
+        + "         ?pc ?hasChange ?change . "
+        + "         ?change ?countable ?true . "
+        + "         OPTIONAL { ?change ?approvedBy ?anyReviewer . BIND(?change as ?approvedChange) } "
+        + "         } "
+        + "} UNION { "
+        + "     SELECT ?vocabulary (COUNT(DISTINCT ?change) as ?total) WHERE { "
+        + "         ?pc ?hasChange ?change . "
+        + "         ?change ?countable ?true ; "
+        + "                 ?inContext ?ctx . "
+        + "         ?ctx ?basedOn ?vocabulary . "
+        + "         } GROUP BY ?vocabulary "
+        + "} UNION { "
+        + "     SELECT ?vocabulary ?reviewer (COUNT(DISTINCT ?approvedChange) as ?approved) "
+        + "            (COUNT(DISTINCT ?rejectedChange) as ?rejected) WHERE { "
+        + "         ?pc ?hasChange ?change . "
+        + "         ?change ?countable ?true ; "
+        + "                 ?inContext ?ctx . "
+        + "         ?ctx ?basedOn ?vocabulary . "
+        + "         { ?change ?approvedBy ?reviewer . BIND(?change as ?approvedChange) } "
+        + "         UNION { ?change ?rejectedBy ?reviewer . BIND(?change as ?rejectedChange) } "
+        + "         } GROUP BY ?vocabulary ?reviewer "
+        + "} ";
+    /**
+     * Binds ?statistics to URI identifier of counters of ?vocabulary and ?reviewer in publication context ?pc.
+     */
+    static final String STATISTICS_URI_BINDING = "BIND(IRI(CONCAT(STR(?pc), \"/statistika-revizí\", "
+        + "IF(BOUND(?vocabulary), CONCAT(\"-\", MD5(CONCAT(STR(?vocabulary), \" \", COALESCE(STR(?reviewer), \"\")))), "
+        + "\"\"))) as ?statistics) ";
+    /**
+     * Replaces counters of publication context ?pc by counters aggregated from its changes.
+     */
+    private static final String REVIEW_STATISTICS_RECOMPUTATION = "DELETE WHERE { "
+        + "GRAPH ?pc { "
+        + "     ?pc ?hasStatistics ?statistics . "
+        + "     ?statistics ?property ?value . "
+        + "     } "
+        + "} ; "
+        + "INSERT { "
+        + "GRAPH ?pc { "
+        + "     ?pc ?hasStatistics ?statistics . "
+        + "     ?statistics a ?statisticsType ; "
+        + "                 ?inVocabulary ?vocabulary ; "
+        + "                 ?hasReviewer ?reviewer ; "
+        + "                 ?totalCount ?total ; "
+        + "                 ?approvedCount ?approved ; "
+        + "                 ?rejectedCount ?rejected . "
+        + "     } "
+        + "} WHERE { "
+        + REVIEW_STATISTICS_PATTERN
+        + STATISTICS_URI_BINDING
+        + "}";
+
     private final DescriptorFactory descriptorFactory;
+    private final ChangeLocationCache changeLocationCache;
+    private final String language;
 
-    protected PublicationContextDao(EntityManager em, DescriptorFactory descriptorFactory) {
-        super(PublicationContext.class, em);
+    protected PublicationContextDao(EntityManager em, EntityCache entityCache, DescriptorFactory descriptorFactory,
+                                    ChangeLocationCache changeLocationCache,
+                                    RepositoryConfigProperties repositoryConfigProperties) {
+        super(PublicationContext.class, em, entityCache);
         this.descriptorFactory = descriptorFactory;
+        this.changeLocationCache = changeLocationCache;
+        this.language = repositoryConfigProperties.getLanguage();
     }
 
     /**
-     * Finds all open publication contexts.
+     * Finds all closed publication contexts.
      *
+     * @param pageNumber page number
+     * @param pageSize   page size
      * @return list of publication contexts
      */
-    public List<PublicationContext> findAllOpen() {
+    public List<PublicationContext> findAllClosed(int pageNumber, int pageSize) {
         try {
             return em.createNativeQuery("SELECT ?pc WHERE { "
                     + "?pc a ?type . "
-                    + "FILTER NOT EXISTS { "
-                    + "     ?comment a ?commentType ; "
-                    + "              ?topic ?pc . "
-                    + "     } "
-                    + "}", type)
+                    + "?comment a ?commentType ; "
+                    + "         ?created ?time ; "
+                    + "         ?topic ?pc . "
+                    + "} ORDER BY DESC(?time)", type)
                 .setParameter("type", typeUri)
                 .setParameter("commentType", URI.create(TermVocabulary.s_c_Comment))
                 .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
+                .setParameter("created", URI.create(TermVocabulary.s_p_ma_datum_a_cas_vytvoreni))
+                .setMaxResults(pageSize)
+                .setFirstResult(pageSize * pageNumber)
                 .getResultList();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -50,61 +138,113 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
     }
 
     /**
-     * Finds all closed publication contexts.
+     * Finds closed publication contexts following specified cursor, ordered from the most recently closed.
      *
-     * @param pageNumber page number
-     * @param pageSize   page size
+     * @param cursor   position after which publication contexts are returned, {@code null} for the first page
+     * @param pageSize maximal number of publication contexts
      * @return list of publication contexts
      */
-    public List<PublicationContext> findAllClosed(int pageNumber, int pageSize) {
+    public List<PublicationContext> findAllClosed(PageCursor cursor, int pageSize) {
         try {
-            return em.createNativeQuery("SELECT ?pc WHERE { "
+            TypedQuery<PublicationContext> query = em.createNativeQuery("SELECT ?pc WHERE { "
                     + "?pc a ?type . "
                     + "?comment a ?commentType ; "
                     + "         ?created ?time ; "
                     + "         ?topic ?pc . "
-                    + "} ORDER BY DESC(?time)", type)
+                    + (Objects.isNull(cursor) ? "" :
+                       "FILTER (?time < ?cursorTime || (?time = ?cursorTime && STR(?pc) < STR(?cursorUri))) ")
+                    + "} ORDER BY DESC(?time) DESC(STR(?pc))", type)
                 .setParameter("type", typeUri)
                 .setParameter("commentType", URI.create(TermVocabulary.s_c_Comment))
                 .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
                 .setParameter("created", URI.create(TermVocabulary.s_p_ma_datum_a_cas_vytvoreni))
-                .setMaxResults(pageSize)
-                .setFirstResult(pageSize * pageNumber)
-                .getResultList();
+                .setMaxResults(pageSize);
+            if (Objects.nonNull(cursor)) {
+                query.setParameter("cursorTime", cursor.time())
+                    .setParameter("cursorUri", cursor.uri());
+            }
+            return query.getResultList();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
     /**
-     * Finds all open publication contexts that has some changes in vocabularies that specified user is gestoring.
+     * Finds overviews of all open publication contexts with their review statistics. Whether a publication context
+     * has some changes in vocabularies gestored by specified user is resolved as well.
      *
-     * @param userUri URI identifiers of a user
-     * @return list of publication contexts
+     * @param userUri URI identifier of a user
+     * @return list of overviews of publication contexts
      */
-    public List<PublicationContext> findAllOpenThatAffectVocabulariesGestoredBy(URI userUri) {
+    public List<PublicationContextOverview> findAllOpenOverviews(URI userUri) {
         Objects.requireNonNull(userUri);
         try {
-            return em.createNativeQuery("SELECT DISTINCT ?pc WHERE { "
+            List<?> rows = em.createNativeQuery("SELECT ?pc ?project ?label ?gestored ?statistics ?vocabulary "
+                    + "?reviewer ?total ?approved ?rejected WHERE { "
                     + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?inContext ?ctx . "
-                    + "?ctx ?basedOn ?voc . "
-                    + "?voc ?gestoredBy ?user . "
+                    + "    ?fromProject ?project . "
+                    + "?project ?title ?projectLabel . "
+                    + "BIND(STR(?projectLabel) as ?label) "
                     + "FILTER NOT EXISTS { "
                     + "     ?comment a ?commentType ; "
                     + "              ?topic ?pc . "
                     + "     } "
-                    + "}", type)
+                    + "BIND(EXISTS { "
+                    + "     ?pc ?hasChange ?change . "
+                    + "     ?change ?inContext ?ctx . "
+                    + "     ?ctx ?basedOn ?voc . "
+                    + "     ?voc ?gestoredBy ?user . "
+                    + "     } as ?gestored) "
+                    + "OPTIONAL { "
+                    + "     GRAPH ?pc { "
+                    + "         ?pc ?hasStatistics ?statistics . "
+                    + "         OPTIONAL { ?statistics ?inVocabulary ?vocabulary . } "
+                    + "         OPTIONAL { ?statistics ?hasReviewer ?reviewer . } "
+                    + "         OPTIONAL { ?statistics ?totalCount ?total . } "
+                    + "         OPTIONAL { ?statistics ?approvedCount ?approved . } "
+                    + "         OPTIONAL { ?statistics ?rejectedCount ?rejected . } "
+                    + "         } "
+                    + "     } "
+                    + "}")
                 .setParameter("type", typeUri)
+                .setParameter("fromProject", URI.create(TermVocabulary.s_p_z_projektu))
+                .setParameter("title", URI.create(DC.Terms.TITLE))
+                .setParameter("commentType", URI.create(TermVocabulary.s_c_Comment))
+                .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
                 .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
                 .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
                 .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
                 .setParameter("gestoredBy", URI.create(TermVocabulary.s_p_ma_gestora))
                 .setParameter("user", userUri)
-                .setParameter("commentType", URI.create(TermVocabulary.s_c_Comment))
-                .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
+                .setParameter("hasStatistics", URI.create(TermVocabulary.s_p_ma_statistiku_revizi))
+                .setParameter("inVocabulary", URI.create(TermVocabulary.s_p_ve_slovniku))
+                .setParameter("hasReviewer", URI.create(TermVocabulary.s_p_ma_revidujiciho))
+                .setParameter("totalCount", URI.create(TermVocabulary.s_p_ma_pocet_zmen))
+                .setParameter("approvedCount", URI.create(TermVocabulary.s_p_ma_pocet_schvalenych_zmen))
+                .setParameter("rejectedCount", URI.create(TermVocabulary.s_p_ma_pocet_zamitnutych_zmen))
                 .getResultList();
+            Map<URI, PublicationContextOverview> overviews = new LinkedHashMap<>();
+            Set<URI> materialized = new HashSet<>();
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                URI publicationContextUri = toUri(columns[0]);
+                PublicationContextOverview overview = overviews.computeIfAbsent(publicationContextUri,
+                    uri -> new PublicationContextOverview(uri, toUri(columns[1]), columns[2].toString(),
+                        Boolean.TRUE.equals(columns[3])));
+                if (Objects.isNull(columns[4])) {
+                    continue;
+                }
+                URI vocabularyUri = toUri(columns[5]);
+                if (Objects.isNull(vocabularyUri)) {
+                    materialized.add(publicationContextUri);
+                }
+                overview.getReviewStatistics().add(vocabularyUri, toUri(columns[6]), toInt(columns[7]),
+                    toInt(columns[8]), toInt(columns[9]));
+            }
+            overviews.values().stream()
+                .filter(overview -> !materialized.contains(overview.getUri()))
+                .forEach(overview -> overview.setReviewStatistics(findReviewStatistics(overview.getUri())));
+            return new ArrayList<>(overviews.values());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -115,6 +255,7 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
         Objects.requireNonNull(uri);
         try {
             Descriptor descriptor = descriptorFactory.publicationContextDescriptor(uri);
+            entityCache.recordLookup(type, uri, descriptor);
             return Optional.ofNullable(em.find(type, uri, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -163,6 +304,10 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
      */
     public Optional<PublicationContext> findFromChange(URI changeUri) {
         Objects.requireNonNull(changeUri);
+        Optional<URI> cached = changeLocationCache.get(changeUri);
+        if (cached.isPresent()) {
+            return find(cached.get());
+        }
         try {
             return find(em.createNativeQuery("SELECT ?pc WHERE { "
                     + "?pc a ?type ; "
@@ -186,7 +331,8 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
             entity.setUri(generateEntityUri());
             Descriptor descriptor = descriptorFactory.publicationContextDescriptor(entity);
             em.persist(entity, descriptor);
-            em.getEntityManagerFactory().getCache().evict(PublicationContext.class);
+            entityCache.evict(type, entity.getUri(), descriptor);
+            changeLocationCache.putAll(entity);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -198,7 +344,7 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
         try {
             Descriptor descriptor = descriptorFactory.publicationContextDescriptor(entity);
             PublicationContext merged = em.merge(entity, descriptor);
-            em.getEntityManagerFactory().getCache().evict(PublicationContext.class);
+            entityCache.evict(type, entity.getUri(), descriptor);
             return merged;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -206,24 +352,184 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
     }
 
     /**
-     * Get all contexts affected in specified publication context.
+     * Detaches specified publication context and its changes from persistence context, so their modifications are not
+     * written to the repository. Modifications are written by
+     * {@link #updateChanges(PublicationContext, Map, Collection, Collection)}.
+     *
+     * @param entity publication context
+     */
+    public void detach(PublicationContext entity) {
+        Objects.requireNonNull(entity);
+        try {
+            entity.getChanges().forEach(em::detach);
+            em.detach(entity);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Writes changes of specified detached publication context that differ from their previous state in a single
+     * SPARQL UPDATE. Changes that are no longer in the publication context are removed with their objects, new changes
+     * are inserted and only modified attributes of remaining changes are rewritten. Corresponding pull request, time of
+     * modification and relationship groups of changes of the publication context are replaced as well and review
+     * counters are aggregated again from the written changes.
+     *
+     * <p>The update is executed by the repository at once, regardless of the current transaction, so it should be the
+     * last step that can fail.
+     *
+     * @param entity             detached publication context
+     * @param previousChanges    state of changes of the publication context before modification
+     * @param removedChangeUris  URI identifiers of changes removed from the publication context
+     * @param relationshipGroups relationship groups of all changes of the publication context
+     */
+    public void updateChanges(PublicationContext entity, Map<URI, ChangeSnapshot> previousChanges,
+                              Collection<URI> removedChangeUris, Collection<RelationshipGroup> relationshipGroups) {
+        Objects.requireNonNull(entity);
+        Objects.requireNonNull(previousChanges);
+        Objects.requireNonNull(removedChangeUris);
+        Objects.requireNonNull(relationshipGroups);
+        try {
+            entity.preUpdate();
+            PublicationContextUpdateBuilder update = new PublicationContextUpdateBuilder(entity.getUri(), language);
+            update.removeChanges(removedChangeUris);
+            for (Change change : entity.getChanges()) {
+                ChangeSnapshot previous = previousChanges.get(change.getUri());
+                if (Objects.isNull(previous)) {
+                    update.insertChange(change);
+                } else {
+                    update.updateChange(change, previous);
+                }
+            }
+            update.replacePublicationContextValue(TermVocabulary.s_p_odpovidajici_pull_request,
+                entity.getCorrespondingPullRequest());
+            update.replacePublicationContextValue(TermVocabulary.s_p_ma_datum_a_cas_posledni_modifikace,
+                entity.getModified());
+            update.replaceRelationshipGroups(relationshipGroups);
+            setRecomputationParameters(
+                em.createNativeQuery(update.build() + " ; " + REVIEW_STATISTICS_RECOMPUTATION), entity.getUri())
+                .executeUpdate();
+            entityCache.evictContext(type, entity.getUri());
+            changeLocationCache.removeAll(removedChangeUris);
+            changeLocationCache.putAll(entity);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Replaces stored relationship groups of changes in specified publication context in a single SPARQL UPDATE.
+     *
+     * @param publicationContextUri URI identifier of publication context
+     * @param relationshipGroups    relationship groups of all changes of the publication context
+     */
+    public void replaceRelationshipGroups(URI publicationContextUri,
+                                          Collection<RelationshipGroup> relationshipGroups) {
+        Objects.requireNonNull(publicationContextUri);
+        Objects.requireNonNull(relationshipGroups);
+        try {
+            PublicationContextUpdateBuilder update =
+                new PublicationContextUpdateBuilder(publicationContextUri, language);
+            update.replaceRelationshipGroups(relationshipGroups);
+            em.createNativeQuery(update.build()).executeUpdate();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds stored relationship groups of changes of specified vocabulary in specified publication context.
      *
      * @param publicationContextUri URI identifier of publication context
-     * @return list of contexts
+     * @param vocabularyUri         URI identifier of vocabulary
+     * @return relationship groups, nothing if the groups were not stored when the publication context was submitted
      */
-    public List<AbstractChangeableContext> getAllAffectedContexts(URI publicationContextUri) {
+    public Optional<List<RelationshipGroup>> findRelationshipGroups(URI publicationContextUri, URI vocabularyUri) {
         Objects.requireNonNull(publicationContextUri);
+        Objects.requireNonNull(vocabularyUri);
         try {
-            return em.createNativeQuery("SELECT DISTINCT ?ctx WHERE { "
+            List<?> rows = em.createNativeQuery("SELECT ?group ?change WHERE { "
+                    + "GRAPH ?pc { "
+                    + "     ?pc ?grouped ?isGrouped . "
+                    + "     OPTIONAL { "
+                    + "         ?pc ?hasGroup ?group . "
+                    + "         ?group ?inVocabulary ?vocabulary ; "
+                    + "                ?containsChange ?change . "
+                    + "         } "
+                    + "     } "
+                    + "}")
+                .setParameter("pc", publicationContextUri)
+                .setParameter("grouped", URI.create(TermVocabulary.s_p_ma_seskupene_vztahy))
+                .setParameter("hasGroup", URI.create(TermVocabulary.s_p_ma_skupinu_zmen_vztahu))
+                .setParameter("inVocabulary", URI.create(TermVocabulary.s_p_ve_slovniku))
+                .setParameter("vocabulary", vocabularyUri)
+                .setParameter("containsChange", URI.create(TermVocabulary.s_p_obsahuje_zmenu))
+                .getResultList();
+            if (rows.isEmpty()) {
+                return Optional.empty();
+            }
+            Map<URI, Set<URI>> groups = new LinkedHashMap<>();
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                if (Objects.nonNull(columns[0])) {
+                    groups.computeIfAbsent(toUri(columns[0]), key -> new HashSet<>()).add(toUri(columns[1]));
+                }
+            }
+            return Optional.of(groups.values().stream()
+                .map(changeUris -> new RelationshipGroup(vocabularyUri, changeUris)).toList());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds users who approved all changes, except rollbacked ones, in each context affected in specified publication
+     * context.
+     *
+     * @param publicationContextUri URI identifier of publication context
+     * @return map of URI identifiers of vocabularies the contexts are based on to URI identifiers of users
+     */
+    public Map<URI, Set<URI>> findApprovedByOfAffectedContexts(URI publicationContextUri) {
+        Objects.requireNonNull(publicationContextUri);
+        try {
+            List<?> rows = em.createNativeQuery("SELECT DISTINCT ?vocabulary ?user WHERE { "
                     + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?inContext ?ctx . "
-                    + "}", AbstractChangeableContext.class)
+                    + "    ?hasChange ?anyChange . "
+                    + "?anyChange ?inContext ?ctx . "
+                    + "?ctx ?basedOn ?vocabulary . "
+                    + "OPTIONAL { "
+                    + "     ?pc ?hasChange ?approvedChange . "
+                    + "     ?approvedChange ?inContext ?ctx ; "
+                    + "                     ?isOfType ?approvedChangeType ; "
+                    + "                     ?approvedBy ?user . "
+                    + "     FILTER (?approvedChangeType != ?rollbacked) "
+                    + "     FILTER NOT EXISTS { "
+                    + "         ?pc ?hasChange ?change . "
+                    + "         ?change ?inContext ?ctx ; "
+                    + "                 ?isOfType ?changeType . "
+                    + "         FILTER (?changeType != ?rollbacked) "
+                    + "         FILTER NOT EXISTS { ?change ?approvedBy ?user . } "
+                    + "         } "
+                    + "     } "
+                    + "}")
                 .setParameter("pc", publicationContextUri)
                 .setParameter("type", typeUri)
                 .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
                 .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
+                .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
+                .setParameter("isOfType", URI.create(TermVocabulary.s_p_je_typu))
+                .setParameter("rollbacked", URI.create(TermVocabulary.s_c_vraceno_zpet))
+                .setParameter("approvedBy", URI.create(TermVocabulary.s_p_schvaleno))
                 .getResultList();
+            Map<URI, Set<URI>> approvedBy = new HashMap<>();
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                Set<URI> users = approvedBy.computeIfAbsent(toUri(columns[0]), key -> new HashSet<>());
+                if (Objects.nonNull(columns[1])) {
+                    users.add(toUri(columns[1]));
+                }
+            }
+            return approvedBy;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -262,30 +568,21 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
     }
 
     /**
-     * Checks if specified publication context has some change that is in vocabulary gestored by specified user.
+     * Checks if specified publication context is closed, i.e. it has a final comment.
      *
      * @param publicationContextUri URI identifier of publication context
-     * @param userUri               URI identifier of user
      * @return true or false
      */
-    public boolean canUserReview(URI publicationContextUri, URI userUri) {
+    public boolean isClosed(URI publicationContextUri) {
         Objects.requireNonNull(publicationContextUri);
-        Objects.requireNonNull(userUri);
         try {
             return em.createNativeQuery("ASK { "
-                    + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?inContext ?ctx . "
-                    + "?ctx ?basedOn ?voc . "
-                    + "?voc ?gestoredBy ?user . "
+                    + "?pc a ?type . "
+                    + "?comment ?topic ?pc . "
                     + "}", Boolean.class)
                 .setParameter("pc", publicationContextUri)
                 .setParameter("type", typeUri)
-                .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
-                .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
-                .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
-                .setParameter("gestoredBy", URI.create(TermVocabulary.s_p_ma_gestora))
-                .setParameter("user", userUri)
+                .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
                 .getSingleResult();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -293,17 +590,15 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
     }
 
     /**
-     * Checks if specified user is gestor of specified vocabulary present in specified publication context.
+     * Checks if specified publication context has some change that is in vocabulary gestored by specified user.
      *
-     * @param userUri               URI identifier of user
      * @param publicationContextUri URI identifier of publication context
-     * @param vocabularyUri         URI identifier of vocabulary
+     * @param userUri               URI identifier of user
      * @return true or false
      */
-    public boolean isUserPermittedToReviewVocabulary(URI userUri, URI publicationContextUri, URI vocabularyUri) {
-        Objects.requireNonNull(userUri);
+    public boolean canUserReview(URI publicationContextUri, URI userUri) {
         Objects.requireNonNull(publicationContextUri);
-        Objects.requireNonNull(vocabularyUri);
+        Objects.requireNonNull(userUri);
         try {
             return em.createNativeQuery("ASK { "
                     + "?pc a ?type ; "
@@ -317,7 +612,6 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
                 .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
                 .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
                 .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
-                .setParameter("voc", vocabularyUri)
                 .setParameter("gestoredBy", URI.create(TermVocabulary.s_p_ma_gestora))
                 .setParameter("user", userUri)
                 .getSingleResult();
@@ -327,36 +621,32 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
     }
 
     /**
-     * Checks if all changes in specified publication context in specified context are approve by specified user.
+     * Checks if specified user is gestor of specified vocabulary present in specified publication context.
      *
-     * @param publicationContextUri URI identifier of publication context
      * @param userUri               URI identifier of user
-     * @param contextUri            URI identifier of vocabulary
+     * @param publicationContextUri URI identifier of publication context
+     * @param vocabularyUri         URI identifier of vocabulary
      * @return true or false
      */
-    public boolean hasApprovedWholeContext(URI publicationContextUri, URI contextUri, URI userUri) {
-        Objects.requireNonNull(publicationContextUri);
-        Objects.requireNonNull(contextUri);
+    public boolean isUserPermittedToReviewVocabulary(URI userUri, URI publicationContextUri, URI vocabularyUri) {
         Objects.requireNonNull(userUri);
+        Objects.requireNonNull(publicationContextUri);
+        Objects.requireNonNull(vocabularyUri);
         try {
-            return !em.createNativeQuery("ASK { "
+            return em.createNativeQuery("ASK { "
                     + "?pc a ?type ; "
                     + "    ?hasChange ?change . "
-                    + "?change ?inContext ?ctx ; "
-                    + "        ?isOfType ?changeType . "
-                    + "FILTER (?changeType != ?rollbacked)"
-                    + "FILTER NOT EXISTS { "
-                    + "     ?change ?approvedBy ?user . "
-                    + "     }"
+                    + "?change ?inContext ?ctx . "
+                    + "?ctx ?basedOn ?voc . "
+                    + "?voc ?gestoredBy ?user . "
                     + "}", Boolean.class)
                 .setParameter("pc", publicationContextUri)
                 .setParameter("type", typeUri)
                 .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
                 .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
-                .setParameter("ctx", contextUri)
-                .setParameter("isOfType", URI.create(TermVocabulary.s_p_je_typu))
-                .setParameter("rollbacked", URI.create(TermVocabulary.s_c_vraceno_zpet))
-                .setParameter("approvedBy", URI.create(TermVocabulary.s_p_schvaleno))
+                .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
+                .setParameter("voc", vocabularyUri)
+                .setParameter("gestoredBy", URI.create(TermVocabulary.s_p_ma_gestora))
                 .setParameter("user", userUri)
                 .getSingleResult();
         } catch (RuntimeException e) {
@@ -386,226 +676,163 @@ public class PublicationContextDao extends BaseDao<PublicationContext> {
     }
 
     /**
-     * Counts changes in specified publication context.
+     * Finds counters of changes and their reviews in specified publication context. Counters that were not
+     * materialized yet are aggregated from the changes.
      *
      * @param publicationContextUri URI identifier of publication context
-     * @return number of changes
+     * @return review statistics
      */
-    public Integer countChanges(URI publicationContextUri) {
+    public ReviewStatistics findReviewStatistics(URI publicationContextUri) {
         Objects.requireNonNull(publicationContextUri);
         try {
-            return em.createNativeQuery("SELECT (COUNT(DISTINCT ?change) as ?count) WHERE { "
-                    + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?countable ?true . "
-                    + "}", Integer.class)
-                .setParameter("type", typeUri)
+            List<?> rows = em.createNativeQuery("SELECT ?vocabulary ?reviewer ?total ?approved ?rejected WHERE { "
+                    + "GRAPH ?pc { "
+                    + "     ?pc ?hasStatistics ?statistics . "
+                    + "     OPTIONAL { ?statistics ?inVocabulary ?vocabulary . } "
+                    + "     OPTIONAL { ?statistics ?hasReviewer ?reviewer . } "
+                    + "     OPTIONAL { ?statistics ?totalCount ?total . } "
+                    + "     OPTIONAL { ?statistics ?approvedCount ?approved . } "
+                    + "     OPTIONAL { ?statistics ?rejectedCount ?rejected . } "
+                    + "     } "
+                    + "}")
                 .setParameter("pc", publicationContextUri)
-                .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
-                .setParameter("countable", URI.create(TermVocabulary.s_p_je_pocitatelna_do_statistiky))
-                .setParameter("true", true)
-                .setDescriptor(descriptorFactory.publicationContextDescriptor(publicationContextUri))
-                .getSingleResult();
+                .setParameter("hasStatistics", URI.create(TermVocabulary.s_p_ma_statistiku_revizi))
+                .setParameter("inVocabulary", URI.create(TermVocabulary.s_p_ve_slovniku))
+                .setParameter("hasReviewer", URI.create(TermVocabulary.s_p_ma_revidujiciho))
+                .setParameter("totalCount", URI.create(TermVocabulary.s_p_ma_pocet_zmen))
+                .setParameter("approvedCount", URI.create(TermVocabulary.s_p_ma_pocet_schvalenych_zmen))
+                .setParameter("rejectedCount", URI.create(TermVocabulary.s_p_ma_pocet_zamitnutych_zmen))
+                .getResultList();
+            boolean materialized = rows.stream().anyMatch(row -> Objects.isNull(((Object[]) row)[0]));
+            if (!materialized) {
+                rows = setReviewStatisticsParameters(
+                    em.createNativeQuery("SELECT ?vocabulary ?reviewer ?total ?approved ?rejected WHERE { "
+                        + REVIEW_STATISTICS_PATTERN
+                        + "}"), publicationContextUri)
+                    .getResultList();
+            }
+            ReviewStatistics statistics = new ReviewStatistics();
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                statistics.add(toUri(columns[0]), toUri(columns[1]), toInt(columns[2]), toInt(columns[3]),
+                    toInt(columns[4]));
+            }
+            return statistics;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
     /**
-     * Counts changes in specified publication context in specified vocabulary.
+     * Replaces counters of changes and their reviews in specified publication context by counters aggregated from its
+     * changes.
      *
      * @param publicationContextUri URI identifier of publication context
-     * @param vocabularyUri         URI identifier of vocabulary
-     * @return number of changes
      */
-    public Integer countChangesInVocabulary(URI publicationContextUri, URI vocabularyUri) {
+    public void recomputeReviewStatistics(URI publicationContextUri) {
         Objects.requireNonNull(publicationContextUri);
-        Objects.requireNonNull(vocabularyUri);
         try {
-            return em.createNativeQuery("SELECT (COUNT(DISTINCT ?change) as ?count) WHERE { "
-                    + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?inContext ?ctx ; "
-                    + "        ?countable ?true . "
-                    + "?ctx ?basedOn ?voc . "
-                    + "}", Integer.class)
-                .setParameter("type", typeUri)
-                .setParameter("pc", publicationContextUri)
-                .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
-                .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
-                .setParameter("countable", URI.create(TermVocabulary.s_p_je_pocitatelna_do_statistiky))
-                .setParameter("true", true)
-                .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
-                .setParameter("voc", vocabularyUri)
-                .getSingleResult();
+            setRecomputationParameters(em.createNativeQuery(REVIEW_STATISTICS_RECOMPUTATION), publicationContextUri)
+                .executeUpdate();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
     /**
-     * Counts changes reviewable by specified user in specified publication context.
+     * Increases version of reviews in specified publication context. The version changes whenever a review of some of
+     * its changes is changed.
      *
      * @param publicationContextUri URI identifier of publication context
-     * @param userUri               URI identifier of user
-     * @return number of changes
      */
-    public Integer countReviewableChanges(URI publicationContextUri, URI userUri) {
+    public void increaseReviewVersion(URI publicationContextUri) {
         Objects.requireNonNull(publicationContextUri);
-        Objects.requireNonNull(userUri);
         try {
-            return em.createNativeQuery("SELECT (COUNT(DISTINCT ?change) as ?count) WHERE { "
-                    + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?inContext ?ctx ; "
-                    + "        ?countable ?true . "
-                    + "?ctx ?basedOn ?voc . "
-                    + "?voc ?gestoredBy ?user . "
-                    + "}", Integer.class)
-                .setParameter("type", typeUri)
+            em.createNativeQuery("DELETE { "
+                    + "GRAPH ?pc { ?pc ?hasReviewVersion ?oldVersion . } "
+                    + "} INSERT { "
+                    + "GRAPH ?pc { ?pc ?hasReviewVersion ?newVersion . } "
+                    + "} WHERE { "
+                    + "OPTIONAL { GRAPH ?pc { ?pc ?hasReviewVersion ?oldVersion . } } "
+                    + "BIND(COALESCE(?oldVersion, 0) + 1 as ?newVersion) "
+                    + "}")
                 .setParameter("pc", publicationContextUri)
-                .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
-                .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
-                .setParameter("countable", URI.create(TermVocabulary.s_p_je_pocitatelna_do_statistiky))
-                .setParameter("true", true)
-                .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
-                .setParameter("gestoredBy", URI.create(TermVocabulary.s_p_ma_gestora))
-                .setParameter("user", userUri)
-                .getSingleResult();
+                .setParameter("hasReviewVersion", URI.create(TermVocabulary.s_p_ma_verzi_revizi))
+                .executeUpdate();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
     /**
-     * Counts approved changes in specified publication context.
+     * Finds version of specified publication context made of its last modification, version of reviews of its changes
+     * and comments on it and its changes.
      *
      * @param publicationContextUri URI identifier of publication context
-     * @return number of changes
+     * @return version of publication context if it exists
      */
-    public Integer countApprovedChanges(URI publicationContextUri) {
+    public Optional<PublicationContextVersion> findVersion(URI publicationContextUri) {
         Objects.requireNonNull(publicationContextUri);
         try {
-            return em.createNativeQuery("SELECT (COUNT(DISTINCT ?change) as ?count) WHERE { "
+            List<?> rows = em.createNativeQuery("SELECT ?modified ?reviewVersion "
+                    + "(MAX(?commentModified) as ?lastComment) (COUNT(DISTINCT ?comment) as ?comments) WHERE { "
                     + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?approvedBy ?user ; "
-                    + "        ?countable ?true . "
-                    + "}", Integer.class)
-                .setParameter("type", typeUri)
+                    + "    ?hasModified ?modified . "
+                    + "OPTIONAL { GRAPH ?pc { ?pc ?hasReviewVersion ?reviewVersion . } } "
+                    + "OPTIONAL { "
+                    + "     { ?comment ?topic ?pc . } "
+                    + "     UNION { "
+                    + "         ?pc ?hasChange ?change . "
+                    + "         ?comment ?topic ?change . "
+                    + "         } "
+                    + "     ?comment ?hasModified ?commentModified . "
+                    + "     } "
+                    + "} GROUP BY ?modified ?reviewVersion")
                 .setParameter("pc", publicationContextUri)
+                .setParameter("type", typeUri)
+                .setParameter("hasModified", URI.create(TermVocabulary.s_p_ma_datum_a_cas_posledni_modifikace))
+                .setParameter("hasReviewVersion", URI.create(TermVocabulary.s_p_ma_verzi_revizi))
+                .setParameter("topic", URI.create(TermVocabulary.s_p_topic))
                 .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
-                .setParameter("approvedBy", URI.create(TermVocabulary.s_p_schvaleno))
-                .setParameter("countable", URI.create(TermVocabulary.s_p_je_pocitatelna_do_statistiky))
-                .setParameter("true", true)
-                .setDescriptor(descriptorFactory.publicationContextDescriptor(publicationContextUri))
-                .getSingleResult();
+                .getResultList();
+            return rows.stream().findFirst().map(row -> {
+                Object[] columns = (Object[]) row;
+                return new PublicationContextVersion(toInstant(columns[0]), toInt(columns[1]),
+                    toInstant(columns[2]), toInt(columns[3]));
+            });
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
-    /**
-     * Counts changes approved by specified user in specified publication context.
-     *
-     * @param publicationContextUri URI identifier of publication context
-     * @param userUri               URI identifier of user
-     * @return number of changes
-     */
-    public Integer countApprovedChanges(URI publicationContextUri, URI userUri) {
-        return countReviewedChanges(publicationContextUri, userUri, URI.create(TermVocabulary.s_p_schvaleno));
+    private Query setReviewStatisticsParameters(Query query, URI publicationContextUri) {
+        return query
+            .setParameter("pc", publicationContextUri)
+            .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
+            .setParameter("countable", URI.create(TermVocabulary.s_p_je_pocitatelna_do_statistiky))
+            .setParameter("true", true)
+            .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
+            .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
+            .setParameter("approvedBy", URI.create(TermVocabulary.s_p_schvaleno))
+            .setParameter("rejectedBy", URI.create(TermVocabulary.s_p_zamitnuto));
     }
 
-    /**
-     * Counts changes approved by specified user in specified publication context in specified vocabulary.
-     *
-     * @param publicationContextUri URI identifier of publication context
-     * @param userUri               URI identifier of user
-     * @param vocabularyUri         URI identifier of vocabulary
-     * @return number of changes
-     */
-    public Integer countApprovedChangesInVocabulary(URI publicationContextUri, URI userUri, URI vocabularyUri) {
-        return countReviewedChangesInVocabulary(publicationContextUri, userUri, vocabularyUri,
-            URI.create(TermVocabulary.s_p_schvaleno));
+    private Query setRecomputationParameters(Query query, URI publicationContextUri) {
+        return setReviewStatisticsParameters(query, publicationContextUri)
+            .setParameter("hasStatistics", URI.create(TermVocabulary.s_p_ma_statistiku_revizi))
+            .setParameter("statisticsType", URI.create(TermVocabulary.s_c_statistika_revizi))
+            .setParameter("inVocabulary", URI.create(TermVocabulary.s_p_ve_slovniku))
+            .setParameter("hasReviewer", URI.create(TermVocabulary.s_p_ma_revidujiciho))
+            .setParameter("totalCount", URI.create(TermVocabulary.s_p_ma_pocet_zmen))
+            .setParameter("approvedCount", URI.create(TermVocabulary.s_p_ma_pocet_schvalenych_zmen))
+            .setParameter("rejectedCount", URI.create(TermVocabulary.s_p_ma_pocet_zamitnutych_zmen));
     }
 
-    /**
-     * Counts changes rejected by specified user in specified publication context.
-     *
-     * @param publicationContextUri URI identifier of publication context
-     * @param userUri               URI identifier of user
-     * @return number of changes
-     */
-    public Integer countRejectedChanges(URI publicationContextUri, URI userUri) {
-        return countReviewedChanges(publicationContextUri, userUri, URI.create(TermVocabulary.s_p_zamitnuto));
-    }
-
-    /**
-     * Counts changes rejected by specified user in specified publication context in specified vocabulary.
-     *
-     * @param publicationContextUri URI identifier of publication context
-     * @param userUri               URI identifier of user
-     * @param vocabularyUri         URI identifier of vocabulary
-     * @return number of changes
-     */
-    public Integer countRejectedChangesInVocabulary(URI publicationContextUri, URI userUri, URI vocabularyUri) {
-        return countReviewedChangesInVocabulary(publicationContextUri, userUri, vocabularyUri,
-            URI.create(TermVocabulary.s_p_zamitnuto));
-    }
-
-    private Integer countReviewedChanges(URI publicationContextUri, URI userUri, URI reviewRelationUri) {
-        Objects.requireNonNull(publicationContextUri);
-        Objects.requireNonNull(userUri);
-        Objects.requireNonNull(reviewRelationUri);
-        try {
-            return em.createNativeQuery("SELECT (COUNT(DISTINCT ?change) as ?count) WHERE { "
-                    + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?reviewedBy ?user ; "
-                    + "        ?countable ?true . "
-                    + "}", Integer.class)
-                .setParameter("type", typeUri)
-                .setParameter("pc", publicationContextUri)
-                .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
-                .setParameter("reviewedBy", reviewRelationUri)
-                .setParameter("user", userUri)
-                .setParameter("countable", URI.create(TermVocabulary.s_p_je_pocitatelna_do_statistiky))
-                .setParameter("true", true)
-                .setDescriptor(descriptorFactory.publicationContextDescriptor(publicationContextUri))
-                .getSingleResult();
-        } catch (RuntimeException e) {
-            throw new PersistenceException(e);
-        }
+    private static URI toUri(Object value) {
+        return Objects.isNull(value) ? null : URI.create(value.toString());
     }
 
-    private Integer countReviewedChangesInVocabulary(URI publicationContextUri, URI userUri, URI vocabularyUri,
-                                                     URI reviewRelationUri) {
-        Objects.requireNonNull(publicationContextUri);
-        Objects.requireNonNull(userUri);
-        Objects.requireNonNull(vocabularyUri);
-        Objects.requireNonNull(reviewRelationUri);
-        try {
-            return em.createNativeQuery("SELECT (COUNT(DISTINCT ?change) as ?count) WHERE { "
-                    + "?pc a ?type ; "
-                    + "    ?hasChange ?change . "
-                    + "?change ?reviewedBy ?user ; "
-                    + "        ?inContext ?ctx ; "
-                    + "        ?countable ?true . "
-                    + "?ctx ?basedOn ?voc . "
-                    + "}", Integer.class)
-                .setParameter("type", typeUri)
-                .setParameter("pc", publicationContextUri)
-                .setParameter("hasChange", URI.create(TermVocabulary.s_p_ma_zmenu))
-                .setParameter("reviewedBy", reviewRelationUri)
-                .setParameter("user", userUri)
-                .setParameter("inContext", URI.create(TermVocabulary.s_p_v_kontextu))
-                .setParameter("countable", URI.create(TermVocabulary.s_p_je_pocitatelna_do_statistiky))
-                .setParameter("true", true)
-                .setParameter("basedOn", URI.create(TermVocabulary.s_p_vychazi_z_verze))
-                .setParameter("voc", vocabularyUri)
-                .getSingleResult();
-        } catch (RuntimeException e) {
-            throw new PersistenceException(e);
-        }
+    private static int toInt(Object value) {
+        return Objects.isNull(value) ? 0 : ((Number) value).intValue();
     }
 }
@@ -3,6 +3,7 @@ package com.github.checkit.dao;
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.User;
 import com.github.checkit.model.auxilary.CommentTag;
+import com.github.checkit.persistence.EntityCache;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import java.net.URI;
@@ -13,8 +14,8 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public class UserDao extends BaseDao<User> {
-    protected UserDao(EntityManager em) {
-        super(User.class, em);
+    protected UserDao(EntityManager em, EntityCache entityCache) {
+        super(User.class, em, entityCache);
     }
 
     /**
@@ -1,27 +1,29 @@
 package com.github.checkit.dao;
 
-import com.github.checkit.config.properties.RepositoryConfigProperties;
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.VocabularyContext;
+import com.github.checkit.persistence.EntityCache;
+import com.github.checkit.persistence.RepositoryStatementFetcher;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import java.net.URI;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.query.ParameterizedSparqlString;
 import org.apache.jena.query.Query;
-import org.apache.jena.query.QueryExecution;
-import org.apache.jena.rdf.model.Model;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class VocabularyContextDao extends BaseDao<VocabularyContext> {
 
-    private final RepositoryConfigProperties repositoryConfigProperties;
+    private final RepositoryStatementFetcher repositoryStatementFetcher;
 
-    protected VocabularyContextDao(EntityManager em, RepositoryConfigProperties repositoryConfigProperties) {
-        super(VocabularyContext.class, em);
-        this.repositoryConfigProperties = repositoryConfigProperties;
+    protected VocabularyContextDao(EntityManager em, EntityCache entityCache,
+                                   RepositoryStatementFetcher repositoryStatementFetcher) {
+        super(VocabularyContext.class, em, entityCache);
+        this.repositoryStatementFetcher = repositoryStatementFetcher;
     }
 
     /**
@@ -54,18 +56,17 @@ public class VocabularyContextDao extends BaseDao<VocabularyContext> {
      * Gets content of vocabulary in specified vocabulary context.
      *
      * @param vocabularyContextUri URI of vocabulary context
-     * @return Jena model of vocabulary content
+     * @return stream of statements of vocabulary content sorted by subject, which has to be closed after use
      */
-    public Model getVocabularyContent(URI vocabularyContextUri) {
+    public Stream<Triple> getVocabularyContent(URI vocabularyContextUri) {
         ParameterizedSparqlString parameterizedSparqlString = new ParameterizedSparqlString();
-        parameterizedSparqlString.setCommandText("CONSTRUCT { ?s ?p ?o . } WHERE { "
+        parameterizedSparqlString.setCommandText("SELECT ?s ?p ?o WHERE { "
             + "?s ?p ?o . "
             + "FILTER(?s != ?vc)"
-            + "}");
+            + "} ORDER BY ?s");
         parameterizedSparqlString.setIri("vc", vocabularyContextUri.toString());
         Query query = parameterizedSparqlString.asQuery();
         query.addGraphURI(vocabularyContextUri.toString());
-        return QueryExecution.service(repositoryConfigProperties.getUrl())
-            .query(query).construct();
+        return repositoryStatementFetcher.fetchStatements(query);
     }
 }
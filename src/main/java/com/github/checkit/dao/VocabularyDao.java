@@ -1,35 +1,39 @@
 package com.github.checkit.dao;
 
-import com.github.checkit.config.properties.RepositoryConfigProperties;
 import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.model.User;
 import com.github.checkit.model.Vocabulary;
 import com.github.checkit.persistence.DescriptorFactory;
+import com.github.checkit.persistence.EntityCache;
+import com.github.checkit.persistence.RepositoryStatementFetcher;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.exceptions.NoResultException;
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
 import java.net.URI;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.query.ParameterizedSparqlString;
 import org.apache.jena.query.Query;
-import org.apache.jena.query.QueryExecution;
-import org.apache.jena.rdf.model.Model;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class VocabularyDao extends BaseDao<Vocabulary> {
 
     private final DescriptorFactory descriptorFactory;
-    private final RepositoryConfigProperties repositoryConfigProperties;
+    private final RepositoryStatementFetcher repositoryStatementFetcher;
 
-    protected VocabularyDao(EntityManager em, DescriptorFactory descriptorFactory,
-                            RepositoryConfigProperties repositoryConfigProperties) {
-        super(Vocabulary.class, em);
+    protected VocabularyDao(EntityManager em, EntityCache entityCache, DescriptorFactory descriptorFactory,
+                            RepositoryStatementFetcher repositoryStatementFetcher) {
+        super(Vocabulary.class, em, entityCache);
         this.descriptorFactory = descriptorFactory;
-        this.repositoryConfigProperties = repositoryConfigProperties;
+        this.repositoryStatementFetcher = repositoryStatementFetcher;
     }
 
     @Override
@@ -50,13 +54,24 @@ public class VocabularyDao extends BaseDao<Vocabulary> {
      * @return list of vocabularies
      */
     public List<Vocabulary> findAllGestoredVocabularies(User user) {
+        return findAllGestoredVocabularyUris(user.getUri()).stream().map(this::find).flatMap(Optional::stream)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Find URI identifiers of vocabularies gestored by specified user.
+     *
+     * @param userUri URI identifier of user
+     * @return list of URI identifiers of vocabularies
+     */
+    public List<URI> findAllGestoredVocabularyUris(URI userUri) {
         try {
             return em.createNativeQuery("SELECT ?vocab WHERE {"
                     + "?vocab ?jeGestorem ?user ."
                     + "}", URI.class)
-                .setParameter("user", user.getUri())
+                .setParameter("user", userUri)
                 .setParameter("jeGestorem", URI.create(TermVocabulary.s_p_ma_gestora))
-                .getResultStream().map(this::find).flatMap(Optional::stream).collect(Collectors.toList());
+                .getResultList();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -66,7 +81,9 @@ public class VocabularyDao extends BaseDao<Vocabulary> {
     public Optional<Vocabulary> find(URI uri) {
         Objects.requireNonNull(uri);
         try {
-            return Optional.ofNullable(em.find(type, uri, descriptorFactory.vocabularyDescriptor(uri)));
+            Descriptor descriptor = descriptorFactory.vocabularyDescriptor(uri);
+            entityCache.recordLookup(type, uri, descriptor);
+            return Optional.ofNullable(em.find(type, uri, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -84,8 +101,9 @@ public class VocabularyDao extends BaseDao<Vocabulary> {
         Objects.requireNonNull(vocabularyUri);
         Objects.requireNonNull(vocabularyContextUri);
         try {
-            return Optional.ofNullable(
-                em.find(type, vocabularyUri, descriptorFactory.vocabularyDescriptor(vocabularyContextUri)));
+            Descriptor descriptor = descriptorFactory.vocabularyDescriptor(vocabularyContextUri);
+            entityCache.recordLookup(type, vocabularyUri, descriptor);
+            return Optional.ofNullable(em.find(type, vocabularyUri, descriptor));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -114,8 +132,12 @@ public class VocabularyDao extends BaseDao<Vocabulary> {
     public Vocabulary update(Vocabulary entity) {
         Objects.requireNonNull(entity);
         try {
-            Vocabulary merged = em.merge(entity, descriptorFactory.vocabularyDescriptor(entity));
-            em.getEntityManagerFactory().getCache().evictAll();
+            Set<URI> affectedUsers = new HashSet<>(findGestors(entity.getUri()));
+            entity.getGestors().forEach(gestor -> affectedUsers.add(gestor.getUri()));
+            Descriptor descriptor = descriptorFactory.vocabularyDescriptor(entity);
+            Vocabulary merged = em.merge(entity, descriptor);
+            entityCache.evict(type, entity.getUri(), descriptor);
+            affectedUsers.forEach(userUri -> entityCache.evict(User.class, userUri, (URI) null));
             return merged;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -161,19 +183,18 @@ public class VocabularyDao extends BaseDao<Vocabulary> {
      * Gets content of specified canonical vocabulary.
      *
      * @param vocabularyUri URI of vocabulary
-     * @return Jena model of vocabulary content
+     * @return stream of statements of vocabulary content sorted by subject, which has to be closed after use
      */
-    public Model getVocabularyContent(URI vocabularyUri) {
+    public Stream<Triple> getVocabularyContent(URI vocabularyUri) {
         ParameterizedSparqlString parameterizedSparqlString = new ParameterizedSparqlString();
-        parameterizedSparqlString.setCommandText("CONSTRUCT { ?s ?p ?o . } WHERE { "
+        parameterizedSparqlString.setCommandText("SELECT ?s ?p ?o WHERE { "
             + "?s ?p ?o . "
             + "FILTER(?p != ?hasGestor) "
-            + "}");
+            + "} ORDER BY ?s");
         parameterizedSparqlString.setIri("hasGestor", TermVocabulary.s_p_ma_gestora);
         Query query = parameterizedSparqlString.asQuery();
         query.addGraphURI(vocabularyUri.toString());
-        return QueryExecution.service(repositoryConfigProperties.getUrl())
-            .query(query).construct();
+        return repositoryStatementFetcher.fetchStatements(query);
     }
 
     private Optional<URI> resolveContextOfVocabularyInPublicationContext(URI vocabularyUri,
@@ -198,4 +219,11 @@ public class VocabularyDao extends BaseDao<Vocabulary> {
             throw new PersistenceException(e);
         }
     }
+
+    private List<URI> findGestors(URI vocabularyUri) {
+        return em.createNativeQuery("SELECT ?gestor WHERE { ?vocabulary ?hasGestor ?gestor . }", URI.class)
+            .setParameter("vocabulary", vocabularyUri)
+            .setParameter("hasGestor", URI.create(TermVocabulary.s_p_ma_gestora))
+            .getResultList();
+    }
 }
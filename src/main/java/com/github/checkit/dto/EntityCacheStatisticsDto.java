@@ -0,0 +1,21 @@
+package com.github.checkit.dto;
+
+import lombok.Getter;
+
+@Getter
+public class EntityCacheStatisticsDto {
+    private final String entityType;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    /**
+     * Constructor.
+     */
+    public EntityCacheStatisticsDto(String entityType, long hits, long misses, long evictions) {
+        this.entityType = entityType;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+}
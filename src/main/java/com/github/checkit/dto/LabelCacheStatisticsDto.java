@@ -0,0 +1,23 @@
+package com.github.checkit.dto;
+
+import lombok.Getter;
+
+@Getter
+public class LabelCacheStatisticsDto {
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final double hitRate;
+
+    /**
+     * Constructor.
+     */
+    public LabelCacheStatisticsDto(int size, long hits, long misses, long evictions, double hitRate) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.hitRate = hitRate;
+    }
+}
@@ -3,6 +3,7 @@ package com.github.checkit.dto;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.github.checkit.dto.auxiliary.PublicationContextState;
 import com.github.checkit.model.PublicationContext;
+import com.github.checkit.model.auxilary.PublicationContextOverview;
 import java.net.URI;
 import lombok.Getter;
 
@@ -41,4 +42,18 @@ public class PublicationContextDto {
         this(publicationContext, state, finalComment);
         this.statistics = statistics;
     }
+
+    /**
+     * Constructor.
+     */
+    public PublicationContextDto(PublicationContextOverview overview, PublicationContextState state,
+                                 PublicationContextStatisticsDto statistics) {
+        this.id = overview.getId();
+        this.uri = overview.getUri();
+        this.label = overview.getProjectLabel();
+        this.projectContext = overview.getProjectUri();
+        this.state = state;
+        this.finalComment = null;
+        this.statistics = statistics;
+    }
 }
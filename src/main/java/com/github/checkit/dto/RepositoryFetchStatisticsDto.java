@@ -0,0 +1,24 @@
+package com.github.checkit.dto;
+
+import lombok.Getter;
+
+@Getter
+public class RepositoryFetchStatisticsDto {
+    private final long fetches;
+    private final long statements;
+    private final long transferredBytes;
+    private final long fetchTimeMillis;
+    private final long responseLatencyMillis;
+
+    /**
+     * Constructor.
+     */
+    public RepositoryFetchStatisticsDto(long fetches, long statements, long transferredBytes, long fetchTimeMillis,
+                                        long responseLatencyMillis) {
+        this.fetches = fetches;
+        this.statements = statements;
+        this.transferredBytes = transferredBytes;
+        this.fetchTimeMillis = fetchTimeMillis;
+        this.responseLatencyMillis = responseLatencyMillis;
+    }
+}
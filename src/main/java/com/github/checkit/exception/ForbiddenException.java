@@ -1,6 +1,7 @@
 package com.github.checkit.exception;
 
 import java.net.URI;
+import java.util.Collection;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
@@ -16,10 +17,19 @@ public class ForbiddenException extends BaseException {
             publicationContextUri);
     }
 
+    public static ForbiddenException createForbiddenToReviewVocabulary(URI userUri, URI vocabularyUri) {
+        return new ForbiddenException("User \"%s\" can't review changes in vocabulary \"%s\".", userUri,
+            vocabularyUri);
+    }
+
     public static ForbiddenException createForbiddenToReviewChange(URI userUri, URI changeUri) {
         return new ForbiddenException("User \"%s\" can't review change \"%s\".", userUri, changeUri);
     }
 
+    public static ForbiddenException createForbiddenToReviewChanges(URI userUri, Collection<URI> changeUris) {
+        return new ForbiddenException("User \"%s\" can't review changes %s.", userUri, changeUris);
+    }
+
     public static ForbiddenException createForbiddenToMarkNotification() {
         return new ForbiddenException("Can't mark notifications of other users as read.");
     }
@@ -0,0 +1,15 @@
+package com.github.checkit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPageCursorException extends BaseException {
+    public InvalidPageCursorException(String message, Object... args) {
+        super(message, args);
+    }
+
+    public static InvalidPageCursorException create(String token) {
+        return new InvalidPageCursorException("Continuation token \"%s\" is not valid.", token);
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.checkit.exception;
 
+import java.util.Collection;
 import java.util.Objects;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -22,4 +23,9 @@ public class NotFoundException extends BaseException {
         Objects.requireNonNull(resourceType);
         return create(resourceType.getSimpleName(), identifier);
     }
+
+    public static NotFoundException createAll(Class<?> resourceType, Collection<?> identifiers) {
+        Objects.requireNonNull(resourceType);
+        return new NotFoundException(resourceType.getSimpleName() + "s identified by " + identifiers + " not found.");
+    }
 }
@@ -1,6 +1,7 @@
 package com.github.checkit.exception;
 
 import java.net.URI;
+import java.util.Collection;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
@@ -15,4 +16,14 @@ public class PublicationContextIsClosedException extends BaseException {
         return new PublicationContextIsClosedException("Publication context of change \"%s\" is closed. You can no "
             + "longer change reviews.", changeUri);
     }
+
+    public static PublicationContextIsClosedException create(Collection<URI> changeUris) {
+        return new PublicationContextIsClosedException("Publication contexts of changes %s are closed. You can no "
+            + "longer change reviews.", changeUris);
+    }
+
+    public static PublicationContextIsClosedException createOfPublicationContext(URI publicationContextUri) {
+        return new PublicationContextIsClosedException("Publication context \"%s\" is closed. You can no longer "
+            + "change reviews.", publicationContextUri);
+    }
 }
@@ -1,6 +1,7 @@
 package com.github.checkit.exception;
 
 import java.net.URI;
+import java.util.Collection;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
@@ -15,4 +16,14 @@ public class PublicationContextWasUpdatedException extends BaseException {
         return new PublicationContextWasUpdatedException("Publication context of change \"%s\" was updated, load new "
             + "changes.", changeUri);
     }
+
+    public static PublicationContextWasUpdatedException create(Collection<URI> changeUris) {
+        return new PublicationContextWasUpdatedException("Publication contexts of changes %s were updated, load new "
+            + "changes.", changeUris);
+    }
+
+    public static PublicationContextWasUpdatedException createOfPublicationContext(URI publicationContextUri) {
+        return new PublicationContextWasUpdatedException("Publication context \"%s\" was updated, load new changes.",
+            publicationContextUri);
+    }
 }
@@ -0,0 +1,11 @@
+package com.github.checkit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+public class VocabularyComparisonException extends BaseException {
+    public VocabularyComparisonException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.checkit.model.auxilary;
+
+import com.github.checkit.model.Comment;
+import java.util.List;
+
+/**
+ * Comments on a change shown along with it in listings.
+ *
+ * @param finalComments           final comments of all users
+ * @param discussionCommentsCount number of discussion comments
+ */
+public record ChangeComments(List<Comment> finalComments, int discussionCommentsCount) {
+
+    public static ChangeComments empty() {
+        return new ChangeComments(List.of(), 0);
+    }
+}
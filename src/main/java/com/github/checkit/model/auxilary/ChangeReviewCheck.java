@@ -0,0 +1,18 @@
+package com.github.checkit.model.auxilary;
+
+import java.net.URI;
+import java.time.Instant;
+
+/**
+ * Facts about a change needed to decide if a user can review it.
+ *
+ * @param changeUri                  URI identifier of change
+ * @param publicationContextUri      URI identifier of publication context the change is in
+ * @param publicationContextModified time of the last modification of the publication context, {@code null} if it is
+ *                                   not known
+ * @param closed                     if the publication context is closed
+ * @param gestored                   if the user is gestor of vocabulary the change is made in
+ */
+public record ChangeReviewCheck(URI changeUri, URI publicationContextUri, Instant publicationContextModified,
+                                boolean closed, boolean gestored) {
+}
@@ -0,0 +1,18 @@
+package com.github.checkit.model.auxilary;
+
+import com.github.checkit.model.ChangeType;
+import java.net.URI;
+
+/**
+ * Selection of changes of one vocabulary in a publication context, reviewed at once. Optional criteria narrow the
+ * selection down.
+ *
+ * @param publicationContextUri URI identifier of publication context
+ * @param vocabularyUri         URI identifier of vocabulary the changes are made in
+ * @param subject               subject of changed statements, {@code null} for any
+ * @param changeType            type of changes, {@code null} for any
+ * @param predicate             predicate of changed statements, {@code null} for any
+ */
+public record ChangeSelection(URI publicationContextUri, URI vocabularyUri, URI subject, ChangeType changeType,
+                              URI predicate) {
+}
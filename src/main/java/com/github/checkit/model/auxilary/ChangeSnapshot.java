@@ -0,0 +1,26 @@
+package com.github.checkit.model.auxilary;
+
+import com.github.checkit.model.Change;
+import com.github.checkit.model.ChangeType;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+
+/**
+ * State of attributes of a change that can be modified when its publication context is updated.
+ *
+ * @param changeType type of change
+ * @param countable  if change is countable to statistics
+ * @param label      label of change
+ */
+public record ChangeSnapshot(ChangeType changeType, Boolean countable, MultilingualString label) {
+
+    /**
+     * Captures current state of specified change.
+     *
+     * @param change change
+     * @return snapshot of change
+     */
+    public static ChangeSnapshot of(Change change) {
+        return new ChangeSnapshot(change.getChangeType(), change.getCountable(),
+            new MultilingualString(change.getLabel().getValue()));
+    }
+}
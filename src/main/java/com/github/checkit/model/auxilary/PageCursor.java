@@ -0,0 +1,46 @@
+package com.github.checkit.model.auxilary;
+
+import com.github.checkit.exception.InvalidPageCursorException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by time and URI identifier descending. Next page contains items older than the cursor or
+ * as old as the cursor with lower URI identifier.
+ *
+ * @param time time of the last item of previous page
+ * @param uri  URI identifier of the last item of previous page
+ */
+public record PageCursor(Instant time, URI uri) {
+
+    private static final String SEPARATOR = " ";
+
+    /**
+     * Parses cursor from continuation token created by {@link #toToken()}.
+     *
+     * @param token continuation token
+     * @return cursor
+     */
+    public static PageCursor parse(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            return new PageCursor(Instant.parse(decoded.substring(0, separatorIndex)),
+                URI.create(decoded.substring(separatorIndex + 1)));
+        } catch (RuntimeException e) {
+            throw InvalidPageCursorException.create(token);
+        }
+    }
+
+    /**
+     * Creates continuation token representing the cursor.
+     *
+     * @return continuation token
+     */
+    public String toToken() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((time + SEPARATOR + uri).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.checkit.model.auxilary;
+
+import java.net.URI;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Summary of an open publication context used in listings, so the whole publication context with its changes doesn't
+ * have to be loaded.
+ */
+@Getter
+public class PublicationContextOverview {
+
+    private final URI uri;
+    private final URI projectUri;
+    private final String projectLabel;
+    private final boolean affectingGestoredVocabulary;
+    @Setter
+    private ReviewStatistics reviewStatistics = new ReviewStatistics();
+
+    /**
+     * Constructor.
+     */
+    public PublicationContextOverview(URI uri, URI projectUri, String projectLabel,
+                                      boolean affectingGestoredVocabulary) {
+        this.uri = uri;
+        this.projectUri = projectUri;
+        this.projectLabel = projectLabel;
+        this.affectingGestoredVocabulary = affectingGestoredVocabulary;
+    }
+
+    public String getId() {
+        return uri.toString().substring(uri.toString().lastIndexOf("/") + 1);
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.checkit.model.auxilary;
+
+import java.time.Instant;
+
+/**
+ * Version of a publication context. Any change of the publication context, reviews of its changes or comments on them
+ * results in a different version.
+ *
+ * @param modified            time of the last modification of publication context
+ * @param reviewVersion       number of review modifications of its changes
+ * @param lastCommentModified time of the last modification of a comment on publication context or its changes
+ * @param commentCount        number of comments on publication context and its changes
+ */
+public record PublicationContextVersion(Instant modified, int reviewVersion, Instant lastCommentModified,
+                                        int commentCount) {
+}
@@ -0,0 +1,13 @@
+package com.github.checkit.model.auxilary;
+
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Changes of a restriction of a relationship shown together as one change of the relationship.
+ *
+ * @param vocabularyUri URI identifier of vocabulary the changes are made in
+ * @param changeUris    URI identifiers of changes in the group
+ */
+public record RelationshipGroup(URI vocabularyUri, Set<URI> changeUris) {
+}
@@ -0,0 +1,86 @@
+package com.github.checkit.model.auxilary;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.Getter;
+
+/**
+ * Counters of changes and their reviews in a publication context. Only changes countable to statistics are counted.
+ *
+ * <p>Changes are counted per vocabulary the context of change is based on and reviews are counted per vocabulary
+ * and reviewer, counters of whole publication context are sums of them.
+ */
+public class ReviewStatistics {
+
+    @Getter
+    private int totalChanges;
+    @Getter
+    private int approvedChanges;
+    private final Map<URI, Integer> totalChangesInVocabulary = new HashMap<>();
+    private final Map<URI, Map<URI, Integer>> approvedChangesOfReviewer = new HashMap<>();
+    private final Map<URI, Map<URI, Integer>> rejectedChangesOfReviewer = new HashMap<>();
+
+    /**
+     * Adds counters. Counters without vocabulary and reviewer belong to whole publication context, counters with
+     * vocabulary only are number of changes in the vocabulary and counters with both are numbers of changes in the
+     * vocabulary reviewed by the reviewer.
+     *
+     * @param vocabularyUri URI identifier of vocabulary, may be {@code null}
+     * @param reviewerUri   URI identifier of reviewer, may be {@code null}
+     * @param total         number of changes
+     * @param approved      number of approved changes
+     * @param rejected      number of rejected changes
+     */
+    public void add(URI vocabularyUri, URI reviewerUri, int total, int approved, int rejected) {
+        if (Objects.isNull(vocabularyUri)) {
+            totalChanges = total;
+            approvedChanges = approved;
+        } else if (Objects.isNull(reviewerUri)) {
+            totalChangesInVocabulary.put(vocabularyUri, total);
+        } else {
+            approvedChangesOfReviewer.computeIfAbsent(reviewerUri, key -> new HashMap<>()).put(vocabularyUri, approved);
+            rejectedChangesOfReviewer.computeIfAbsent(reviewerUri, key -> new HashMap<>()).put(vocabularyUri, rejected);
+        }
+    }
+
+    public int getTotalChanges(URI vocabularyUri) {
+        return totalChangesInVocabulary.getOrDefault(vocabularyUri, 0);
+    }
+
+    /**
+     * Returns number of changes in specified vocabularies.
+     *
+     * @param vocabularyUris URI identifiers of vocabularies
+     * @return number of changes
+     */
+    public int getTotalChanges(Collection<URI> vocabularyUris) {
+        return vocabularyUris.stream().mapToInt(this::getTotalChanges).sum();
+    }
+
+    public int getApprovedChanges(URI reviewerUri) {
+        return sum(approvedChangesOfReviewer.get(reviewerUri));
+    }
+
+    public int getApprovedChanges(URI reviewerUri, URI vocabularyUri) {
+        return get(approvedChangesOfReviewer.get(reviewerUri), vocabularyUri);
+    }
+
+    public int getRejectedChanges(URI reviewerUri) {
+        return sum(rejectedChangesOfReviewer.get(reviewerUri));
+    }
+
+    public int getRejectedChanges(URI reviewerUri, URI vocabularyUri) {
+        return get(rejectedChangesOfReviewer.get(reviewerUri), vocabularyUri);
+    }
+
+    private static int sum(Map<URI, Integer> counters) {
+        return Objects.isNull(counters) ? 0 : counters.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static int get(Map<URI, Integer> counters, URI vocabularyUri) {
+        return Objects.isNull(counters) ? 0 : counters.getOrDefault(vocabularyUri, 0);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.checkit.persistence;
+
+import com.github.checkit.config.properties.ApplicationConfigProperties;
+import com.github.checkit.model.Change;
+import com.github.checkit.model.PublicationContext;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of publication contexts changes are stored in, so the context of a change doesn't have to be queried
+ * before the change is loaded.
+ *
+ * <p>Change never moves to another publication context, so its entry is only removed together with the change or
+ * when the least recently used entries exceed the maximal size.
+ */
+@Component
+public class ChangeLocationCache {
+
+    private final Map<URI, URI> publicationContexts;
+
+    /**
+     * Constructor.
+     */
+    public ChangeLocationCache(ApplicationConfigProperties applicationConfigProperties) {
+        int maxSize = applicationConfigProperties.getPublicationContext().getChangeLocationCacheSize();
+        this.publicationContexts = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, URI> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public Optional<URI> get(URI changeUri) {
+        return Optional.ofNullable(publicationContexts.get(changeUri));
+    }
+
+    public void put(URI changeUri, URI publicationContextUri) {
+        publicationContexts.put(changeUri, publicationContextUri);
+    }
+
+    /**
+     * Stores publication context of all changes of specified publication context.
+     *
+     * @param publicationContext publication context with its changes
+     */
+    public void putAll(PublicationContext publicationContext) {
+        for (Change change : publicationContext.getChanges()) {
+            put(change.getUri(), publicationContext.getUri());
+        }
+    }
+
+    /**
+     * Removes entries of specified changes.
+     *
+     * @param changeUris URI identifiers of changes
+     */
+    public void removeAll(Collection<URI> changeUris) {
+        changeUris.forEach(publicationContexts::remove);
+    }
+}
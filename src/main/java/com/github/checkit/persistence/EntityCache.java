@@ -0,0 +1,119 @@
+package com.github.checkit.persistence;
+
+import com.github.checkit.dto.EntityCacheStatisticsDto;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.jopa.sessions.Cache;
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Second-level cache of entities shared by all persistence contexts.
+ *
+ * <p>Entities are evicted by their identifier and context instead of whole entity classes, so a modification doesn't
+ * empty the cache for all users. Lookups and evictions are counted per entity type.
+ */
+@Component
+public class EntityCache {
+
+    private final EntityManagerFactory emf;
+    private final Map<Class<?>, Statistics> statistics = new ConcurrentHashMap<>();
+
+    public EntityCache(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * Records lookup of entity with specified identifier as a hit if the entity is present in the cache, otherwise as
+     * a miss.
+     *
+     * @param type       entity class
+     * @param uri        URI identifier of entity
+     * @param descriptor descriptor the entity is looked up with
+     */
+    public void recordLookup(Class<?> type, URI uri, Descriptor descriptor) {
+        Statistics typeStatistics = statisticsOf(type);
+        if (cache().contains(type, uri, descriptor)) {
+            typeStatistics.hits.increment();
+        } else {
+            typeStatistics.misses.increment();
+        }
+    }
+
+    /**
+     * Evicts entity with specified identifier from specified context.
+     *
+     * @param type    entity class
+     * @param uri     URI identifier of entity
+     * @param context URI identifier of context, {@code null} for the default context
+     */
+    public void evict(Class<?> type, URI uri, URI context) {
+        cache().evict(type, uri, context);
+        statisticsOf(type).evictions.increment();
+    }
+
+    /**
+     * Evicts entity with specified identifier from context of specified descriptor.
+     *
+     * @param type       entity class
+     * @param uri        URI identifier of entity
+     * @param descriptor descriptor the entity is stored with
+     */
+    public void evict(Class<?> type, URI uri, Descriptor descriptor) {
+        evict(type, uri, descriptor.getSingleContext().orElse(null));
+    }
+
+    /**
+     * Evicts all entities from specified context. Used when statements of the context are modified directly, so it is
+     * not known which of its entities were affected.
+     *
+     * @param type    entity class the context belongs to, the eviction is counted to it
+     * @param context URI identifier of context
+     */
+    public void evictContext(Class<?> type, URI context) {
+        cache().evict(context);
+        statisticsOf(type).evictions.increment();
+    }
+
+    /**
+     * Evicts all entities of specified class.
+     *
+     * @param type entity class
+     */
+    public void evictAll(Class<?> type) {
+        cache().evict(type);
+        statisticsOf(type).evictions.increment();
+    }
+
+    /**
+     * Returns statistics of the cache for each entity type used so far.
+     *
+     * @return list of statistics sorted by entity type
+     */
+    public List<EntityCacheStatisticsDto> getStatistics() {
+        return statistics.entrySet().stream()
+            .map(entry -> new EntityCacheStatisticsDto(entry.getKey().getSimpleName(), entry.getValue().hits.sum(),
+                entry.getValue().misses.sum(), entry.getValue().evictions.sum()))
+            .sorted(Comparator.comparing(EntityCacheStatisticsDto::getEntityType))
+            .toList();
+    }
+
+    private Cache cache() {
+        return emf.getCache();
+    }
+
+    private Statistics statisticsOf(Class<?> type) {
+        return statistics.computeIfAbsent(type, key -> new Statistics());
+    }
+
+    private static class Statistics {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+    }
+}
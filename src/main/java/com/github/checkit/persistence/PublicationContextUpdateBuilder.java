@@ -0,0 +1,301 @@
+package com.github.checkit.persistence;
+
+import com.github.checkit.model.Change;
+import com.github.checkit.model.ChangeObject;
+import com.github.checkit.model.ChangeType;
+import com.github.checkit.model.User;
+import com.github.checkit.model.auxilary.ChangeSnapshot;
+import com.github.checkit.model.auxilary.RelationshipGroup;
+import com.github.checkit.util.TermVocabulary;
+import com.github.checkit.util.TimeOrderedIdentifierGenerator;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.model.annotations.Individual;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.jopa.vocabulary.RDFS;
+import java.net.URI;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.datatypes.xsd.XSDDateTime;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ParameterizedSparqlString;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.modify.request.QuadAcc;
+import org.apache.jena.sparql.modify.request.QuadDataAcc;
+import org.apache.jena.sparql.modify.request.UpdateDataDelete;
+import org.apache.jena.sparql.modify.request.UpdateDataInsert;
+import org.apache.jena.sparql.modify.request.UpdateDeleteWhere;
+import org.apache.jena.update.Update;
+import org.apache.jena.update.UpdateRequest;
+
+/**
+ * Builds single SPARQL UPDATE of statements in graph of a publication context.
+ *
+ * <p>Statements are written the same way JOPA maps {@link Change} and {@link ChangeObject}, so changes written by the
+ * update are read as entities afterwards. Strings are tagged by language of the persistence unit.
+ */
+public class PublicationContextUpdateBuilder {
+
+    private final Node graph;
+    private final Node publicationContext;
+    private final String language;
+    private final List<Update> deleteWhere = new ArrayList<>();
+    private final QuadDataAcc deleteData = new QuadDataAcc();
+    private final QuadDataAcc insertData = new QuadDataAcc();
+    private int variableCount;
+
+    /**
+     * Constructor.
+     *
+     * @param publicationContextUri URI identifier of publication context, which is also its graph
+     * @param language              language of the persistence unit
+     */
+    public PublicationContextUpdateBuilder(URI publicationContextUri, String language) {
+        this.graph = uriNode(publicationContextUri);
+        this.publicationContext = graph;
+        this.language = language;
+    }
+
+    /**
+     * Adds all statements of specified change and its objects to the publication context. Objects without URI
+     * identifier get a new one.
+     *
+     * @param change change
+     */
+    public void insertChange(Change change) {
+        Node subject = uriNode(change.getUri());
+        insert(publicationContext, TermVocabulary.s_p_ma_zmenu, subject);
+        insert(subject, RDF.TYPE, uriNode(URI.create(TermVocabulary.s_c_zmena)));
+        if (Objects.nonNull(change.getTypes())) {
+            change.getTypes().forEach(type -> insert(subject, RDF.TYPE, NodeFactory.createURI(type)));
+        }
+        insert(subject, TermVocabulary.s_p_je_typu, changeTypeNode(change.getChangeType()));
+        insertLabel(subject, RDFS.LABEL, change.getLabel());
+        insert(subject, TermVocabulary.s_p_je_pocitatelna_do_statistiky, booleanNode(change.getCountable()));
+        if (Objects.nonNull(change.getSubjectType())) {
+            insert(subject, TermVocabulary.s_p_ma_popis_typu_subjektu, stringNode(change.getSubjectType().name()));
+        }
+        insert(subject, RDF.SUBJECT, uriNode(change.getSubject()));
+        insert(subject, RDF.PREDICATE, uriNode(change.getPredicate()));
+        insertObject(subject, RDF.OBJECT, change.getObject());
+        if (Objects.nonNull(change.getNewObject())) {
+            insertObject(subject, TermVocabulary.s_p_ma_novy_objekt, change.getNewObject());
+        }
+        insert(subject, TermVocabulary.s_p_v_kontextu, uriNode(change.getContext().getUri()));
+        change.getApprovedBy().forEach(user -> insert(subject, TermVocabulary.s_p_schvaleno, userNode(user)));
+        change.getRejectedBy().forEach(user -> insert(subject, TermVocabulary.s_p_zamitnuto, userNode(user)));
+    }
+
+    /**
+     * Removes specified changes from the publication context together with their objects.
+     *
+     * @param changeUris URI identifiers of changes
+     */
+    public void removeChanges(Collection<URI> changeUris) {
+        if (changeUris.isEmpty()) {
+            return;
+        }
+        ParameterizedSparqlString removal = new ParameterizedSparqlString();
+        removal.setCommandText("DELETE { "
+            + "GRAPH ?pc { "
+            + "     ?pc ?hasChange ?change . "
+            + "     ?change ?property ?value . "
+            + "     ?changeObject ?objectProperty ?objectValue . "
+            + "     } "
+            + "} WHERE { "
+            + "GRAPH ?pc { "
+            + "     VALUES ?change { "
+            + changeUris.stream().map(changeUri -> NodeFmtLib.strNT(uriNode(changeUri)))
+                .collect(Collectors.joining(" "))
+            + "     } "
+            + "     { ?pc ?hasChange ?change . } "
+            + "     UNION { ?change ?property ?value . } "
+            + "     UNION { "
+            + "         ?change ?object ?changeObject . "
+            + "         ?changeObject ?objectProperty ?objectValue . "
+            + "         } "
+            + "     UNION { "
+            + "         ?change ?newObject ?changeObject . "
+            + "         ?changeObject ?objectProperty ?objectValue . "
+            + "         } "
+            + "     } "
+            + "}");
+        removal.setParam("pc", publicationContext);
+        removal.setIri("hasChange", TermVocabulary.s_p_ma_zmenu);
+        removal.setIri("object", RDF.OBJECT);
+        removal.setIri("newObject", TermVocabulary.s_p_ma_novy_objekt);
+        deleteWhere.addAll(removal.asUpdate().getOperations());
+    }
+
+    /**
+     * Writes attributes of specified change that differ from its previous state.
+     *
+     * @param change   change
+     * @param previous previous state of change
+     */
+    public void updateChange(Change change, ChangeSnapshot previous) {
+        Node subject = uriNode(change.getUri());
+        if (!Objects.equals(change.getChangeType(), previous.changeType())) {
+            delete(subject, TermVocabulary.s_p_je_typu, changeTypeNode(previous.changeType()));
+            insert(subject, TermVocabulary.s_p_je_typu, changeTypeNode(change.getChangeType()));
+        }
+        if (!Objects.equals(change.getCountable(), previous.countable())) {
+            delete(subject, TermVocabulary.s_p_je_pocitatelna_do_statistiky, booleanNode(previous.countable()));
+            insert(subject, TermVocabulary.s_p_je_pocitatelna_do_statistiky, booleanNode(change.getCountable()));
+        }
+        if (!Objects.equals(change.getLabel(), previous.label())) {
+            deleteLabel(subject, RDFS.LABEL, previous.label());
+            insertLabel(subject, RDFS.LABEL, change.getLabel());
+        }
+    }
+
+    /**
+     * Replaces all values of specified attribute of the publication context itself.
+     *
+     * @param property URI of property
+     * @param value    new value, either {@link String} or {@link Instant}
+     */
+    public void replacePublicationContextValue(String property, Object value) {
+        QuadAcc pattern = new QuadAcc();
+        pattern.setGraph(graph);
+        pattern.addTriple(Triple.create(publicationContext, uriNode(property), nextVariable()));
+        deleteWhere.add(new UpdateDeleteWhere(pattern));
+        if (value instanceof Instant instant) {
+            insert(publicationContext, property, instantNode(instant));
+        } else {
+            insert(publicationContext, property, stringNode(value.toString()));
+        }
+    }
+
+    /**
+     * Replaces relationship groups of changes in the publication context and marks the publication context as having
+     * them, so it is distinguishable from one submitted before groups were stored.
+     *
+     * @param relationshipGroups relationship groups of all changes of the publication context
+     */
+    public void replaceRelationshipGroups(Collection<RelationshipGroup> relationshipGroups) {
+        QuadAcc groupPattern = new QuadAcc();
+        groupPattern.setGraph(graph);
+        Var group = nextVariable();
+        groupPattern.addTriple(Triple.create(publicationContext, uriNode(TermVocabulary.s_p_ma_skupinu_zmen_vztahu),
+            group));
+        groupPattern.addTriple(Triple.create(group, nextVariable(), nextVariable()));
+        deleteWhere.add(new UpdateDeleteWhere(groupPattern));
+        QuadAcc markPattern = new QuadAcc();
+        markPattern.setGraph(graph);
+        markPattern.addTriple(Triple.create(publicationContext, uriNode(TermVocabulary.s_p_ma_seskupene_vztahy),
+            nextVariable()));
+        deleteWhere.add(new UpdateDeleteWhere(markPattern));
+        insert(publicationContext, TermVocabulary.s_p_ma_seskupene_vztahy, booleanNode(true));
+        for (RelationshipGroup relationshipGroup : relationshipGroups) {
+            Node groupNode = uriNode(TimeOrderedIdentifierGenerator.nextUri(TermVocabulary.s_c_skupina_zmen_vztahu));
+            insert(publicationContext, TermVocabulary.s_p_ma_skupinu_zmen_vztahu, groupNode);
+            insert(groupNode, RDF.TYPE, uriNode(TermVocabulary.s_c_skupina_zmen_vztahu));
+            insert(groupNode, TermVocabulary.s_p_ve_slovniku, uriNode(relationshipGroup.vocabularyUri()));
+            relationshipGroup.changeUris()
+                .forEach(changeUri -> insert(groupNode, TermVocabulary.s_p_obsahuje_zmenu, uriNode(changeUri)));
+        }
+    }
+
+    /**
+     * Builds the update. Statements matched by patterns are removed first, then listed statements are removed and
+     * finally new statements are inserted.
+     *
+     * @return SPARQL UPDATE
+     */
+    public String build() {
+        UpdateRequest request = new UpdateRequest();
+        deleteWhere.forEach(request::add);
+        if (!deleteData.getQuads().isEmpty()) {
+            request.add(new UpdateDataDelete(deleteData));
+        }
+        if (!insertData.getQuads().isEmpty()) {
+            request.add(new UpdateDataInsert(insertData));
+        }
+        return request.toString();
+    }
+
+    private void insertObject(Node subject, String property, ChangeObject changeObject) {
+        if (Objects.isNull(changeObject.getUri())) {
+            changeObject.setUri(TimeOrderedIdentifierGenerator.nextUri(TermVocabulary.s_c_objekt_zmeny));
+        }
+        Node object = uriNode(changeObject.getUri());
+        insert(subject, property, object);
+        insert(object, RDF.TYPE, uriNode(URI.create(TermVocabulary.s_c_objekt_zmeny)));
+        insertLabel(object, TermVocabulary.s_p_ma_hodnotu, changeObject.getValueWithLanguageTag());
+        if (Objects.nonNull(changeObject.getType())) {
+            insert(object, TermVocabulary.s_p_ma_typ_hodnoty, uriNode(changeObject.getType()));
+        }
+    }
+
+    private void insertLabel(Node subject, String property, MultilingualString label) {
+        if (Objects.nonNull(label)) {
+            label.getValue().forEach((lang, value) -> insert(subject, property, languageNode(value, lang)));
+        }
+    }
+
+    private void deleteLabel(Node subject, String property, MultilingualString label) {
+        if (Objects.nonNull(label)) {
+            label.getValue().forEach((lang, value) -> delete(subject, property, languageNode(value, lang)));
+        }
+    }
+
+    private void insert(Node subject, String property, Node object) {
+        insertData.addQuad(new Quad(graph, subject, uriNode(property), object));
+    }
+
+    private void delete(Node subject, String property, Node object) {
+        deleteData.addQuad(new Quad(graph, subject, uriNode(property), object));
+    }
+
+    private Var nextVariable() {
+        return Var.alloc("v" + variableCount++);
+    }
+
+    private Node uriNode(URI uri) {
+        return NodeFactory.createURI(uri.toString());
+    }
+
+    private Node uriNode(String uri) {
+        return NodeFactory.createURI(uri);
+    }
+
+    private Node userNode(User user) {
+        return uriNode(user.getUri());
+    }
+
+    private Node stringNode(String value) {
+        return languageNode(value, language);
+    }
+
+    private Node languageNode(String value, String lang) {
+        return Objects.isNull(lang) ? NodeFactory.createLiteral(value) : NodeFactory.createLiteral(value, lang);
+    }
+
+    private Node booleanNode(Boolean value) {
+        return NodeFactory.createLiteral(String.valueOf(value), XSDDatatype.XSDboolean);
+    }
+
+    private Node instantNode(Instant value) {
+        XSDDateTime dateTime = new XSDDateTime(GregorianCalendar.from(value.atZone(ZoneOffset.UTC)));
+        return NodeFactory.createLiteralByValue(dateTime, XSDDatatype.XSDdateTime);
+    }
+
+    private Node changeTypeNode(ChangeType changeType) {
+        try {
+            return uriNode(ChangeType.class.getField(changeType.name()).getAnnotation(Individual.class).iri());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
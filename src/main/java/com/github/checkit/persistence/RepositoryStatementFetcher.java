@@ -0,0 +1,264 @@
+package com.github.checkit.persistence;
+
+import com.github.checkit.config.properties.RepositoryConfigProperties;
+import com.github.checkit.dto.RepositoryFetchStatisticsDto;
+import com.github.checkit.exception.PersistenceException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.web.ContentType;
+import org.apache.jena.atlas.web.HttpException;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.ResultSetMgr;
+import org.apache.jena.riot.WebContent;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.resultset.ResultSetReaderRegistry;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.resultio.QueryResultIO;
+import org.eclipse.rdf4j.query.resultio.TupleQueryResultFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches statements from the repository through its SPARQL endpoint.
+ *
+ * <p>Results are requested in a binary format compressed by gzip. RDF4J binary results table (native format of
+ * GraphDB) is preferred, RDF Thrift is accepted as well and SPARQL XML results are used when the endpoint supports
+ * neither of them. All fetches share single HTTP client, so connections to the repository are kept alive and reused.
+ * Number of transferred bytes and latency of every fetch is logged and summed up to statistics.
+ *
+ * <p>Blank nodes are labeled anew for every fetch, because the repository may use the same identifiers for different
+ * blank nodes in different graphs.
+ */
+@Component
+public class RepositoryStatementFetcher {
+
+    private static final String ACCEPT = TupleQueryResultFormat.BINARY.getDefaultMIMEType() + ", "
+        + WebContent.contentTypeResultsThrift + ";q=0.9, " + WebContent.contentTypeResultsXML + ";q=0.8";
+    private static final String GZIP = "gzip";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Logger logger = LoggerFactory.getLogger(RepositoryStatementFetcher.class);
+
+    private final URI repositoryUri;
+    private final HttpClient httpClient;
+    private final Statistics statistics = new Statistics();
+
+    /**
+     * Constructor.
+     */
+    public RepositoryStatementFetcher(RepositoryConfigProperties repositoryConfigProperties) {
+        this.repositoryUri = URI.create(repositoryConfigProperties.getUrl());
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+    }
+
+    /**
+     * Fetches statements selected by specified query. The query has to project variables {@code ?s}, {@code ?p} and
+     * {@code ?o}. Order of solutions is preserved.
+     *
+     * @param query SPARQL select query
+     * @return stream of statements, which has to be closed after use
+     */
+    public Stream<Triple> fetchStatements(Query query) {
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = send(query);
+        long latency = System.nanoTime() - start;
+        CountingInputStream body = new CountingInputStream(response.body());
+        try {
+            if (response.statusCode() != 200) {
+                throw new HttpException(response.statusCode(), "Query to " + repositoryUri + " failed.", null);
+            }
+            boolean compressed = response.headers().firstValue("Content-Encoding").filter(GZIP::equalsIgnoreCase)
+                .isPresent();
+            InputStream content = compressed ? new GZIPInputStream(body) : body;
+            String contentType = response.headers().firstValue("Content-Type")
+                .map(value -> ContentType.create(value).getContentTypeStr())
+                .orElse(WebContent.contentTypeResultsXML);
+            long[] statements = new long[1];
+            Stream<Triple> triples = readStatements(content, contentType).peek(triple -> statements[0]++);
+            return triples.onClose(() -> {
+                closeQuietly(body);
+                long fetchTime = System.nanoTime() - start;
+                statistics.record(statements[0], body.getCount(), fetchTime, latency);
+                logger.info("Fetched {} statements ({} bytes of {}{}) in {} ms, first response after {} ms.",
+                    statements[0], body.getCount(), contentType, compressed ? ", " + GZIP : "",
+                    TimeUnit.NANOSECONDS.toMillis(fetchTime), TimeUnit.NANOSECONDS.toMillis(latency));
+            });
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(body);
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Returns statistics of all fetches so far: number of fetches, fetched statements and transferred bytes, total
+     * time of fetches and total time until the first response.
+     *
+     * @return fetch statistics
+     */
+    public RepositoryFetchStatisticsDto getStatistics() {
+        return new RepositoryFetchStatisticsDto(statistics.fetches.sum(), statistics.statements.sum(),
+            statistics.bytes.sum(), TimeUnit.NANOSECONDS.toMillis(statistics.fetchTime.sum()),
+            TimeUnit.NANOSECONDS.toMillis(statistics.latency.sum()));
+    }
+
+    private HttpResponse<InputStream> send(Query query) {
+        HttpRequest request = HttpRequest.newBuilder(repositoryUri)
+            .header("Content-Type", WebContent.contentTypeHTMLForm)
+            .header("Accept", ACCEPT)
+            .header("Accept-Encoding", GZIP)
+            .POST(HttpRequest.BodyPublishers.ofString(
+                "query=" + URLEncoder.encode(query.serialize(), StandardCharsets.UTF_8)))
+            .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw new PersistenceException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException(e);
+        }
+    }
+
+    private Stream<Triple> readStatements(InputStream content, String contentType) throws IOException {
+        Optional<TupleQueryResultFormat> binaryFormat = QueryResultIO.getParserFormatForMIMEType(contentType)
+            .filter(TupleQueryResultFormat.BINARY::equals)
+            .map(TupleQueryResultFormat.class::cast);
+        if (binaryFormat.isPresent()) {
+            TupleQueryResult result = QueryResultIO.parseTupleBackground(content, binaryFormat.get());
+            LabelToNode blankNodes = LabelToNode.createScopeByDocumentHash();
+            Iterator<Triple> triples = Iter.map(result.iterator(), bindingSet -> toTriple(bindingSet, blankNodes));
+            return Iter.asStream(triples).onClose(result::close);
+        }
+        Lang lang = resultSetLangOf(contentType)
+            .orElseThrow(() -> new HttpException("Unsupported content type of query results: " + contentType));
+        ResultSet resultSet = ResultSetMgr.read(content, lang);
+        Iterator<Triple> triples = Iter.map(resultSet, solution -> Triple.create(
+            solution.get("s").asNode(), solution.get("p").asNode(), solution.get("o").asNode()));
+        return Iter.asStream(triples).onClose(resultSet::close);
+    }
+
+    private Optional<Lang> resultSetLangOf(String contentType) {
+        return ResultSetReaderRegistry.registered().stream()
+            .filter(lang -> lang.getContentType().getContentTypeStr().equalsIgnoreCase(contentType)
+                || lang.getAltContentTypes().stream().anyMatch(contentType::equalsIgnoreCase))
+            .findFirst();
+    }
+
+    private Triple toTriple(BindingSet bindingSet, LabelToNode blankNodes) {
+        return Triple.create(toNode(bindingSet.getValue("s"), blankNodes),
+            toNode(bindingSet.getValue("p"), blankNodes), toNode(bindingSet.getValue("o"), blankNodes));
+    }
+
+    private Node toNode(Value value, LabelToNode blankNodes) {
+        if (value instanceof IRI iri) {
+            return NodeFactory.createURI(iri.stringValue());
+        }
+        if (value instanceof BNode blankNode) {
+            return blankNodes.get(null, blankNode.getID());
+        }
+        if (value instanceof Literal literal) {
+            Optional<String> language = literal.getLanguage();
+            if (language.isPresent()) {
+                return NodeFactory.createLiteral(literal.getLabel(), language.get());
+            }
+            return NodeFactory.createLiteral(literal.getLabel(),
+                TypeMapper.getInstance().getSafeTypeByName(literal.getDatatype().stringValue()));
+        }
+        throw new IllegalArgumentException("Unsupported value " + value + " in query results.");
+    }
+
+    private void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close response of repository.", e);
+        }
+    }
+
+    private static class Statistics {
+        private final LongAdder fetches = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder fetchTime = new LongAdder();
+        private final LongAdder latency = new LongAdder();
+
+        void record(long fetchedStatements, long transferredBytes, long fetchNanos, long latencyNanos) {
+            fetches.increment();
+            statements.add(fetchedStatements);
+            bytes.add(transferredBytes);
+            fetchTime.add(fetchNanos);
+            latency.add(latencyNanos);
+        }
+    }
+
+    /**
+     * Counts bytes read from the response before they are decompressed.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long length) throws IOException {
+            long skipped = super.skip(length);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.github.checkit.service;
 
 import com.github.checkit.dto.AdminPanelSummaryDto;
+import com.github.checkit.dto.EntityCacheStatisticsDto;
+import com.github.checkit.dto.LabelCacheStatisticsDto;
+import com.github.checkit.dto.RepositoryFetchStatisticsDto;
+import com.github.checkit.persistence.EntityCache;
+import com.github.checkit.persistence.RepositoryStatementFetcher;
+import java.util.List;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -9,15 +15,22 @@ public class AdminPanelService {
     private final GestoringRequestService gestoringRequestService;
     private final VocabularyService vocabularyService;
     private final AdminUserService adminUserService;
+    private final EntityCache entityCache;
+    private final RepositoryStatementFetcher repositoryStatementFetcher;
+    private final LabelService labelService;
 
     /**
      * Constructor.
      */
     public AdminPanelService(GestoringRequestService gestoringRequestService, VocabularyService vocabularyService,
-                             AdminUserService adminUserService) {
+                             AdminUserService adminUserService, EntityCache entityCache,
+                             RepositoryStatementFetcher repositoryStatementFetcher, LabelService labelService) {
         this.gestoringRequestService = gestoringRequestService;
         this.vocabularyService = vocabularyService;
         this.adminUserService = adminUserService;
+        this.entityCache = entityCache;
+        this.repositoryStatementFetcher = repositoryStatementFetcher;
+        this.labelService = labelService;
     }
 
     /**
@@ -33,4 +46,35 @@ public class AdminPanelService {
         int adminCount = adminUserService.getAllAdminCount();
         return new AdminPanelSummaryDto(gestoringRequestCount, vocabularyWithGestorCount, vocabularyCount, adminCount);
     }
+
+    /**
+     * Returns statistics of the entity cache: number of hits, misses and evictions for each entity type.
+     *
+     * @return list of {@link EntityCacheStatisticsDto}
+     */
+    public List<EntityCacheStatisticsDto> getCacheStatistics() {
+        return entityCache.getStatistics();
+    }
+
+    /**
+     * Returns statistics of statements fetched from the repository when vocabularies are compared: number of fetches,
+     * statements, transferred bytes and time spent.
+     *
+     * @return {@link RepositoryFetchStatisticsDto}
+     */
+    public RepositoryFetchStatisticsDto getFetchStatistics() {
+        return repositoryStatementFetcher.getStatistics();
+    }
+
+    /**
+     * Returns statistics of the cache of labels resolved for changes: number of cached labels, hits, misses, evictions
+     * and the hit rate.
+     *
+     * @return {@link LabelCacheStatisticsDto}
+     */
+    public LabelCacheStatisticsDto getLabelCacheStatistics() {
+        LabelService.LabelCacheStatistics statistics = labelService.getStatistics();
+        return new LabelCacheStatisticsDto(statistics.size(), statistics.hits(), statistics.misses(),
+            statistics.evictions(), statistics.hitRate());
+    }
 }
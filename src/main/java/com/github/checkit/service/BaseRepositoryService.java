@@ -12,6 +12,8 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import org.springframework.lang.NonNull;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Base implementation of repository services.
@@ -240,6 +242,28 @@ public abstract class BaseRepositoryService<T extends HasIdentifier> {
         // Do nothing
     }
 
+    /**
+     * Runs the specified action once the current transaction is committed, or immediately if there is no transaction.
+     *
+     * <p>Native SPARQL updates are executed by the repository at once, while entities are written only on commit.
+     * Updates that aggregate entity data, or that must not outlive a rolled back transaction, are therefore deferred
+     * by this method.
+     *
+     * @param action The action to run
+     */
+    protected void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     /**
      * Checks whether an instance with the specified identifier exists in the repository.
      *
@@ -3,23 +3,42 @@ package com.github.checkit.service;
 import com.github.checkit.dao.BaseDao;
 import com.github.checkit.dao.ChangeDao;
 import com.github.checkit.dao.CommentDao;
-import com.github.checkit.dao.ProjectContextDao;
+import com.github.checkit.dao.PublicationContextDao;
 import com.github.checkit.exception.EmptyArrayParameterException;
 import com.github.checkit.exception.ForbiddenException;
 import com.github.checkit.exception.NotFoundException;
 import com.github.checkit.exception.PublicationContextIsClosedException;
 import com.github.checkit.exception.PublicationContextWasUpdatedException;
+import com.github.checkit.exception.VocabularyComparisonException;
 import com.github.checkit.model.Change;
+import com.github.checkit.model.ChangeType;
 import com.github.checkit.model.ProjectContext;
+import com.github.checkit.model.PublicationContext;
 import com.github.checkit.model.User;
 import com.github.checkit.model.VocabularyContext;
 import com.github.checkit.model.auxilary.AbstractChangeableContext;
+import com.github.checkit.model.auxilary.ChangeReviewCheck;
+import com.github.checkit.model.auxilary.ChangeSelection;
+import com.github.checkit.model.auxilary.PublicationContextVersion;
 import com.github.checkit.service.auxiliary.ChangeResolver;
+import com.github.checkit.service.auxiliary.GraphDelta;
+import com.github.checkit.service.auxiliary.GraphDeltaReader;
 import com.github.checkit.util.TermVocabulary;
 import java.net.URI;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,21 +54,26 @@ public class ChangeService extends BaseRepositoryService<Change> {
     private final VocabularyContextService vocabularyContextService;
     private final UserService userService;
     private final ChangeDao changeDao;
-    private final ProjectContextDao projectContextDao;
+    private final PublicationContextDao publicationContextDao;
+    private final LabelService labelService;
     private final CommentDao commentDao;
+    private final ExecutorService vocabularyComparisonExecutor;
 
     /**
      * Constructor.
      */
     public ChangeService(VocabularyService vocabularyService, VocabularyContextService vocabularyContextService,
-                         UserService userService, ChangeDao changeDao, ProjectContextDao projectContextDao,
-                         CommentDao commentDao) {
+                         UserService userService, ChangeDao changeDao,
+                         PublicationContextDao publicationContextDao, LabelService labelService,
+                         CommentDao commentDao, ExecutorService vocabularyComparisonExecutor) {
         this.vocabularyService = vocabularyService;
         this.vocabularyContextService = vocabularyContextService;
         this.userService = userService;
         this.changeDao = changeDao;
-        this.projectContextDao = projectContextDao;
+        this.publicationContextDao = publicationContextDao;
+        this.labelService = labelService;
         this.commentDao = commentDao;
+        this.vocabularyComparisonExecutor = vocabularyComparisonExecutor;
     }
 
     @Override
@@ -57,19 +81,6 @@ public class ChangeService extends BaseRepositoryService<Change> {
         return changeDao;
     }
 
-    /**
-     * Finds any change in context in publication context that is not ROLLBACKED.
-     *
-     * @param publicationContextUri URI identifier of publication context
-     * @param contextUri            URI identifier of context
-     * @return change
-     */
-    public Change findRequiredAnyInContextInPublicationContext(URI publicationContextUri, URI contextUri) {
-        return changeDao.findAnyInContextInPublicationContext(publicationContextUri, contextUri).orElseThrow(() ->
-            new NotFoundException("No changes for context \"%s\" found in publication context \"%s\".",
-                contextUri, publicationContextUri));
-    }
-
     /**
      * Marks specified change as approved by current user.
      *
@@ -83,9 +94,7 @@ public class ChangeService extends BaseRepositoryService<Change> {
         checkUserCanReviewChange(current.getUri(), changeUri);
         checkUpToDate(changeUri, versionDate);
         Change change = findRequired(changeUri);
-        change.addApprovedBy(current);
-        change.removeRejectedBy(current);
-        changeDao.update(change);
+        review(change, current, versionDate, true, false);
         logger.info("User {} approved change \"{}\".", current.toSimpleString(), changeUri);
     }
 
@@ -101,14 +110,7 @@ public class ChangeService extends BaseRepositoryService<Change> {
         if (changeUris.isEmpty()) {
             throw new EmptyArrayParameterException("List of changes to approve can't be empty.");
         }
-        changeUris.forEach(changeUri -> checkUserCanReviewChange(current.getUri(), changeUri));
-        checkUpToDate(changeUris.get(0), versionDate);
-        for (URI changeUri : changeUris) {
-            Change change = findRequired(changeUri);
-            change.addApprovedBy(current);
-            change.removeRejectedBy(current);
-            changeDao.update(change);
-        }
+        reviewAll(current, changeUris, versionDate, true, false);
         logger.info("User {} approved changes: {}.", current.toSimpleString(), changeUris);
     }
 
@@ -125,9 +127,7 @@ public class ChangeService extends BaseRepositoryService<Change> {
         checkUserCanReviewChange(current.getUri(), changeUri);
         checkUpToDate(changeUri, versionDate);
         Change change = findRequired(changeUri);
-        change.addRejectedBy(current);
-        change.removeApprovedBy(current);
-        changeDao.update(change);
+        review(change, current, versionDate, false, true);
         logger.info("User {} rejected change \"{}\".", current.toSimpleString(), changeUri);
     }
 
@@ -143,14 +143,7 @@ public class ChangeService extends BaseRepositoryService<Change> {
         if (changeUris.isEmpty()) {
             throw new EmptyArrayParameterException("List of changes to reject can't be empty.");
         }
-        changeUris.forEach(changeUri -> checkUserCanReviewChange(current.getUri(), changeUri));
-        checkUpToDate(changeUris.get(0), versionDate);
-        for (URI changeUri : changeUris) {
-            Change change = findRequired(changeUri);
-            change.addRejectedBy(current);
-            change.removeApprovedBy(current);
-            changeDao.update(change);
-        }
+        reviewAll(current, changeUris, versionDate, false, true);
         logger.info("User {} rejected changes: {}.", current.toSimpleString(), changeUris);
     }
 
@@ -167,9 +160,7 @@ public class ChangeService extends BaseRepositoryService<Change> {
         checkUserCanReviewChange(current.getUri(), changeUri);
         checkUpToDate(changeUri, versionDate);
         Change change = findRequired(changeUri);
-        change.removeRejectedBy(current);
-        change.removeApprovedBy(current);
-        changeDao.update(change);
+        review(change, current, versionDate, false, false);
         commentDao.findFinalComment(change, current).ifPresent(commentDao::remove);
         logger.info("Review of user {} was cleared on change \"{}\".", current.toSimpleString(), changeUri);
     }
@@ -186,18 +177,88 @@ public class ChangeService extends BaseRepositoryService<Change> {
         if (changeUris.isEmpty()) {
             throw new EmptyArrayParameterException("List of changes to clear review can't be empty.");
         }
-        changeUris.forEach(changeUri -> checkUserCanReviewChange(current.getUri(), changeUri));
-        checkUpToDate(changeUris.get(0), versionDate);
-        for (URI changeUri : changeUris) {
-            Change change = findRequired(changeUri);
-            change.removeRejectedBy(current);
-            change.removeApprovedBy(current);
-            changeDao.update(change);
-            commentDao.findFinalComment(change, current).ifPresent(commentDao::remove);
-        }
+        reviewAll(current, changeUris, versionDate, false, false);
+        commentDao.findAllFinalCommentsOfUser(changeUris, current.getUri()).forEach(commentDao::remove);
         logger.info("Review of user {} was cleared on changes: {}.", current.toSimpleString(), changeUris);
     }
 
+    /**
+     * Creates selection of changes of specified vocabulary in specified publication context.
+     *
+     * @param publicationContextId identifier of publication context
+     * @param vocabularyUri        URI identifier of vocabulary
+     * @param subject              subject of changed statements, {@code null} for any
+     * @param changeType           type of changes, {@code null} for any
+     * @param predicate            predicate of changed statements, {@code null} for any
+     * @return selection of changes
+     */
+    public ChangeSelection createSelection(String publicationContextId, URI vocabularyUri, URI subject,
+                                           ChangeType changeType, URI predicate) {
+        return new ChangeSelection(URI.create(TermVocabulary.s_c_publikacni_kontext + "/" + publicationContextId),
+            vocabularyUri, subject, changeType, predicate);
+    }
+
+    /**
+     * Marks all selected changes as approved by current user.
+     *
+     * @param selection   selection of changes
+     * @param versionDate date of publication context last update
+     */
+    @Transactional
+    public void approveSelectedChanges(ChangeSelection selection, Instant versionDate) {
+        User current = userService.getCurrent();
+        reviewSelected(current, selection, versionDate, true, false);
+        logger.info("User {} approved changes selected by {}.", current.toSimpleString(), selection);
+    }
+
+    /**
+     * Marks all selected changes as rejected by current user.
+     *
+     * @param selection   selection of changes
+     * @param versionDate date of publication context last update
+     */
+    @Transactional
+    public void rejectSelectedChanges(ChangeSelection selection, Instant versionDate) {
+        User current = userService.getCurrent();
+        reviewSelected(current, selection, versionDate, false, true);
+        logger.info("User {} rejected changes selected by {}.", current.toSimpleString(), selection);
+    }
+
+    /**
+     * Removes review of current user from all selected changes.
+     *
+     * @param selection   selection of changes
+     * @param versionDate date of publication context last update
+     */
+    @Transactional
+    public void removeSelectedChangesReview(ChangeSelection selection, Instant versionDate) {
+        User current = userService.getCurrent();
+        reviewSelected(current, selection, versionDate, false, false);
+        commentDao.findAllFinalCommentsOfUser(changeDao.findAllSelected(selection), current.getUri())
+            .forEach(commentDao::remove);
+        logger.info("Review of user {} was cleared on changes selected by {}.", current.toSimpleString(), selection);
+    }
+
+    /**
+     * Returns list of changes made in all vocabulary contexts of specified project compared to their canonical
+     * versions.
+     *
+     * <p>Vocabularies are read and compared concurrently on bounded executor, failure in any of them cancels reading
+     * of the others. Changes are then resolved in the calling thread, as it holds the persistence context.
+     *
+     * @param project context of a project
+     * @return list of changes
+     */
+    public List<Change> getChanges(ProjectContext project) {
+        List<VocabularyContext> vocabularyContexts = new ArrayList<>(project.getVocabularyContexts());
+        List<GraphDelta> deltas = compareVocabularies(vocabularyContexts);
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < vocabularyContexts.size(); i++) {
+            changes.addAll(resolveChanges(deltas.get(i), vocabularyContexts.get(i), project));
+        }
+        return changes;
+    }
+
     /**
      * Returns list of changes made in specified vocabulary context compared to its canonical version.
      *
@@ -206,10 +267,7 @@ public class ChangeService extends BaseRepositoryService<Change> {
      * @return list of changes
      */
     public List<Change> getChanges(VocabularyContext vocabularyContext, ProjectContext project) {
-        Model canonicalGraph =
-            vocabularyService.getVocabularyContent(vocabularyContext.getBasedOnVersion());
-        Model draftGraph = vocabularyContextService.getVocabularyContent(vocabularyContext.getUri());
-        return getChanges(canonicalGraph, draftGraph, vocabularyContext, project);
+        return resolveChanges(compareVocabulary(vocabularyContext), vocabularyContext, project);
     }
 
     /**
@@ -223,11 +281,53 @@ public class ChangeService extends BaseRepositoryService<Change> {
      */
     public List<Change> getChanges(Model canonicalGraph, Model draftGraph,
                                    AbstractChangeableContext abstractChangeableContext, ProjectContext project) {
-        if (canonicalGraph.isIsomorphicWith(draftGraph)) {
+        GraphDelta delta = GraphDeltaReader.read(GraphDeltaReader.subjectSorted(canonicalGraph.getGraph()),
+            GraphDeltaReader.subjectSorted(draftGraph.getGraph()));
+        return resolveChanges(delta, abstractChangeableContext, project);
+    }
+
+    private List<GraphDelta> compareVocabularies(List<VocabularyContext> vocabularyContexts) {
+        CompletionService<GraphDelta> completionService = new ExecutorCompletionService<>(vocabularyComparisonExecutor);
+        List<Future<GraphDelta>> futures = vocabularyContexts.stream()
+            .map(vocabularyContext -> completionService.submit(() -> compareVocabulary(vocabularyContext)))
+            .toList();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                completionService.take().get();
+            }
+            List<GraphDelta> deltas = new ArrayList<>();
+            for (Future<GraphDelta> future : futures) {
+                deltas.add(future.get());
+            }
+            return deltas;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VocabularyComparisonException("Comparison of vocabularies was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new VocabularyComparisonException("Comparison of vocabularies failed.", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private GraphDelta compareVocabulary(VocabularyContext vocabularyContext) {
+        try (Stream<Triple> canonicalGraph = vocabularyService.getVocabularyContent(
+            vocabularyContext.getBasedOnVersion());
+             Stream<Triple> draftGraph = vocabularyContextService.getVocabularyContent(vocabularyContext.getUri())) {
+            return GraphDeltaReader.read(canonicalGraph.iterator(), draftGraph.iterator());
+        }
+    }
+
+    private List<Change> resolveChanges(GraphDelta delta, AbstractChangeableContext abstractChangeableContext,
+                                        ProjectContext project) {
+        if (delta.isUnchanged()) {
             return new ArrayList<>();
         }
-        ChangeResolver changeResolver = new ChangeResolver(canonicalGraph, draftGraph, abstractChangeableContext,
-            project, projectContextDao, changeDao);
+        ChangeResolver changeResolver =
+            new ChangeResolver(delta, abstractChangeableContext, project, labelService, changeDao);
         changeResolver.findChangesInStatementsWithoutBlankNode();
         changeResolver.findChangesInSubGraphs();
         return changeResolver.getChanges();
@@ -256,6 +356,82 @@ public class ChangeService extends BaseRepositoryService<Change> {
         return changeDao.generateEntityUri();
     }
 
+    /**
+     * Sets review of specified user on specified change. The review is written together with adjustment of review
+     * counters of the publication context by a single update, so the counters can't get out of sync with reviews.
+     */
+    private void review(Change change, User reviewer, Instant versionDate, boolean approved, boolean rejected) {
+        if (approved == change.isApproved(reviewer) && rejected == change.isRejected(reviewer)) {
+            return;
+        }
+        URI publicationContextUri = changeDao.resolvePublicationContextUri(change.getUri());
+        changeDao.updateReviews(publicationContextUri, List.of(change.getUri()), versionDate, reviewer.getUri(),
+            approved, rejected);
+        publicationContextDao.increaseReviewVersion(publicationContextUri);
+    }
+
+    /**
+     * Sets review of specified user on specified changes. The whole set is authorised by a single query and reviews
+     * are changed by a single update per publication context, so either all changes are reviewed or none of them.
+     * Each kind of validation error is reported with all changes it concerns.
+     */
+    private void reviewAll(User reviewer, List<URI> changeUris, Instant versionDate, boolean approved,
+                           boolean rejected) {
+        Set<URI> uniqueChangeUris = new LinkedHashSet<>(changeUris);
+        List<ChangeReviewCheck> checks = changeDao.findReviewChecks(uniqueChangeUris, reviewer.getUri());
+        Set<URI> foundChangeUris = checks.stream().map(ChangeReviewCheck::changeUri).collect(Collectors.toSet());
+        List<URI> missing = uniqueChangeUris.stream().filter(changeUri -> !foundChangeUris.contains(changeUri))
+            .toList();
+        if (!missing.isEmpty()) {
+            throw NotFoundException.createAll(Change.class, missing);
+        }
+        List<URI> inClosed = checks.stream().filter(ChangeReviewCheck::closed).map(ChangeReviewCheck::changeUri)
+            .toList();
+        if (!inClosed.isEmpty()) {
+            throw PublicationContextIsClosedException.create(inClosed);
+        }
+        if (!userService.isCurrentAdmin()) {
+            List<URI> forbidden = checks.stream().filter(check -> !check.gestored()).map(ChangeReviewCheck::changeUri)
+                .toList();
+            if (!forbidden.isEmpty()) {
+                throw ForbiddenException.createForbiddenToReviewChanges(reviewer.getUri(), forbidden);
+            }
+        }
+        List<URI> outdated = checks.stream()
+            .filter(check -> !versionDate.equals(check.publicationContextModified()))
+            .map(ChangeReviewCheck::changeUri).toList();
+        if (!outdated.isEmpty()) {
+            throw PublicationContextWasUpdatedException.create(outdated);
+        }
+        Map<URI, List<URI>> changesInPublicationContext = checks.stream().collect(Collectors.groupingBy(
+            ChangeReviewCheck::publicationContextUri,
+            Collectors.mapping(ChangeReviewCheck::changeUri, Collectors.toList())));
+        changesInPublicationContext.forEach((publicationContextUri, changesToReview) -> {
+            changeDao.updateReviews(publicationContextUri, changesToReview, versionDate, reviewer.getUri(), approved,
+                rejected);
+            publicationContextDao.increaseReviewVersion(publicationContextUri);
+        });
+    }
+
+    private void reviewSelected(User reviewer, ChangeSelection selection, Instant versionDate, boolean approved,
+                                boolean rejected) {
+        URI publicationContextUri = selection.publicationContextUri();
+        PublicationContextVersion version = publicationContextDao.findVersion(publicationContextUri)
+            .orElseThrow(() -> NotFoundException.create(PublicationContext.class, publicationContextUri));
+        if (publicationContextDao.isClosed(publicationContextUri)) {
+            throw PublicationContextIsClosedException.createOfPublicationContext(publicationContextUri);
+        }
+        if (!userService.isCurrentAdmin() && !publicationContextDao.isUserPermittedToReviewVocabulary(
+            reviewer.getUri(), publicationContextUri, selection.vocabularyUri())) {
+            throw ForbiddenException.createForbiddenToReviewVocabulary(reviewer.getUri(), selection.vocabularyUri());
+        }
+        if (!version.modified().equals(versionDate)) {
+            throw PublicationContextWasUpdatedException.createOfPublicationContext(publicationContextUri);
+        }
+        changeDao.updateReviews(selection, versionDate, reviewer.getUri(), approved, rejected);
+        publicationContextDao.increaseReviewVersion(publicationContextUri);
+    }
+
     private void checkNotInClosedPublicationContext(URI changeUri) {
         if (changeDao.isChangesPublicationContextClosed(changeUri)) {
             throw PublicationContextIsClosedException.create(changeUri);
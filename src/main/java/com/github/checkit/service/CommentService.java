@@ -11,9 +11,12 @@ import com.github.checkit.model.Change;
 import com.github.checkit.model.Comment;
 import com.github.checkit.model.PublicationContext;
 import com.github.checkit.model.User;
+import com.github.checkit.model.auxilary.ChangeComments;
 import com.github.checkit.model.auxilary.CommentTag;
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -128,6 +131,10 @@ public class CommentService extends BaseRepositoryService<Comment> {
         findFinalComment(publicationContext).ifPresent(this::remove);
     }
 
+    public Map<URI, ChangeComments> findCommentsOfChanges(Collection<Change> changes) {
+        return commentDao.findCommentsOfChanges(changes.stream().map(Change::getUri).toList());
+    }
+
     public int getDiscussionCommentsCount(Change change) {
         return commentDao.getDiscussionCommentsCount(change.getUri());
     }
@@ -0,0 +1,183 @@
+package com.github.checkit.service;
+
+import com.github.checkit.config.properties.ApplicationConfigProperties;
+import com.github.checkit.dao.ProjectContextDao;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves labels of entities which are not labeled in compared graphs. Labels are fetched in batches and kept in LRU
+ * cache shared by all submissions for limited time. Entities without label are not cached, so their labels are found
+ * as soon as they are added.
+ */
+@Service
+public class LabelService {
+
+    private final Logger logger = LoggerFactory.getLogger(LabelService.class);
+
+    private final ProjectContextDao projectContextDao;
+    private final LabelCache cache;
+
+    /** Constructor. */
+    public LabelService(ProjectContextDao projectContextDao, ApplicationConfigProperties applicationConfigProperties) {
+        this.projectContextDao = projectContextDao;
+        this.cache = new LabelCache(applicationConfigProperties.getLabel().getCacheSize(),
+            applicationConfigProperties.getLabel().getCacheTimeToLive());
+    }
+
+    /**
+     * Finds labels of specified entities. Labels in scope of project take precedence over labels found anywhere in the
+     * repository.
+     *
+     * @param projectUri URI identifier of project context
+     * @param iris       URI identifiers of entities
+     * @return map with label of every entity, the label is empty if none was found
+     */
+    public Map<URI, MultilingualString> getLabels(URI projectUri, Collection<URI> iris) {
+        Objects.requireNonNull(projectUri);
+        Map<URI, MultilingualString> labels = new HashMap<>();
+        List<URI> unlabeledInProject = resolveInScope(projectUri, iris, labels,
+            misses -> projectContextDao.getPrefLabelsOfIRIs(projectUri, misses));
+        List<URI> unlabeled = resolveInScope(null, unlabeledInProject, labels, projectContextDao::getPrefLabelsOfIRIs);
+        unlabeled.forEach(iri -> labels.put(iri, new MultilingualString()));
+        logger.debug("Label cache statistics: {}.", getStatistics());
+        return labels;
+    }
+
+    /**
+     * Gets statistics of label cache.
+     *
+     * @return cache statistics
+     */
+    public LabelCacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    private List<URI> resolveInScope(URI scope, Collection<URI> iris, Map<URI, MultilingualString> labels,
+                                     LabelFetcher fetcher) {
+        List<URI> unlabeled = new ArrayList<>();
+        List<URI> misses = new ArrayList<>();
+        for (URI iri : iris) {
+            MultilingualString cached = cache.get(new LabelKey(scope, iri));
+            if (cached == null) {
+                misses.add(iri);
+            } else {
+                addLabel(iri, cached, labels, unlabeled);
+            }
+        }
+        if (misses.isEmpty()) {
+            return unlabeled;
+        }
+        Map<URI, MultilingualString> fetched = fetcher.fetch(misses);
+        for (URI iri : misses) {
+            MultilingualString label = fetched.getOrDefault(iri, new MultilingualString());
+            if (!label.isEmpty()) {
+                cache.put(new LabelKey(scope, iri), label);
+            }
+            addLabel(iri, label, labels, unlabeled);
+        }
+        return unlabeled;
+    }
+
+    private void addLabel(URI iri, MultilingualString label, Map<URI, MultilingualString> labels,
+                          List<URI> unlabeled) {
+        if (label.isEmpty()) {
+            unlabeled.add(iri);
+        } else {
+            labels.put(iri, new MultilingualString(label.getValue()));
+        }
+    }
+
+    @FunctionalInterface
+    private interface LabelFetcher {
+        Map<URI, MultilingualString> fetch(List<URI> iris);
+    }
+
+    /**
+     * Key of cached label. Scope is URI of project context, or null for labels found anywhere in the repository.
+     */
+    private record LabelKey(URI scope, URI iri) {
+    }
+
+    /**
+     * Statistics of label cache.
+     *
+     * @param size      number of cached labels
+     * @param hits      number of lookups answered from the cache
+     * @param misses    number of lookups that had to be fetched
+     * @param evictions number of labels evicted from the cache, because it was full or they expired
+     */
+    public record LabelCacheStatistics(int size, long hits, long misses, long evictions) {
+        /**
+         * Gets ratio of lookups answered from the cache.
+         *
+         * @return hit rate between 0 and 1
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Cached label with time of its expiration in terms of {@link System#nanoTime()}.
+     */
+    private record CachedLabel(MultilingualString label, long expiresAt) {
+    }
+
+    private static class LabelCache {
+        private final Map<LabelKey, CachedLabel> labels;
+        private final long timeToLive;
+        private long hits;
+        private long misses;
+        private long evictions;
+
+        LabelCache(int maxSize, Duration timeToLive) {
+            this.timeToLive = timeToLive.toNanos();
+            this.labels = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<LabelKey, CachedLabel> eldest) {
+                    if (size() > maxSize) {
+                        evictions++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized MultilingualString get(LabelKey key) {
+            CachedLabel cached = labels.get(key);
+            if (cached != null && cached.expiresAt() - System.nanoTime() <= 0) {
+                labels.remove(key);
+                evictions++;
+                cached = null;
+            }
+            if (cached == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            return cached.label();
+        }
+
+        synchronized void put(LabelKey key, MultilingualString label) {
+            labels.put(key, new CachedLabel(label, System.nanoTime() + timeToLive));
+        }
+
+        synchronized LabelCacheStatistics getStatistics() {
+            return new LabelCacheStatistics(labels.size(), hits, misses, evictions);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.github.checkit.config.properties.ApplicationConfigProperties;
 import com.github.checkit.dao.BaseDao;
 import com.github.checkit.dao.NotificationDao;
 import com.github.checkit.dao.PublicationContextDao;
+import com.github.checkit.dto.CursorPageDto;
 import com.github.checkit.dto.NotificationDto;
 import com.github.checkit.exception.ForbiddenException;
 import com.github.checkit.exception.NotFoundException;
@@ -15,6 +16,7 @@ import com.github.checkit.model.Notification;
 import com.github.checkit.model.PublicationContext;
 import com.github.checkit.model.User;
 import com.github.checkit.model.Vocabulary;
+import com.github.checkit.model.auxilary.PageCursor;
 import com.github.checkit.util.KeycloakApiUtil;
 import com.github.checkit.util.NotificationTemplateUtil;
 import java.net.URI;
@@ -74,6 +76,28 @@ public class NotificationService extends BaseRepositoryService<Notification> {
         return notifications.stream().map(notification -> new NotificationDto(notification, languageTag)).toList();
     }
 
+    /**
+     * Gets page of notifications for current user following specified continuation token.
+     *
+     * @param cursor      continuation token of previous page, {@code null} for the first page
+     * @param languageTag preferred language tag
+     * @return page of notifications with continuation token of the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<NotificationDto> getAllForCurrentAfter(String cursor, String languageTag) {
+        User current = userService.getCurrent();
+        List<Notification> notifications = notificationDao.getAllForUser(current.getUri(),
+            Objects.isNull(cursor) ? null : PageCursor.parse(cursor), pageSize + 1);
+        List<NotificationDto> page = notifications.stream().limit(pageSize)
+            .map(notification -> new NotificationDto(notification, languageTag)).toList();
+        String nextCursor = null;
+        if (notifications.size() > pageSize) {
+            NotificationDto last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreated(), last.getUri()).toToken();
+        }
+        return new CursorPageDto<>(page, nextCursor);
+    }
+
     public int getUnreadCountForCurrent() {
         User current = userService.getCurrent();
         return notificationDao.getUnreadCountForUser(current.getUri());
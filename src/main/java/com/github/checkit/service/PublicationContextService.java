@@ -7,6 +7,7 @@ import com.github.checkit.dao.PublicationContextDao;
 import com.github.checkit.dto.ChangeDto;
 import com.github.checkit.dto.CommentDto;
 import com.github.checkit.dto.ContextChangesDto;
+import com.github.checkit.dto.CursorPageDto;
 import com.github.checkit.dto.PublicationContextDetailDto;
 import com.github.checkit.dto.PublicationContextDto;
 import com.github.checkit.dto.PublicationContextStatisticsDto;
@@ -18,22 +19,28 @@ import com.github.checkit.exception.ForbiddenException;
 import com.github.checkit.exception.NoChangeException;
 import com.github.checkit.exception.NotApprovableException;
 import com.github.checkit.exception.NotFoundException;
+import com.github.checkit.exception.PersistenceException;
 import com.github.checkit.exception.RejectionCommentTooShortException;
 import com.github.checkit.model.Change;
-import com.github.checkit.model.ChangeType;
 import com.github.checkit.model.Comment;
 import com.github.checkit.model.ProjectContext;
 import com.github.checkit.model.PublicationContext;
 import com.github.checkit.model.User;
 import com.github.checkit.model.Vocabulary;
-import com.github.checkit.model.VocabularyContext;
-import com.github.checkit.model.auxilary.AbstractChangeableContext;
+import com.github.checkit.model.auxilary.ChangeComments;
+import com.github.checkit.model.auxilary.ChangeSnapshot;
 import com.github.checkit.model.auxilary.CommentTag;
+import com.github.checkit.model.auxilary.PageCursor;
+import com.github.checkit.model.auxilary.PublicationContextVersion;
+import com.github.checkit.model.auxilary.RelationshipGroup;
+import com.github.checkit.model.auxilary.ReviewStatistics;
 import com.github.checkit.service.auxiliary.ChangeDtoComposer;
+import com.github.checkit.service.auxiliary.ChangeReconciler;
 import com.github.checkit.util.TermVocabulary;
-import cz.cvut.kbss.jopa.model.MultilingualString;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -41,10 +48,16 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
 
 @Service
 public class PublicationContextService extends BaseRepositoryService<PublicationContext> {
@@ -63,6 +76,8 @@ public class PublicationContextService extends BaseRepositoryService<Publication
     private final String defaultLanguageTag;
     private final int minimalRejectionCommentLength;
     private final int pageSize;
+    private final AtomicLong closedCountGeneration = new AtomicLong();
+    private final AtomicReference<ClosedCount> closedCount = new AtomicReference<>();
 
     /**
      * Construct.
@@ -105,14 +120,12 @@ public class PublicationContextService extends BaseRepositoryService<Publication
         if (userService.isCurrentAdmin()) {
             return new ArrayList<>();
         }
-        List<PublicationContext> allOpenPublicationContexts = publicationContextDao.findAllOpen();
         URI userUri = userService.getCurrent().getUri();
-        allOpenPublicationContexts.removeAll(
-            publicationContextDao.findAllOpenThatAffectVocabulariesGestoredBy(userUri));
-        return allOpenPublicationContexts.stream().map(pc -> {
-            PublicationContextState state = getState(pc);
-            return new PublicationContextDto(pc, state, resolveFinalComment(pc), getStatistics(pc));
-        }).toList();
+        return publicationContextDao.findAllOpenOverviews(userUri).stream()
+            .filter(overview -> !overview.isAffectingGestoredVocabulary())
+            .map(overview -> new PublicationContextDto(overview, PublicationContextState.CREATED,
+                getStatistics(overview.getReviewStatistics())))
+            .toList();
     }
 
     /**
@@ -123,13 +136,17 @@ public class PublicationContextService extends BaseRepositoryService<Publication
     @Transactional(readOnly = true)
     public List<PublicationContextDto> getReviewablePublicationContexts() {
         User current = userService.getCurrent();
-        List<PublicationContext> publicationContexts =
-            userService.isCurrentAdmin() ? publicationContextDao.findAllOpen() :
-            publicationContextDao.findAllOpenThatAffectVocabulariesGestoredBy(current.getUri());
-        return publicationContexts.stream().map(pc -> {
-            PublicationContextState state = getState(pc, current);
-            return new PublicationContextDto(pc, state, resolveFinalComment(pc), getStatistics(pc, current));
-        }).toList();
+        boolean isAdmin = userService.isCurrentAdmin();
+        Set<URI> gestoredVocabularies = vocabularyService.findAllGestoredVocabularyUris(current);
+        return publicationContextDao.findAllOpenOverviews(current.getUri()).stream()
+            .filter(overview -> isAdmin || overview.isAffectingGestoredVocabulary())
+            .map(overview -> {
+                ReviewStatistics statistics = overview.getReviewStatistics();
+                PublicationContextState state = getOpenState(current, statistics, gestoredVocabularies,
+                    () -> resolveApprovedByForVocabularies(overview.getUri()));
+                return new PublicationContextDto(overview, state,
+                    getStatistics(statistics, current, gestoredVocabularies));
+            }).toList();
     }
 
     /**
@@ -140,21 +157,49 @@ public class PublicationContextService extends BaseRepositoryService<Publication
      */
     @Transactional(readOnly = true)
     public List<PublicationContextDto> getClosedPublicationContexts(int pageNumber) {
-        return publicationContextDao.findAllClosed(pageNumber, pageSize).stream().map(pc -> {
-            CommentDto finalComment = null;
-            Optional<Comment> comment = commentService.findFinalComment(pc);
-            if (comment.isPresent()) {
-                finalComment = new CommentDto(comment.get());
-            }
-            return new PublicationContextDto(pc, getState(pc), finalComment);
-        }).toList();
+        return publicationContextDao.findAllClosed(pageNumber, pageSize).stream().map(this::toClosedDto).toList();
+    }
+
+    /**
+     * Gets page of closed publication contexts following specified continuation token.
+     *
+     * @param cursor continuation token of previous page, {@code null} for the first page
+     * @return page of publication contexts with continuation token of the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<PublicationContextDto> getClosedPublicationContextsAfter(String cursor) {
+        List<PublicationContext> publicationContexts =
+            publicationContextDao.findAllClosed(Objects.isNull(cursor) ? null : PageCursor.parse(cursor),
+                pageSize + 1);
+        List<PublicationContextDto> page =
+            publicationContexts.stream().limit(pageSize).map(this::toClosedDto).toList();
+        String nextCursor = null;
+        if (publicationContexts.size() > pageSize) {
+            PublicationContextDto last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getFinalComment().getCreationDate(), last.getUri()).toToken();
+        }
+        return new CursorPageDto<>(page, nextCursor);
     }
 
     /**
-     * Returns how many pages are available to show of closed publication contexts.
+     * Returns how many pages are available to show of closed publication contexts. Number of closed publication
+     * contexts is counted again only after some publication context was approved, rejected or reopened.
+     *
+     * <p>The number is cached by this instance of the application only. Publication contexts closed or reopened
+     * through another instance, or directly in the repository, are not reflected until this instance closes or
+     * reopens some publication context itself.
      */
     public int getPageCountOfClosedPublicationContexts() {
-        return (int) Math.ceil((double) publicationContextDao.countAllClosed() / pageSize);
+        long generation = closedCountGeneration.get();
+        ClosedCount cached = closedCount.get();
+        int count;
+        if (Objects.nonNull(cached) && cached.generation() == generation) {
+            count = cached.count();
+        } else {
+            count = publicationContextDao.countAllClosed();
+            closedCount.set(new ClosedCount(generation, count));
+        }
+        return (int) Math.ceil((double) count / pageSize);
     }
 
     /**
@@ -169,24 +214,51 @@ public class PublicationContextService extends BaseRepositoryService<Publication
         URI publicationContextUri = createPublicationContextUriFromId(publicationContextId);
 
         PublicationContext pc = findRequired(publicationContextUri);
-        PublicationContextState state = getState(pc, current);
-        Map<AbstractChangeableContext, List<User>> contextApprovedByMap = resolveApprovedByForContexts(pc);
+        ReviewStatistics reviewStatistics = publicationContextDao.findReviewStatistics(pc.getUri());
+        Set<URI> gestoredVocabularies = vocabularyService.findAllGestoredVocabularyUris(current);
+        Map<URI, List<User>> approvedByMap = resolveApprovedByForVocabularies(pc.getUri());
+        PublicationContextState state =
+            getState(pc, current, reviewStatistics, gestoredVocabularies, () -> approvedByMap);
         List<ReviewableVocabularyDto> affectedVocabularies =
             vocabularyService.findAllAffectedVocabularies(pc.getUri()).stream()
                 .map(vocabulary -> {
                     boolean gestored = userService.isCurrentAdmin() || vocabulary.getGestors().contains(current);
-                    List<User> approvedBy =
-                        contextApprovedByMap.get(contextApprovedByMap.keySet().stream()
-                            .filter(ctx -> ctx.getBasedOnVersion().equals(vocabulary.getUri())).findFirst().get());
-                    VocabularyStatisticsDto vocStatistics = getVocabularyStatistics(pc, vocabulary, current, gestored);
+                    List<User> approvedBy = approvedByMap.getOrDefault(vocabulary.getUri(), List.of());
+                    VocabularyStatisticsDto vocStatistics =
+                        getVocabularyStatistics(reviewStatistics, vocabulary, current, gestored);
                     return new ReviewableVocabularyDto(vocabulary, gestored, vocStatistics, approvedBy);
                 }).toList();
         PublicationContextStatisticsDto statistics =
-            affectedVocabularies.stream().anyMatch(ReviewableVocabularyDto::isGestored) ? getStatistics(pc, current)
-                                                                                        : getStatistics(pc);
+            affectedVocabularies.stream().anyMatch(ReviewableVocabularyDto::isGestored)
+            ? getStatistics(reviewStatistics, current, gestoredVocabularies) : getStatistics(reviewStatistics);
         return new PublicationContextDetailDto(pc, state, resolveFinalComment(pc), statistics, affectedVocabularies);
     }
 
+    /**
+     * Computes entity tag of a response about publication context specified by id for current user. The tag changes
+     * whenever the publication context, reviews of its changes, comments on them or vocabularies gestored by current
+     * user change.
+     *
+     * @param publicationContextId identifier of publication context
+     * @param variant              request parameters the response depends on
+     * @return entity tag or {@code null} if publication context does not exist
+     */
+    @Transactional(readOnly = true)
+    public String getPublicationContextETag(String publicationContextId, Object... variant) {
+        URI publicationContextUri = createPublicationContextUriFromId(publicationContextId);
+        Optional<PublicationContextVersion> version = publicationContextDao.findVersion(publicationContextUri);
+        if (version.isEmpty()) {
+            return null;
+        }
+        User current = userService.getCurrent();
+        List<String> parts = new ArrayList<>(List.of(version.get().toString(), current.getUri().toString(),
+            Boolean.toString(userService.isCurrentAdmin())));
+        vocabularyService.findAllGestoredVocabularyUris(current).stream().map(URI::toString).sorted()
+            .forEach(parts::add);
+        Arrays.stream(variant).map(String::valueOf).forEach(parts::add);
+        return DigestUtils.md5DigestAsHex(String.join("\n", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * Get changes made in specified vocabulary in specified publication context.
      *
@@ -220,17 +292,19 @@ public class PublicationContextService extends BaseRepositoryService<Publication
     @Transactional
     public URI createOrUpdatePublicationContext(URI projectUri) {
         ProjectContext project = projectContextService.findRequired(projectUri);
-        List<Change> currentChanges = new ArrayList<>();
-        for (VocabularyContext vocabularyContext : project.getVocabularyContexts()) {
-            currentChanges.addAll(changeService.getChanges(vocabularyContext, project));
-        }
+        List<Change> currentChanges = changeService.getChanges(project);
 
         PublicationContext publicationContext;
         Set<User> reviewers = new HashSet<>();
+        Map<URI, ChangeSnapshot> previousChanges = new HashMap<>();
         boolean publicationContextExists = publicationContextDao.existsNotApproved(project.getUri());
         if (publicationContextExists) {
             publicationContext = findRequiredFromProject(project);
-            publicationContext.getChanges().forEach(change -> reviewers.addAll(change.getReviewBy()));
+            publicationContextDao.detach(publicationContext);
+            publicationContext.getChanges().forEach(change -> {
+                reviewers.addAll(change.getReviewBy());
+                previousChanges.put(change.getUri(), ChangeSnapshot.of(change));
+            });
         } else {
             //Don't create publication context with no changes.
             if (currentChanges.isEmpty()) {
@@ -241,26 +315,33 @@ public class PublicationContextService extends BaseRepositoryService<Publication
             publicationContext.setFromProject(project);
         }
         Set<Change> existingChanges = publicationContext.getChanges();
-        Set<Change> newFormOfChanges =
-            takeIntoConsiderationExistingChanges(new HashSet<>(currentChanges), new HashSet<>(existingChanges));
+        ChangeReconciler changeReconciler =
+            new ChangeReconciler(new HashSet<>(currentChanges), new HashSet<>(existingChanges));
+        Set<Change> newFormOfChanges = changeReconciler.reconcile();
         if (newFormOfChanges.equals(existingChanges)) {
             return publicationContext.getUri();
         }
         assignUris(newFormOfChanges);
-        resolveCountable(newFormOfChanges);
+        List<RelationshipGroup> relationshipGroups = ChangeDtoComposer.resolveCountable(newFormOfChanges);
         publicationContext.setChanges(newFormOfChanges);
         publicationContext.setCorrespondingPullRequest(sgovServerService.createPullRequest(project));
 
         URI publicationContextUri;
         if (publicationContextExists) {
-            publicationContextUri = update(publicationContext).getUri();
             commentService.removeFinalComment(publicationContext);
             notificationService.updatedPublication(publicationContext, reviewers);
+            //Written at once, so only after all steps that can fail.
+            publicationContextDao.updateChanges(publicationContext, previousChanges,
+                changeReconciler.getObsoleteChanges().stream().map(Change::getUri).toList(), relationshipGroups);
+            publicationContextUri = publicationContext.getUri();
+            invalidateClosedCount();
             logger.info("Changes in publication context \"{}\" were updated from project \"{}\".",
                 publicationContextUri, projectUri);
         } else {
             persist(publicationContext);
             publicationContextUri = publicationContext.getUri();
+            //Changes of a new publication context are written on commit, so are the groups and counters of them.
+            afterCommit(() -> storeRelationshipGroupsAndStatistics(publicationContextUri, relationshipGroups));
             notificationService.createdPublicationContext(publicationContext);
             logger.info("Publication context \"{}\" was created from project \"{}\".", publicationContextUri,
                 projectUri);
@@ -281,7 +362,8 @@ public class PublicationContextService extends BaseRepositoryService<Publication
         PublicationContext publicationContext = findRequired(publicationContextUri);
         checkNotAlreadyReviewed(publicationContext);
         checkCanReview(publicationContext, current);
-        if (!isApprovable(publicationContext, current)) {
+        if (!isApprovable(current, publicationContextDao.findReviewStatistics(publicationContext.getUri()),
+            () -> resolveApprovedByForVocabularies(publicationContext.getUri()))) {
             throw NotApprovableException.create(publicationContext.getUri());
         }
         Comment comment = new Comment();
@@ -291,6 +373,7 @@ public class PublicationContextService extends BaseRepositoryService<Publication
         comment.setContent(finalComment);
         gitHubService.approvePullRequest(publicationContext);
         commentService.persist(comment);
+        invalidateClosedCount();
         notificationService.approvedPublicationContext(comment, publicationContext);
         logger.info("Publication context \"{}\" was approved by user {}.", publicationContext.getUri(),
             current.toSimpleString());
@@ -319,6 +402,7 @@ public class PublicationContextService extends BaseRepositoryService<Publication
         comment.setContent(finalComment);
         gitHubService.closePullRequest(publicationContext);
         commentService.persist(comment);
+        invalidateClosedCount();
         notificationService.rejectedPublicationContext(comment, publicationContext);
         logger.info("Publication context \"{}\" was rejected by user {}.", publicationContext.getUri(),
             current.toSimpleString());
@@ -326,42 +410,72 @@ public class PublicationContextService extends BaseRepositoryService<Publication
 
     private List<ChangeDto> convertChangesInVocabularyToDtos(PublicationContext pc, User current, String language,
                                                              URI vocabularyUri) {
-        Set<Change> changes = pc.getChanges();
-        List<ChangeDto> changeDtos = new ArrayList<>(changes.stream()
+        List<Change> changes = pc.getChanges().stream()
             .filter(change ->
                 change.getContext().getBasedOnVersion().equals(vocabularyUri))
             .filter(change -> !change.isRollback() || change.isReviewed(current))
-            .map(change ->
-                new ChangeDto(change, current, language, defaultLanguageTag, resolveRejectionComment(change, current),
-                    resolveRejectionCommentsOfOthers(change, current),
-                    commentService.getDiscussionCommentsCount(change)))
-            .toList());
+            .toList();
+        Map<URI, ChangeComments> comments = commentService.findCommentsOfChanges(changes);
+        List<ChangeDto> changeDtos = new ArrayList<>();
+        for (Change change : changes) {
+            ChangeComments changeComments = comments.getOrDefault(change.getUri(), ChangeComments.empty());
+            changeDtos.add(new ChangeDto(change, current, language, defaultLanguageTag,
+                resolveRejectionComment(changeComments, current),
+                resolveRejectionCommentsOfOthers(changeComments, current),
+                changeComments.discussionCommentsCount()));
+        }
         if (changeDtos.isEmpty()) {
             throw new NotFoundException("No changes in vocabulary \"%s\" found in publication context \"%s\".",
                 vocabularyUri, pc.getUri());
         }
         ChangeDtoComposer changeDtoComposer = new ChangeDtoComposer(changeDtos);
-        changeDtoComposer.compose();
+        Optional<List<RelationshipGroup>> relationshipGroups =
+            publicationContextDao.findRelationshipGroups(pc.getUri(), vocabularyUri);
+        if (relationshipGroups.isPresent()) {
+            changeDtoComposer.compose(relationshipGroups.get());
+        } else {
+            changeDtoComposer.compose();
+        }
         changeDtos.addAll(changeDtoComposer.getGroupChangeDtosOfRelationships());
 
         return changeDtos.stream().sorted().toList();
     }
 
-    private void resolveCountable(Set<Change> changes) {
-        Set<URI> contextUris = new HashSet<>();
-        Set<URI> countableChangeUris = new HashSet<>();
-        changes.forEach(change -> contextUris.add(change.getContext().getUri()));
-        for (URI contextUri : contextUris) {
-            List<ChangeDto> changeDtos = new ArrayList<>(changes.stream()
-                .filter(change -> change.getContext().getUri().equals(contextUri))
-                .map(ChangeDto::new).toList());
-            ChangeDtoComposer changeComposer = new ChangeDtoComposer(changeDtos);
-            changeComposer.compose();
-            countableChangeUris.addAll(changeComposer.getCountable());
+    private PublicationContextDto toClosedDto(PublicationContext pc) {
+        return new PublicationContextDto(pc, getState(pc), resolveFinalComment(pc));
+    }
+
+    /**
+     * Stores relationship groups and review counters of committed publication context. Failure is only logged, as the
+     * publication context is already committed and both are derived from its changes: counters that are not stored
+     * are aggregated on read and changes without stored groups are composed separately.
+     */
+    private void storeRelationshipGroupsAndStatistics(URI publicationContextUri,
+                                                      List<RelationshipGroup> relationshipGroups) {
+        try {
+            publicationContextDao.replaceRelationshipGroups(publicationContextUri, relationshipGroups);
+            publicationContextDao.recomputeReviewStatistics(publicationContextUri);
+        } catch (PersistenceException e) {
+            logger.warn("Relationship groups and review statistics of publication context \"{}\" were not stored.",
+                publicationContextUri, e);
+        }
+    }
+
+    /**
+     * Makes cached number of closed publication contexts outdated once current transaction completes, so it isn't
+     * counted again from data that are not committed yet.
+     */
+    private void invalidateClosedCount() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            closedCountGeneration.incrementAndGet();
+            return;
         }
-        changes.forEach(change -> change.setCountable(countableChangeUris.remove(change.getUri())));
-        changes.stream().filter(change -> change.getChangeType().equals(ChangeType.ROLLBACKED))
-            .forEach(change -> change.setCountable(false));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                closedCountGeneration.incrementAndGet();
+            }
+        });
     }
 
     private void assignUris(Set<Change> newlyFormedOfChanges) {
@@ -393,17 +507,13 @@ public class PublicationContextService extends BaseRepositoryService<Publication
         return finalComment;
     }
 
-    private CommentDto resolveRejectionComment(Change change, User current) {
-        CommentDto rejectionComment = null;
-        Optional<Comment> comment = commentService.findFinalComment(change, current);
-        if (comment.isPresent()) {
-            rejectionComment = new CommentDto(comment.get());
-        }
-        return rejectionComment;
+    private CommentDto resolveRejectionComment(ChangeComments comments, User current) {
+        return comments.finalComments().stream().filter(comment -> comment.getAuthor().equals(current)).findFirst()
+            .map(CommentDto::new).orElse(null);
     }
 
-    private List<CommentDto> resolveRejectionCommentsOfOthers(Change change, User current) {
-        return commentService.findAllFinalComments(change).stream()
+    private List<CommentDto> resolveRejectionCommentsOfOthers(ChangeComments comments, User current) {
+        return comments.finalComments().stream()
             .filter(comment -> !comment.getAuthor().equals(current)).map(CommentDto::new).toList();
     }
 
@@ -411,41 +521,39 @@ public class PublicationContextService extends BaseRepositoryService<Publication
         return URI.create(TermVocabulary.s_c_publikacni_kontext + "/" + id);
     }
 
-    private PublicationContextStatisticsDto getStatistics(PublicationContext pc, User user) {
-        int totalChangesCount = publicationContextDao.countChanges(pc.getUri());
+    private PublicationContextStatisticsDto getStatistics(ReviewStatistics statistics, User user,
+                                                          Set<URI> gestoredVocabularies) {
+        int totalChangesCount = statistics.getTotalChanges();
         int reviewableChangesCount = userService.isCurrentAdmin() ? totalChangesCount :
-                                     publicationContextDao.countReviewableChanges(pc.getUri(), user.getUri());
-        int approvedChangesCount = publicationContextDao.countApprovedChanges(pc.getUri(), user.getUri());
-        int rejectedChangesCount = publicationContextDao.countRejectedChanges(pc.getUri(), user.getUri());
+                                     statistics.getTotalChanges(gestoredVocabularies);
+        int approvedChangesCount = statistics.getApprovedChanges(user.getUri());
+        int rejectedChangesCount = statistics.getRejectedChanges(user.getUri());
         return new PublicationContextStatisticsDto(totalChangesCount, reviewableChangesCount, approvedChangesCount,
             rejectedChangesCount);
     }
 
-    private PublicationContextStatisticsDto getStatistics(PublicationContext pc) {
-        int totalChangesCount = publicationContextDao.countChanges(pc.getUri());
-        return new PublicationContextStatisticsDto(totalChangesCount);
+    private PublicationContextStatisticsDto getStatistics(ReviewStatistics statistics) {
+        return new PublicationContextStatisticsDto(statistics.getTotalChanges());
     }
 
-    private VocabularyStatisticsDto getVocabularyStatistics(PublicationContext pc, Vocabulary vocabulary, User current,
-                                                            boolean gestored) {
-        VocabularyStatisticsDto statistics = new VocabularyStatisticsDto(
-            publicationContextDao.countChangesInVocabulary(pc.getUri(), vocabulary.getUri()));
+    private VocabularyStatisticsDto getVocabularyStatistics(ReviewStatistics reviewStatistics, Vocabulary vocabulary,
+                                                            User current, boolean gestored) {
+        VocabularyStatisticsDto statistics =
+            new VocabularyStatisticsDto(reviewStatistics.getTotalChanges(vocabulary.getUri()));
         if (gestored) {
-            statistics.setApprovedChanges(
-                publicationContextDao.countApprovedChangesInVocabulary(pc.getUri(), current.getUri(),
-                    vocabulary.getUri()));
-            statistics.setRejectedChanges(
-                publicationContextDao.countRejectedChangesInVocabulary(pc.getUri(), current.getUri(),
-                    vocabulary.getUri()));
+            statistics.setApprovedChanges(reviewStatistics.getApprovedChanges(current.getUri(), vocabulary.getUri()));
+            statistics.setRejectedChanges(reviewStatistics.getRejectedChanges(current.getUri(), vocabulary.getUri()));
         }
         return statistics;
     }
 
     private PublicationContextState getState(PublicationContext pc) {
-        return getState(pc, null);
+        return getState(pc, null, null, null, null);
     }
 
-    private PublicationContextState getState(PublicationContext pc, User current) {
+    private PublicationContextState getState(PublicationContext pc, User current, ReviewStatistics statistics,
+                                             Set<URI> gestoredVocabularies,
+                                             Supplier<Map<URI, List<User>>> approvedBySupplier) {
         Optional<Comment> optComment = commentService.findFinalComment(pc);
         if (optComment.isPresent()) {
             if (optComment.get().getTag().equals(CommentTag.APPROVAL)) {
@@ -454,189 +562,57 @@ public class PublicationContextService extends BaseRepositoryService<Publication
             return PublicationContextState.REJECTED;
         }
         if (Objects.nonNull(current)) {
-            if (userApprovedEverythingPossibleButNotAll(pc, current)) {
-                return PublicationContextState.WAITING_FOR_OTHERS;
-            }
-            if (isApprovable(pc, current)) {
-                return PublicationContextState.APPROVABLE;
-            }
+            return getOpenState(current, statistics, gestoredVocabularies, approvedBySupplier);
+        }
+        return PublicationContextState.CREATED;
+    }
+
+    private PublicationContextState getOpenState(User current, ReviewStatistics statistics,
+                                                 Set<URI> gestoredVocabularies,
+                                                 Supplier<Map<URI, List<User>>> approvedBySupplier) {
+        if (userApprovedEverythingPossibleButNotAll(current, statistics, gestoredVocabularies)) {
+            return PublicationContextState.WAITING_FOR_OTHERS;
+        }
+        if (isApprovable(current, statistics, approvedBySupplier)) {
+            return PublicationContextState.APPROVABLE;
         }
         return PublicationContextState.CREATED;
     }
 
-    private boolean userApprovedEverythingPossibleButNotAll(PublicationContext pc, User user) {
+    private boolean userApprovedEverythingPossibleButNotAll(User user, ReviewStatistics statistics,
+                                                            Set<URI> gestoredVocabularies) {
         if (userService.isCurrentAdmin()) {
             return false;
         }
-        int totalChangesCount = publicationContextDao.countChanges(pc.getUri());
-        int countReviewableChanges = publicationContextDao.countReviewableChanges(pc.getUri(), user.getUri());
+        int totalChangesCount = statistics.getTotalChanges();
+        int countReviewableChanges = statistics.getTotalChanges(gestoredVocabularies);
         if (countReviewableChanges == totalChangesCount) {
             return false;
         }
-        int countApprovedChanges = publicationContextDao.countApprovedChanges(pc.getUri(), user.getUri());
+        int countApprovedChanges = statistics.getApprovedChanges(user.getUri());
         return countReviewableChanges == countApprovedChanges;
     }
 
-    private boolean isApprovable(PublicationContext pc, User user) {
-        int totalChangesCount = publicationContextDao.countChanges(pc.getUri());
-        int totalApprovedChangesCount = publicationContextDao.countApprovedChanges(pc.getUri());
-        if (totalChangesCount != totalApprovedChangesCount) {
+    private boolean isApprovable(User user, ReviewStatistics statistics,
+                                 Supplier<Map<URI, List<User>>> approvedBySupplier) {
+        if (statistics.getTotalChanges() != statistics.getApprovedChanges()) {
             return false;
         }
         //check that every vocabulary was reviewed in whole by someone
-        Map<AbstractChangeableContext, List<User>> contextApprovedByMap = resolveApprovedByForContexts(pc);
-        if (contextApprovedByMap.values().stream().anyMatch(List::isEmpty)) {
+        Map<URI, List<User>> approvedByMap = approvedBySupplier.get();
+        if (approvedByMap.values().stream().anyMatch(List::isEmpty)) {
             return false;
         }
-        return contextApprovedByMap.values().stream().anyMatch(approvedBy -> approvedBy.contains(user));
-    }
-
-    private Map<AbstractChangeableContext, List<User>> resolveApprovedByForContexts(PublicationContext pc) {
-        Map<AbstractChangeableContext, List<User>> contextApprovedByMap = new HashMap<>();
-        for (AbstractChangeableContext context : publicationContextDao.getAllAffectedContexts(pc.getUri())) {
-            List<User> approvedBy = new ArrayList<>();
-            Set<User> potentiallyApprovedBy =
-                changeService.findRequiredAnyInContextInPublicationContext(pc.getUri(), context.getUri())
-                    .getApprovedBy();
-            for (User approvedByCandidate : potentiallyApprovedBy) {
-                if (publicationContextDao.hasApprovedWholeContext(pc.getUri(), context.getUri(),
-                    approvedByCandidate.getUri())) {
-                    approvedBy.add(approvedByCandidate);
-                }
-            }
-            contextApprovedByMap.put(context, approvedBy);
-        }
-        return contextApprovedByMap;
+        return approvedByMap.values().stream().anyMatch(approvedBy -> approvedBy.contains(user));
     }
 
-    private Set<Change> takeIntoConsiderationExistingChanges(Set<Change> currentChanges, Set<Change> existingChanges) {
-        if (existingChanges.isEmpty()) {
-            return new HashSet<>(currentChanges);
-        }
-
-        List<Change> newFormOfChanges = resolveBlankNodeChanges(existingChanges, currentChanges);
-
-        for (Change currentChange : currentChanges) {
-            Optional<Change> optExistingChange =
-                existingChanges.stream().filter(currentChange::hasSameTripleAs).findFirst();
-            if (optExistingChange.isEmpty()) {
-                newFormOfChanges.add(currentChange);
-                continue;
-            }
-
-            Change existingChange = optExistingChange.get();
-            existingChanges.remove(existingChange);
-            if (currentChange.hasSameChangeAs(existingChange)) {
-                existingChange.setLabel(currentChange.getLabel());
-                newFormOfChanges.add(existingChange);
-            } else {
-                newFormOfChanges.add(currentChange);
-                changeService.remove(existingChange);
-            }
-        }
-
-        for (Change rollbackedChange : existingChanges) {
-            if (rollbackedChange.hasBeenReviewed()) {
-                rollbackedChange.setChangeType(ChangeType.ROLLBACKED);
-                rollbackedChange.setCountable(false);
-                newFormOfChanges.add(rollbackedChange);
-            } else {
-                changeService.remove(rollbackedChange);
-            }
-        }
-
-        return new HashSet<>(newFormOfChanges);
-    }
-
-    private List<Change> resolveBlankNodeChanges(Set<Change> existingChanges, Set<Change> currentChanges) {
-        List<Change> newFormOfChanges = new ArrayList<>();
-        Map<Change, List<Change>> existingBlankNodeGraphs = extractBlankNodeGraphs(existingChanges);
-        Map<Change, List<Change>> currentBlankNodeGraphs = extractBlankNodeGraphs(currentChanges);
-
-        for (Change currentPointingToBlankNodeChange : currentBlankNodeGraphs.keySet()) {
-            List<Change> currentGraphBlankNodes = currentBlankNodeGraphs.get(currentPointingToBlankNodeChange);
-            Change sameExistingPointingToBlankNodeChange = null;
-            for (Change existingPointingToBlankNodeChange : existingBlankNodeGraphs.keySet()) {
-                List<Change> existingGraphBlankNodes = existingBlankNodeGraphs.get(existingPointingToBlankNodeChange);
-                if (currentPointingToBlankNodeChange.hasSameTripleAs(existingPointingToBlankNodeChange)
-                    && isListOfChangesIsomorphic(existingGraphBlankNodes, currentGraphBlankNodes)) {
-                    sameExistingPointingToBlankNodeChange = existingPointingToBlankNodeChange;
-                    break;
-                }
-            }
-            if (sameExistingPointingToBlankNodeChange == null) {
-                newFormOfChanges.add(currentPointingToBlankNodeChange);
-                newFormOfChanges.addAll(currentGraphBlankNodes);
-            } else {
-                List<Change> existingGraphBlankNodes =
-                    existingBlankNodeGraphs.get(sameExistingPointingToBlankNodeChange);
-                existingBlankNodeGraphs.remove(sameExistingPointingToBlankNodeChange);
-                MultilingualString label = currentPointingToBlankNodeChange.getLabel();
-                existingGraphBlankNodes.forEach(blankNodeChange -> {
-                    blankNodeChange.setLabel(label);
-                    newFormOfChanges.add(blankNodeChange);
-                });
-                sameExistingPointingToBlankNodeChange.setLabel(label);
-                newFormOfChanges.add(sameExistingPointingToBlankNodeChange);
-            }
-        }
-        //remove unused
-        for (Change existingPointingToBlankNodeChange : existingBlankNodeGraphs.keySet()) {
-            existingBlankNodeGraphs.get(existingPointingToBlankNodeChange).forEach(changeService::remove);
-            changeService.remove(existingPointingToBlankNodeChange);
-        }
-        return newFormOfChanges;
-    }
-
-    private boolean isListOfChangesIsomorphic(List<Change> existingGraphBlankNodes,
-                                              List<Change> currentGraphBlankNodes) {
-        List<Change> currentGraphBlankNodesCopy = new ArrayList<>(currentGraphBlankNodes);
-        if (existingGraphBlankNodes.size() != currentGraphBlankNodesCopy.size()) {
-            return false;
-        }
-        for (Change existingGraphBlankNode : existingGraphBlankNodes) {
-            Change sameChange = null;
-            for (Change currentGraphBlankNode : currentGraphBlankNodesCopy) {
-                if (existingGraphBlankNode.hasSameTripleAs(currentGraphBlankNode)) {
-                    sameChange = currentGraphBlankNode;
-                    break;
-                }
-            }
-            if (sameChange == null) {
-                return false;
-            }
-            currentGraphBlankNodesCopy.remove(sameChange);
-        }
-        return true;
-    }
-
-    private Map<Change, List<Change>> extractBlankNodeGraphs(Set<Change> changes) {
-        List<Change> blankNodeChanges = new ArrayList<>(changes.stream().filter(Change::isInBlankNode).toList());
-        blankNodeChanges.forEach(changes::remove);
-        List<Change> pointingToBlankNodeChanges =
-            changes.stream().filter(change -> change.getObject().isBlankNode()).toList();
-        pointingToBlankNodeChanges.forEach(changes::remove);
-        Map<Change, List<Change>> blankNodeGraphs = new HashMap<>();
-        for (Change pointingToBlankNodeChange : pointingToBlankNodeChanges) {
-            blankNodeGraphs.put(pointingToBlankNodeChange,
-                getSubGraphChanges(pointingToBlankNodeChange, blankNodeChanges));
-        }
-        return blankNodeGraphs;
-    }
-
-    private List<Change> getSubGraphChanges(Change pointingToBlankNodeChange, List<Change> blankNodeChanges) {
-        URI parentUri = pointingToBlankNodeChange.getUri();
-        List<Change> graphBlankNodes =
-            new ArrayList<>(blankNodeChanges.stream().filter(change -> change.getSubject().equals(parentUri)).toList());
-        blankNodeChanges.removeAll(graphBlankNodes);
-        List<Change> subGraphChanges = new ArrayList<>();
-        for (Change blankNodeChange : graphBlankNodes) {
-            if (blankNodeChange.getObject().isBlankNode()) {
-                subGraphChanges.addAll(getSubGraphChanges(blankNodeChange, blankNodeChanges));
-            }
-        }
-        graphBlankNodes.addAll(subGraphChanges);
-        return graphBlankNodes;
+    private Map<URI, List<User>> resolveApprovedByForVocabularies(URI publicationContextUri) {
+        Map<URI, User> users = new HashMap<>();
+        Map<URI, List<User>> approvedByMap = new HashMap<>();
+        publicationContextDao.findApprovedByOfAffectedContexts(publicationContextUri)
+            .forEach((vocabularyUri, userUris) -> approvedByMap.put(vocabularyUri, userUris.stream()
+                .map(userUri -> users.computeIfAbsent(userUri, userService::findRequired)).toList()));
+        return approvedByMap;
     }
 
     private PublicationContext findRequiredFromProject(ProjectContext projectContext) {
@@ -644,4 +620,7 @@ public class PublicationContextService extends BaseRepositoryService<Publication
             () -> new NotFoundException("Publication context related to project \"%s\" was not found.",
                 projectContext.getUri()));
     }
+
+    private record ClosedCount(long generation, int count) {
+    }
 }
@@ -7,7 +7,8 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import org.apache.jena.rdf.model.Model;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Triple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -45,7 +46,7 @@ public class VocabularyContextService extends BaseRepositoryService<VocabularyCo
         return affectedContexts;
     }
 
-    public Model getVocabularyContent(URI vocabularyContextUri) {
+    public Stream<Triple> getVocabularyContent(URI vocabularyContextUri) {
         return vocabularyContextDao.getVocabularyContent(vocabularyContextUri);
     }
 }
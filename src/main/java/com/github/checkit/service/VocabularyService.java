@@ -9,10 +9,13 @@ import com.github.checkit.model.Vocabulary;
 import com.github.checkit.model.VocabularyContext;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import org.apache.jena.rdf.model.Model;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Triple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -73,6 +76,16 @@ public class VocabularyService extends BaseRepositoryService<Vocabulary> {
             .toList();
     }
 
+    /**
+     * Finds URI identifiers of all vocabularies gestored by specified user.
+     *
+     * @param user user
+     * @return set of URI identifiers of vocabularies
+     */
+    public Set<URI> findAllGestoredVocabularyUris(User user) {
+        return new HashSet<>(vocabularyDao.findAllGestoredVocabularyUris(user.getUri()));
+    }
+
     /**
      * Finds specified vocabulary changed in specified publication context as canonical version or newly created
      * vocabulary.
@@ -102,7 +115,7 @@ public class VocabularyService extends BaseRepositoryService<Vocabulary> {
         return vocabularyDao.getGestoredCount();
     }
 
-    public Model getVocabularyContent(URI vocabularyUri) {
+    public Stream<Triple> getVocabularyContent(URI vocabularyUri) {
         return vocabularyDao.getVocabularyContent(vocabularyUri);
     }
 
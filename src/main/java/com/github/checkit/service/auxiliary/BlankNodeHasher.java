@@ -0,0 +1,160 @@
+package com.github.checkit.service.auxiliary;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.graph.GraphFactory;
+
+/**
+ * Computes hashes of blank nodes that don't depend on their labels.
+ *
+ * <p>Hash of a blank node is computed from statements of the sub-graph it is subject of, including nested blank nodes,
+ * so two blank nodes with isomorphic sub-graphs have the same hash. Statement hashes are combined by addition, which
+ * makes the result independent on the order of statements. Equal hashes don't guarantee isomorphism, so matches should
+ * be confirmed on {@link #subGraphOf(int)}.
+ */
+public class BlankNodeHasher {
+
+    private static final long BLANK_NODE_SEED = 0x2545F4914F6CDD1DL;
+    private static final long CYCLE_HASH = 0x9E3779B97F4A7C15L;
+
+    private final TripleTable statements;
+    private final NodeDictionary dictionary;
+    private final long[] hashes;
+    private final BitSet hashed = new BitSet();
+    private final BitSet inProgress = new BitSet();
+
+    /**
+     * Constructor.
+     *
+     * @param statements statements sorted by subject
+     * @param dictionary dictionary the statements are encoded by
+     */
+    public BlankNodeHasher(TripleTable statements, NodeDictionary dictionary) {
+        this.statements = statements;
+        this.dictionary = dictionary;
+        this.hashes = new long[dictionary.size()];
+    }
+
+    /**
+     * Computes hash of node. Blank nodes are hashed by content of their sub-graphs.
+     *
+     * @param node identifier of IRI, literal or blank node
+     * @return hash
+     */
+    public long hash(int node) {
+        if (hashed.get(node)) {
+            return hashes[node];
+        }
+        long hash;
+        if (dictionary.isBlank(node)) {
+            if (inProgress.get(node)) {
+                return CYCLE_HASH;
+            }
+            inProgress.set(node);
+            hash = BLANK_NODE_SEED;
+            for (int row = statements.firstRowOf(node); row < statements.endRowOf(node); row++) {
+                hash += hashWithoutSubject(row);
+            }
+            hash = mix(hash);
+            inProgress.clear(node);
+        } else {
+            hash = hashOfLabeledNode(dictionary.decode(node));
+        }
+        hashes[node] = hash;
+        hashed.set(node);
+        return hash;
+    }
+
+    /**
+     * Computes hash of statement regardless of its subject.
+     *
+     * @param row row of statement
+     * @return hash
+     */
+    public long hashWithoutSubject(int row) {
+        return combine(hash(statements.getPredicate(row)), hash(statements.getObject(row)));
+    }
+
+    /**
+     * Gathers all statements reachable from specified blank node through blank nodes.
+     *
+     * @param node identifier of blank node
+     * @return sub-graph of blank node
+     */
+    public Graph subGraphOf(int node) {
+        Graph subGraph = GraphFactory.createDefaultGraph();
+        BitSet visited = new BitSet();
+        Deque<Integer> toVisit = new ArrayDeque<>();
+        toVisit.push(node);
+        while (!toVisit.isEmpty()) {
+            int current = toVisit.pop();
+            if (visited.get(current)) {
+                continue;
+            }
+            visited.set(current);
+            for (int row = statements.firstRowOf(current); row < statements.endRowOf(current); row++) {
+                int object = statements.getObject(row);
+                subGraph.add(Triple.create(dictionary.decode(current), dictionary.decode(statements.getPredicate(row)),
+                    dictionary.decode(object)));
+                if (dictionary.isBlank(object)) {
+                    toVisit.push(object);
+                }
+            }
+        }
+        return subGraph;
+    }
+
+    /**
+     * Computes hash of statement from hashes of its parts.
+     *
+     * @param predicate  predicate of statement
+     * @param objectHash hash of object of statement
+     * @return hash
+     */
+    public static long hashOfStatement(Node predicate, long objectHash) {
+        return combine(hashOfLabeledNode(predicate), objectHash);
+    }
+
+    /**
+     * Computes hash of IRI or literal from its lexical representation.
+     *
+     * @param node IRI or literal
+     * @return hash
+     */
+    public static long hashOfLabeledNode(Node node) {
+        if (node.isURI()) {
+            return mix(hashOfString(node.getURI()));
+        }
+        if (node.isLiteral()) {
+            long hash = hashOfString(node.getLiteralLexicalForm());
+            hash = hash * 31 + hashOfString(node.getLiteralLanguage());
+            hash = hash * 31 + hashOfString(node.getLiteralDatatypeURI());
+            return mix(hash);
+        }
+        throw new IllegalArgumentException("Node " + node + " is neither IRI nor literal.");
+    }
+
+    private static long combine(long predicateHash, long objectHash) {
+        return mix(predicateHash * 31 + objectHash);
+    }
+
+    private static long hashOfString(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -3,18 +3,22 @@ package com.github.checkit.service.auxiliary;
 import com.github.checkit.dto.ChangeDto;
 import com.github.checkit.dto.RelationshipDto;
 import com.github.checkit.dto.auxiliary.ChangeState;
+import com.github.checkit.model.Change;
 import com.github.checkit.model.ChangeType;
 import com.github.checkit.model.auxilary.ChangeSubjectType;
+import com.github.checkit.model.auxilary.RelationshipGroup;
 import com.github.checkit.util.TermVocabulary;
 import cz.cvut.kbss.jopa.vocabulary.RDF;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import org.eclipse.rdf4j.model.vocabulary.OWL;
 
@@ -62,6 +66,31 @@ public class ChangeDtoComposer {
         selectCommentableChangeInGroups();
     }
 
+    /**
+     * Composes change DTOs to contain relationships of specified groups found when the publication context was
+     * submitted, so only changes of each group are composed together. Changes of groups with some of their changes
+     * missing among the DTOs are composed with changes in no group as if no groups were stored.
+     *
+     * @param relationshipGroups relationship groups of changes
+     */
+    public void compose(Collection<RelationshipGroup> relationshipGroups) {
+        Map<URI, ChangeDto> changeDtosByUri = new HashMap<>();
+        changeDtos.forEach(changeDto -> changeDtosByUri.put(changeDto.getUri(), changeDto));
+        Set<URI> groupedChangeUris = new HashSet<>();
+        Set<URI> composedChangeUris = new HashSet<>();
+        for (RelationshipGroup relationshipGroup : relationshipGroups) {
+            List<ChangeDto> groupChangeDtos = relationshipGroup.changeUris().stream().map(changeDtosByUri::get)
+                .filter(Objects::nonNull).toList();
+            if (groupChangeDtos.size() == relationshipGroup.changeUris().size()) {
+                groupedChangeUris.addAll(relationshipGroup.changeUris());
+                composeSeparately(groupChangeDtos, composedChangeUris);
+            }
+        }
+        composeSeparately(changeDtos.stream().filter(changeDto -> !groupedChangeUris.contains(changeDto.getUri()))
+            .toList(), composedChangeUris);
+        changeDtos.removeIf(changeDto -> composedChangeUris.contains(changeDto.getUri()));
+    }
+
     /**
      * Gets a set of Changes that are countable to statistics.
      *
@@ -74,6 +103,47 @@ public class ChangeDtoComposer {
         return countableChanges;
     }
 
+    /**
+     * Marks changes countable to statistics. Changes are composed separately for every context they were made in,
+     * rollbacked changes are never countable.
+     *
+     * @param changes changes with assigned URIs
+     * @return relationship groups of changes found by the composition
+     */
+    public static List<RelationshipGroup> resolveCountable(Collection<Change> changes) {
+        Map<URI, List<Change>> changesInContext = new HashMap<>();
+        Set<URI> countableChangeUris = new HashSet<>();
+        List<RelationshipGroup> relationshipGroups = new ArrayList<>();
+        changes.forEach(change ->
+            changesInContext.computeIfAbsent(change.getContext().getUri(), key -> new ArrayList<>()).add(change));
+        for (List<Change> contextChanges : changesInContext.values()) {
+            List<ChangeDto> changeDtos = new ArrayList<>(contextChanges.stream().map(ChangeDto::new).toList());
+            ChangeDtoComposer changeComposer = new ChangeDtoComposer(changeDtos);
+            changeComposer.compose();
+            countableChangeUris.addAll(changeComposer.getCountable());
+            URI vocabularyUri = contextChanges.get(0).getContext().getBasedOnVersion();
+            for (ChangeDto groupChangeDto : changeComposer.getGroupChangeDtosOfRelationships()) {
+                relationshipGroups.add(new RelationshipGroup(vocabularyUri,
+                    groupChangeDto.getObject().getRestriction().getAffectedChanges().stream().map(ChangeDto::getUri)
+                        .collect(Collectors.toSet())));
+            }
+        }
+        changes.forEach(change -> change.setCountable(countableChangeUris.remove(change.getUri())));
+        changes.stream().filter(change -> change.getChangeType().equals(ChangeType.ROLLBACKED))
+            .forEach(change -> change.setCountable(false));
+        return relationshipGroups;
+    }
+
+    private void composeSeparately(List<ChangeDto> changeDtosToCompose, Set<URI> composedChangeUris) {
+        ChangeDtoComposer composer = new ChangeDtoComposer(new ArrayList<>(changeDtosToCompose));
+        composer.compose();
+        for (ChangeDto groupChangeDto : composer.getGroupChangeDtosOfRelationships()) {
+            groupChangeDtosOfRelationships.add(groupChangeDto);
+            groupChangeDto.getObject().getRestriction().getAffectedChanges()
+                .forEach(changeDto -> composedChangeUris.add(changeDto.getUri()));
+        }
+    }
+
     private void selectCommentableChangeInGroups() {
         for (ChangeDto groupChangeDtosOfRelationship : groupChangeDtosOfRelationships) {
             RelationshipDto relationship = groupChangeDtosOfRelationship.getObject().getRestriction();
@@ -0,0 +1,194 @@
+package com.github.checkit.service.auxiliary;
+
+import com.github.checkit.model.Change;
+import com.github.checkit.model.ChangeObject;
+import com.github.checkit.model.ChangeType;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * Reconciles changes found in current version of a project with changes already in its publication context.
+ *
+ * <p>Existing changes that are no longer valid and weren't reviewed are collected as obsolete, so they can be removed
+ * by the caller.
+ */
+public class ChangeReconciler {
+
+    private final Set<Change> currentChanges;
+    private final Set<Change> existingChanges;
+    @Getter
+    private final List<Change> obsoleteChanges = new ArrayList<>();
+
+    /**
+     * Constructor. Both sets are modified during reconciliation.
+     *
+     * @param currentChanges  changes found in current version of project
+     * @param existingChanges changes in publication context
+     */
+    public ChangeReconciler(Set<Change> currentChanges, Set<Change> existingChanges) {
+        this.currentChanges = currentChanges;
+        this.existingChanges = existingChanges;
+    }
+
+    /**
+     * Creates new form of changes of publication context. Existing changes that are still valid are kept instead of
+     * current ones, so their reviews are preserved. Existing changes that are no longer valid are marked as rollbacked
+     * if they were reviewed, otherwise they are collected as obsolete.
+     *
+     * @return set of changes
+     */
+    public Set<Change> reconcile() {
+        if (existingChanges.isEmpty()) {
+            return new HashSet<>(currentChanges);
+        }
+
+        List<Change> newFormOfChanges = resolveBlankNodeChanges(existingChanges, currentChanges);
+
+        Map<TripleKey, Deque<Change>> existingChangesByTriple = new HashMap<>();
+        for (Change existingChange : existingChanges) {
+            existingChangesByTriple.computeIfAbsent(TripleKey.of(existingChange), key -> new ArrayDeque<>())
+                .add(existingChange);
+        }
+        for (Change currentChange : currentChanges) {
+            Deque<Change> sameTripleChanges = existingChangesByTriple.get(TripleKey.of(currentChange));
+            Change existingChange = sameTripleChanges == null ? null : sameTripleChanges.poll();
+            if (existingChange == null) {
+                newFormOfChanges.add(currentChange);
+                continue;
+            }
+
+            if (currentChange.hasSameChangeAs(existingChange)) {
+                existingChange.setLabel(currentChange.getLabel());
+                newFormOfChanges.add(existingChange);
+            } else {
+                newFormOfChanges.add(currentChange);
+                obsoleteChanges.add(existingChange);
+            }
+        }
+
+        for (Deque<Change> rollbackedChanges : existingChangesByTriple.values()) {
+            for (Change rollbackedChange : rollbackedChanges) {
+                if (rollbackedChange.hasBeenReviewed()) {
+                    rollbackedChange.setChangeType(ChangeType.ROLLBACKED);
+                    rollbackedChange.setCountable(false);
+                    newFormOfChanges.add(rollbackedChange);
+                } else {
+                    obsoleteChanges.add(rollbackedChange);
+                }
+            }
+        }
+
+        return new HashSet<>(newFormOfChanges);
+    }
+
+    private List<Change> resolveBlankNodeChanges(Set<Change> existingChanges, Set<Change> currentChanges) {
+        List<Change> newFormOfChanges = new ArrayList<>();
+        Map<Change, List<Change>> existingBlankNodeGraphs = extractBlankNodeGraphs(existingChanges);
+        Map<Change, List<Change>> currentBlankNodeGraphs = extractBlankNodeGraphs(currentChanges);
+
+        Map<BlankNodeGraphKey, Deque<Change>> existingPointingToBlankNodeChangesByGraph = new HashMap<>();
+        existingBlankNodeGraphs.forEach((existingPointingToBlankNodeChange, existingGraphBlankNodes) ->
+            existingPointingToBlankNodeChangesByGraph.computeIfAbsent(
+                BlankNodeGraphKey.of(existingPointingToBlankNodeChange, existingGraphBlankNodes),
+                key -> new ArrayDeque<>()).add(existingPointingToBlankNodeChange));
+
+        for (Change currentPointingToBlankNodeChange : currentBlankNodeGraphs.keySet()) {
+            List<Change> currentGraphBlankNodes = currentBlankNodeGraphs.get(currentPointingToBlankNodeChange);
+            Deque<Change> sameGraphChanges = existingPointingToBlankNodeChangesByGraph.get(
+                BlankNodeGraphKey.of(currentPointingToBlankNodeChange, currentGraphBlankNodes));
+            Change sameExistingPointingToBlankNodeChange = sameGraphChanges == null ? null : sameGraphChanges.poll();
+            if (sameExistingPointingToBlankNodeChange == null) {
+                newFormOfChanges.add(currentPointingToBlankNodeChange);
+                newFormOfChanges.addAll(currentGraphBlankNodes);
+            } else {
+                List<Change> existingGraphBlankNodes =
+                    existingBlankNodeGraphs.remove(sameExistingPointingToBlankNodeChange);
+                MultilingualString label = currentPointingToBlankNodeChange.getLabel();
+                existingGraphBlankNodes.forEach(blankNodeChange -> {
+                    blankNodeChange.setLabel(label);
+                    newFormOfChanges.add(blankNodeChange);
+                });
+                sameExistingPointingToBlankNodeChange.setLabel(label);
+                newFormOfChanges.add(sameExistingPointingToBlankNodeChange);
+            }
+        }
+        //remove unused
+        for (Change existingPointingToBlankNodeChange : existingBlankNodeGraphs.keySet()) {
+            obsoleteChanges.addAll(existingBlankNodeGraphs.get(existingPointingToBlankNodeChange));
+            obsoleteChanges.add(existingPointingToBlankNodeChange);
+        }
+        return newFormOfChanges;
+    }
+
+    private Map<Change, List<Change>> extractBlankNodeGraphs(Set<Change> changes) {
+        Map<URI, List<Change>> blankNodeChangesByParent = new HashMap<>();
+        List<Change> pointingToBlankNodeChanges = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.isInBlankNode()) {
+                blankNodeChangesByParent.computeIfAbsent(change.getSubject(), parentUri -> new ArrayList<>())
+                    .add(change);
+            } else if (change.getObject().isBlankNode()) {
+                pointingToBlankNodeChanges.add(change);
+            }
+        }
+        changes.removeIf(change -> change.isInBlankNode() || change.getObject().isBlankNode());
+        Map<Change, List<Change>> blankNodeGraphs = new HashMap<>();
+        for (Change pointingToBlankNodeChange : pointingToBlankNodeChanges) {
+            blankNodeGraphs.put(pointingToBlankNodeChange,
+                getSubGraphChanges(pointingToBlankNodeChange, blankNodeChangesByParent));
+        }
+        return blankNodeGraphs;
+    }
+
+    private List<Change> getSubGraphChanges(Change pointingToBlankNodeChange,
+                                            Map<URI, List<Change>> blankNodeChangesByParent) {
+        List<Change> subGraphChanges = new ArrayList<>();
+        Deque<Change> parents = new ArrayDeque<>();
+        parents.push(pointingToBlankNodeChange);
+        while (!parents.isEmpty()) {
+            List<Change> children = blankNodeChangesByParent.remove(parents.pop().getUri());
+            if (children == null) {
+                continue;
+            }
+            for (Change child : children) {
+                subGraphChanges.add(child);
+                if (child.getObject().isBlankNode()) {
+                    parents.push(child);
+                }
+            }
+        }
+        return subGraphChanges;
+    }
+
+    /**
+     * Key of the triple a change is based on. Changes have the same key if they have the same triple according to
+     * {@link Change#hasSameTripleAs(Change)}, subject of change in blank node is therefore left out.
+     */
+    private record TripleKey(URI subject, URI predicate, ChangeObject object, ChangeType changeType) {
+        static TripleKey of(Change change) {
+            URI subject = change.isInBlankNode() ? null : change.getSubject();
+            return new TripleKey(subject, change.getPredicate(), change.getObject(), change.getChangeType());
+        }
+    }
+
+    /**
+     * Signature of a blank node graph consisting of the change pointing to the blank node and multiset of triples of
+     * all changes in the blank node graph. Blank node graphs have the same signature if they are isomorphic.
+     */
+    private record BlankNodeGraphKey(TripleKey pointingToBlankNodeChange, Map<TripleKey, Integer> blankNodeChanges) {
+        static BlankNodeGraphKey of(Change pointingToBlankNodeChange, List<Change> graphBlankNodes) {
+            Map<TripleKey, Integer> blankNodeChanges = new HashMap<>();
+            graphBlankNodes.forEach(change -> blankNodeChanges.merge(TripleKey.of(change), 1, Integer::sum));
+            return new BlankNodeGraphKey(TripleKey.of(pointingToBlankNodeChange), blankNodeChanges);
+        }
+    }
+}
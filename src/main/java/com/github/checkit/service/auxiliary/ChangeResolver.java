@@ -1,61 +1,64 @@
 package com.github.checkit.service.auxiliary;
 
 import com.github.checkit.dao.ChangeDao;
-import com.github.checkit.dao.ProjectContextDao;
 import com.github.checkit.exception.UnexpectedRdfObjectException;
-import com.github.checkit.exception.WrongChangeTypeException;
 import com.github.checkit.model.Change;
 import com.github.checkit.model.ChangeObject;
 import com.github.checkit.model.ChangeType;
 import com.github.checkit.model.ProjectContext;
 import com.github.checkit.model.auxilary.AbstractChangeableContext;
 import com.github.checkit.model.auxilary.ChangeSubjectType;
+import com.github.checkit.service.LabelService;
+import com.github.checkit.service.auxiliary.GraphDelta.SubjectDescription;
 import cz.cvut.kbss.jopa.model.MultilingualString;
-import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.OWL;
-import cz.cvut.kbss.jopa.vocabulary.RDF;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import lombok.Getter;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 import org.apache.jena.datatypes.xsd.impl.RDFLangString;
-import org.apache.jena.rdf.model.Literal;
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.ModelFactory;
-import org.apache.jena.rdf.model.Property;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.rdf.model.Statement;
-import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
 
+/**
+ * Resolves changes from differences gathered in {@link GraphDelta}.
+ *
+ * <p>All phases work on statements encoded in the delta and only remember which rows are changed. {@link Change}
+ * objects are created at the end by {@link #getChanges()}.
+ */
 public class ChangeResolver {
 
-    private final Model canonicalGraph;
-    private final Model draftGraph;
+    private static final int NO_ROW = -1;
+
+    private final GraphDelta delta;
+    private final NodeDictionary dictionary;
     private final AbstractChangeableContext draftContext;
     private final ChangeDao changeDao;
-    private final ProjectContextDao projectContextDao;
+    private final LabelService labelService;
     private final ProjectContext project;
 
-    private HashMap<Resource, Model> canonicalSubGraphs;
-    private HashMap<Resource, Model> draftSubGraphs;
-    private HashMap<Resource, List<Statement>> canonicalTopLevelSubjectsSubGraphs;
-    private HashMap<Resource, List<Statement>> draftTopLevelSubjectsSubGraphs;
-    @Getter
-    private final List<Change> changes = new ArrayList<>();
+    private Map<URI, MultilingualString> externalLabels;
+    private final List<ResolvedChange> resolvedChanges = new ArrayList<>();
+    private List<Change> changes;
 
     /**
      * Constructor.
      */
-    public ChangeResolver(Model canonicalGraph, Model draftGraph, AbstractChangeableContext draftContext,
-                          ProjectContext project, ProjectContextDao projectContextDao, ChangeDao changeDao) {
-        this.canonicalGraph = canonicalGraph;
-        this.draftGraph = draftGraph;
+    public ChangeResolver(GraphDelta delta, AbstractChangeableContext draftContext, ProjectContext project,
+                          LabelService labelService, ChangeDao changeDao) {
+        this.delta = delta;
+        this.dictionary = delta.getDictionary();
         this.draftContext = draftContext;
         this.project = project;
-        this.projectContextDao = projectContextDao;
+        this.labelService = labelService;
         this.changeDao = changeDao;
     }
 
@@ -64,38 +67,29 @@ public class ChangeResolver {
      * to canonical version.
      */
     public void findChangesInStatementsWithoutBlankNode() {
-        HashMap<Resource, ArrayList<Statement>> newStatements =
-            getChangedStatementsWithoutBlankNodes(canonicalGraph, draftGraph);
-        HashMap<Resource, ArrayList<Statement>> removedStatements =
-            getChangedStatementsWithoutBlankNodes(draftGraph, canonicalGraph);
-
-        for (Resource subject : removedStatements.keySet()) {
-            MultilingualString label = fetchChangeLabel(subject, canonicalGraph);
-            for (Statement statement : removedStatements.get(subject)) {
-                ChangeType changeType = resolveChangeType(newStatements, statement);
-                Change change = createChangeFromStatement(changeType, label,
-                    fetchSubjectType(statement.getSubject(), canonicalGraph), statement);
-                if (changeType == ChangeType.MODIFIED) {
-                    Statement modifiedStatement = resolveModifiedStatement(statement, newStatements);
-                    change.setNewObject(resolveObject(modifiedStatement.getObject()));
-                    newStatements.get(subject).remove(modifiedStatement);
-                }
-                changes.add(change);
-            }
+        TripleTable removedStatements = delta.getRemovedStatements();
+        TripleTable newStatements = delta.getNewStatements();
+        Map<PairingKey, Deque<Integer>> modificationCandidates = new HashMap<>();
+        for (int row = 0; row < newStatements.size(); row++) {
+            modificationCandidates.computeIfAbsent(pairingKeyOf(newStatements, row), key -> new ArrayDeque<>())
+                .add(row);
         }
-
-        for (Resource subject : newStatements.keySet()) {
-            ArrayList<Statement> statements = newStatements.get(subject);
-            if (statements.isEmpty()) {
-                continue;
-            }
-            MultilingualString label = fetchChangeLabel(subject, draftGraph);
-            for (Statement statement : statements) {
-                Change change = createChangeFromStatement(ChangeType.CREATED, label,
-                    fetchSubjectType(statement.getSubject(), draftGraph), statement);
-                changes.add(change);
+        BitSet modifiedRows = new BitSet();
+        for (int row = 0; row < removedStatements.size(); row++) {
+            Deque<Integer> candidates = modificationCandidates.get(pairingKeyOf(removedStatements, row));
+            Integer modifiedRow = candidates == null ? null : candidates.poll();
+            if (modifiedRow == null) {
+                resolvedChanges.add(new ResolvedChange(ChangeType.REMOVED, removedStatements, row, NO_ROW, NO_ROW));
+            } else {
+                resolvedChanges.add(
+                    new ResolvedChange(ChangeType.MODIFIED, removedStatements, row, modifiedRow, NO_ROW));
+                modifiedRows.set(modifiedRow);
             }
         }
+        for (int row = modifiedRows.nextClearBit(0); row < newStatements.size();
+             row = modifiedRows.nextClearBit(row + 1)) {
+            resolvedChanges.add(new ResolvedChange(ChangeType.CREATED, newStatements, row, NO_ROW, NO_ROW));
+        }
     }
 
     /**
@@ -103,284 +97,226 @@ public class ChangeResolver {
      * position and changes of these blank nodes in comparison to canonical version.
      */
     public void findChangesInSubGraphs() {
-        canonicalSubGraphs = getSubGraphs(canonicalGraph);
-        draftSubGraphs = getSubGraphs(draftGraph);
-        canonicalTopLevelSubjectsSubGraphs = getTopLevelSubjectsSubGraphs(canonicalGraph);
-        draftTopLevelSubjectsSubGraphs = getTopLevelSubjectsSubGraphs(draftGraph);
-        removeIsomorphicSubGraphs();
-
-        getChangesFromBlankNodeStatements();
+        BitSet canonicalMatchedRows = new BitSet();
+        BitSet draftMatchedRows = new BitSet();
+        matchIsomorphicSubGraphs(canonicalMatchedRows, draftMatchedRows);
+        addChangesOfSubGraphs(ChangeType.CREATED, delta.getDraftBlankNodeStatements(), draftMatchedRows);
+        addChangesOfSubGraphs(ChangeType.REMOVED, delta.getCanonicalBlankNodeStatements(), canonicalMatchedRows);
     }
 
-    private void removeIsomorphicSubGraphs() {
-        //find isomorphic sub-graphs
-        for (Resource subject : canonicalTopLevelSubjectsSubGraphs.keySet()) {
-            if (!draftTopLevelSubjectsSubGraphs.containsKey(subject)) {
-                continue;
-            }
-            List<Statement> canonicalSubjectSubGraphs = canonicalTopLevelSubjectsSubGraphs.get(subject);
-            List<Statement> draftSubjectSubGraphs = draftTopLevelSubjectsSubGraphs.get(subject);
-            List<Statement> canonicalSubjectStatementsToDelete = new ArrayList<>();
-            List<Statement> draftSubjectStatementsToDelete = new ArrayList<>();
+    /**
+     * Gets changes found by the resolver. Changes are created on the first call.
+     *
+     * @return list of changes
+     */
+    public List<Change> getChanges() {
+        if (changes == null) {
+            changes = createChanges();
+        }
+        return changes;
+    }
 
-            for (Statement canonicalStatement : canonicalSubjectSubGraphs) {
-                Resource canoicalResource = canonicalStatement.getObject().asResource();
-                if (!canonicalSubGraphs.containsKey(canoicalResource)) {
-                    continue;
+    /**
+     * Pairs statements of the same subject and predicate whose blank node objects have isomorphic sub-graphs, nested
+     * blank nodes included. Candidates are looked up by hash of the statement and the isomorphism is confirmed only
+     * when several candidates share the hash.
+     */
+    private void matchIsomorphicSubGraphs(BitSet canonicalMatchedRows, BitSet draftMatchedRows) {
+        TripleTable canonical = delta.getCanonicalBlankNodeStatements();
+        TripleTable draft = delta.getDraftBlankNodeStatements();
+        BlankNodeHasher canonicalHasher = new BlankNodeHasher(canonical, dictionary);
+        BlankNodeHasher draftHasher = new BlankNodeHasher(draft, dictionary);
+        int row = 0;
+        while (row < canonical.size()) {
+            int subject = canonical.getSubject(row);
+            int end = canonical.endRowOf(subject);
+            if (!dictionary.isBlank(subject)) {
+                Map<Long, List<Integer>> draftRowsByHash = new HashMap<>();
+                for (int draftRow = draft.firstRowOf(subject); draftRow < draft.endRowOf(subject); draftRow++) {
+                    draftRowsByHash.computeIfAbsent(draftHasher.hashWithoutSubject(draftRow),
+                        hash -> new ArrayList<>()).add(draftRow);
                 }
-                Model canonicalSubGraph = canonicalSubGraphs.get(canoicalResource);
-                for (Statement draftStatement : draftSubjectSubGraphs) {
-                    Resource draftObject = draftStatement.getObject().asResource();
-                    if (!draftSubjectStatementsToDelete.contains(draftStatement) && draftSubGraphs.containsKey(
-                        draftObject) && canonicalSubGraph.isIsomorphicWith(draftSubGraphs.get(draftObject))) {
-                        canonicalSubjectStatementsToDelete.add(canonicalStatement);
-                        draftSubjectStatementsToDelete.add(draftStatement);
-                        removeSubGraphRecursively(canonicalSubGraphs, canoicalResource);
-                        removeSubGraphRecursively(draftSubGraphs, draftObject);
-                        break;
+                for (int canonicalRow = row; canonicalRow < end && !draftRowsByHash.isEmpty(); canonicalRow++) {
+                    long hash = canonicalHasher.hashWithoutSubject(canonicalRow);
+                    List<Integer> candidates = draftRowsByHash.get(hash);
+                    if (candidates == null) {
+                        continue;
+                    }
+                    int draftRow = candidates.size() == 1 ? candidates.get(0) : findIsomorphicCandidate(
+                        canonical.getPredicate(canonicalRow),
+                        canonicalHasher.subGraphOf(canonical.getObject(canonicalRow)), candidates, draftHasher);
+                    if (draftRow == NO_ROW) {
+                        continue;
+                    }
+                    canonicalMatchedRows.set(canonicalRow);
+                    draftMatchedRows.set(draftRow);
+                    candidates.remove(Integer.valueOf(draftRow));
+                    if (candidates.isEmpty()) {
+                        draftRowsByHash.remove(hash);
                     }
                 }
             }
-            //remove isomorphic sub graphs
-            canonicalSubjectSubGraphs.removeAll(canonicalSubjectStatementsToDelete);
-            draftSubjectSubGraphs.removeAll(draftSubjectStatementsToDelete);
-            canonicalTopLevelSubjectsSubGraphs.put(subject, canonicalSubjectSubGraphs);
-            draftTopLevelSubjectsSubGraphs.put(subject, draftSubjectSubGraphs);
-        }
-
-        //remove subjects with no sub-graphs
-        List<Resource> subjectsToRemove = canonicalTopLevelSubjectsSubGraphs.keySet().stream()
-            .filter(s -> canonicalTopLevelSubjectsSubGraphs.get(s).isEmpty()).toList();
-        for (Resource subject : subjectsToRemove) {
-            canonicalTopLevelSubjectsSubGraphs.remove(subject);
-        }
-        subjectsToRemove = draftTopLevelSubjectsSubGraphs.keySet().stream()
-            .filter(s -> draftTopLevelSubjectsSubGraphs.get(s).isEmpty()).toList();
-        for (Resource subject : subjectsToRemove) {
-            draftTopLevelSubjectsSubGraphs.remove(subject);
-        }
-    }
-
-    private void removeSubGraphRecursively(HashMap<Resource, Model> subGraphs, Resource subGraphId) {
-        Model removedSubGraph = subGraphs.remove(subGraphId);
-        StmtIterator stmtIterator = removedSubGraph.listStatements();
-        while (stmtIterator.hasNext()) {
-            RDFNode object = stmtIterator.nextStatement().getObject();
-            if (object.asNode().isBlank()) {
-                removeSubGraphRecursively(subGraphs, object.asResource());
-            }
+            row = end;
         }
     }
 
-    private void getChangesFromBlankNodeStatements() {
-        for (Resource subject : draftTopLevelSubjectsSubGraphs.keySet()) {
-            MultilingualString label = fetchChangeLabel(subject, draftGraph);
-            for (Statement statement : draftTopLevelSubjectsSubGraphs.get(subject)) {
-                Change change = createChangeFromStatement(ChangeType.CREATED, label,
-                    fetchSubjectType(statement.getSubject(), draftGraph), statement);
-                change.setUri(changeDao.generateEntityUri());
-                changes.add(change);
-                Model subGraph = draftSubGraphs.get(statement.getObject().asResource());
-                findChangesOfSubGraph(subGraph, draftSubGraphs, change);
-            }
-        }
-        for (Resource subject : canonicalTopLevelSubjectsSubGraphs.keySet()) {
-            MultilingualString label = fetchChangeLabel(subject, canonicalGraph);
-            for (Statement statement : canonicalTopLevelSubjectsSubGraphs.get(subject)) {
-                Change change = createChangeFromStatement(ChangeType.REMOVED, label,
-                    fetchSubjectType(statement.getSubject(), canonicalGraph), statement);
-                change.setUri(changeDao.generateEntityUri());
-                changes.add(change);
-                Model subGraph = canonicalSubGraphs.get(statement.getObject().asResource());
-                findChangesOfSubGraph(subGraph, canonicalSubGraphs, change);
+    private int findIsomorphicCandidate(int predicate, Graph canonicalSubGraph, List<Integer> candidates,
+                                        BlankNodeHasher draftHasher) {
+        TripleTable draft = delta.getDraftBlankNodeStatements();
+        for (int draftRow : candidates) {
+            if (draft.getPredicate(draftRow) == predicate
+                && canonicalSubGraph.isIsomorphicWith(draftHasher.subGraphOf(draft.getObject(draftRow)))) {
+                return draftRow;
             }
         }
+        return NO_ROW;
     }
 
-    private void findChangesOfSubGraph(Model subGraph, HashMap<Resource, Model> subGraphs, Change parentChange) {
-        StmtIterator stmtIterator = subGraph.listStatements();
-        while (stmtIterator.hasNext()) {
-            Statement statement = stmtIterator.nextStatement();
-            Change change = new Change(draftContext);
-            change.setChangeType(parentChange.getChangeType());
-            change.setSubjectType(ChangeSubjectType.BLANK_NODE);
-            change.setLabel(parentChange.getLabel());
-            change.setSubject(parentChange.getUri());
-            change.setPredicate(URI.create(statement.getPredicate().getURI()));
-            change.setObject(resolveObject(statement.getObject()));
-            if (statement.getObject().asNode().isBlank()) {
-                change.setUri(changeDao.generateEntityUri());
-                changes.add(change);
-                findChangesOfSubGraph(subGraphs.get(statement.getObject().asResource()), subGraphs, change);
-            } else {
-                changes.add(change);
+    private void addChangesOfSubGraphs(ChangeType changeType, TripleTable statements, BitSet matchedRows) {
+        for (int row = 0; row < statements.size(); row++) {
+            if (!matchedRows.get(row) && !dictionary.isBlank(statements.getSubject(row))) {
+                addChangesOfSubGraph(changeType, statements, row, NO_ROW);
             }
         }
     }
 
-    private Statement resolveModifiedStatement(Statement oldStatement,
-                                               HashMap<Resource, ArrayList<Statement>> newStatements) {
-        Resource subject = oldStatement.getSubject();
-        List<Statement> potentialStatements = newStatements.get(subject).stream()
-            .filter(newStatement -> newStatement.getPredicate().equals(oldStatement.getPredicate())).toList();
-        RDFNode oldObject = oldStatement.getObject();
-        for (Statement potentialStatement : potentialStatements) {
-            RDFNode newObject = potentialStatement.getObject();
-            if (oldObject.isURIResource() && newObject.isURIResource()) {
-                return potentialStatement;
-            }
-            if (oldObject.isLiteral() && newObject.isLiteral() && oldObject.asLiteral().getDatatype()
-                .equals(newObject.asLiteral().getDatatype()) && oldObject.asLiteral().getLanguage()
-                .equals(newObject.asLiteral().getLanguage())) {
-                return potentialStatement;
+    private void addChangesOfSubGraph(ChangeType changeType, TripleTable statements, int row, int parent) {
+        int index = resolvedChanges.size();
+        resolvedChanges.add(new ResolvedChange(changeType, statements, row, NO_ROW, parent));
+        int object = statements.getObject(row);
+        if (dictionary.isBlank(object)) {
+            for (int child = statements.firstRowOf(object); child < statements.endRowOf(object); child++) {
+                addChangesOfSubGraph(changeType, statements, child, index);
             }
         }
-        throw WrongChangeTypeException.create(oldStatement);
     }
 
-    private ChangeType resolveChangeType(HashMap<Resource, ArrayList<Statement>> newSubjectsStatements,
-                                         Statement oldStatement) {
-        Resource subject = oldStatement.getSubject();
-        if (!newSubjectsStatements.containsKey(subject)) {
-            return ChangeType.REMOVED;
-        }
-        ArrayList<Statement> newStatements = newSubjectsStatements.get(subject);
-        for (Statement newStatement : newStatements) {
-            if (!newStatement.getPredicate().equals(oldStatement.getPredicate())) {
-                continue;
+    private List<Change> createChanges() {
+        List<Change> createdChanges = new ArrayList<>(resolvedChanges.size());
+        for (ResolvedChange resolvedChange : resolvedChanges) {
+            TripleTable statements = resolvedChange.statements();
+            int row = resolvedChange.row();
+            Change change = new Change(draftContext);
+            change.setChangeType(resolvedChange.changeType());
+            if (resolvedChange.parent() == NO_ROW) {
+                Node subject = dictionary.decode(statements.getSubject(row));
+                SubjectDescription description = resolvedChange.changeType() == ChangeType.CREATED
+                    ? delta.getDraftSubjects().get(subject) : delta.getCanonicalSubjects().get(subject);
+                change.setSubjectType(fetchSubjectType(description));
+                change.setLabel(fetchChangeLabel(subject, description));
+                change.setSubject(URI.create(subject.getURI()));
+            } else {
+                Change parentChange = createdChanges.get(resolvedChange.parent());
+                change.setSubjectType(ChangeSubjectType.BLANK_NODE);
+                change.setLabel(parentChange.getLabel());
+                change.setSubject(parentChange.getUri());
             }
-            RDFNode newObject = newStatement.getObject();
-            RDFNode oldObject = oldStatement.getObject();
-            if (oldObject.isURIResource()) {
-                if (newObject.isURIResource()) {
-                    return ChangeType.MODIFIED;
-                }
-                continue;
+            change.setPredicate(URI.create(dictionary.decode(statements.getPredicate(row)).getURI()));
+            Node object = dictionary.decode(statements.getObject(row));
+            change.setObject(resolveObject(object));
+            if (resolvedChange.newObjectRow() != NO_ROW) {
+                int newObject = delta.getNewStatements().getObject(resolvedChange.newObjectRow());
+                change.setNewObject(resolveObject(dictionary.decode(newObject)));
             }
-            if (oldObject.isLiteral() && newObject.isLiteral() && oldObject.asLiteral().getDatatype()
-                .equals(newObject.asLiteral().getDatatype()) && oldObject.asLiteral().getLanguage()
-                .equals(newObject.asLiteral().getLanguage())) {
-                return ChangeType.MODIFIED;
+            if (object.isBlank()) {
+                change.setUri(changeDao.generateEntityUri());
             }
+            createdChanges.add(change);
         }
-        return ChangeType.REMOVED;
-    }
-
-    private Change createChangeFromStatement(ChangeType changeType, MultilingualString label,
-                                             ChangeSubjectType changeSubjectType, Statement statement) {
-
-        Change change = new Change(draftContext);
-        change.setChangeType(changeType);
-        change.setSubjectType(changeSubjectType);
-        change.setLabel(label);
-        change.setSubject(URI.create(statement.getSubject().getURI()));
-        change.setPredicate(URI.create(statement.getPredicate().getURI()));
-        change.setObject(resolveObject(statement.getObject()));
-        return change;
+        return createdChanges;
     }
 
-    private ChangeObject resolveObject(RDFNode object) {
-        if (object.isURIResource()) {
-            return new ChangeObject(object.asResource().getURI(), null, null);
+    private ChangeObject resolveObject(Node object) {
+        if (object.isURI()) {
+            return new ChangeObject(object.getURI(), null, null);
         }
         if (object.isLiteral()) {
-            Literal literal = object.asLiteral();
             URI type = null;
             String language = null;
-            if (!literal.getDatatype().equals(RDFLangString.rdfLangString)) {
-                type = URI.create(literal.getDatatypeURI());
+            if (!object.getLiteralDatatype().equals(RDFLangString.rdfLangString)) {
+                type = URI.create(object.getLiteralDatatypeURI());
             }
-            if (!literal.getLanguage().isEmpty()) {
-                language = literal.getLanguage();
+            if (!object.getLiteralLanguage().isEmpty()) {
+                language = object.getLiteralLanguage();
             }
-            return new ChangeObject(literal.getString(), type, language);
+            return new ChangeObject(object.getLiteralLexicalForm(), type, language);
         }
-        if (object.asNode().isBlank()) {
+        if (object.isBlank()) {
             return new ChangeObject();
         }
         throw new UnexpectedRdfObjectException();
     }
 
-    private MultilingualString fetchChangeLabel(Resource subject, Model graph) {
+    private MultilingualString fetchChangeLabel(Node subject, SubjectDescription description) {
         MultilingualString multilingualString = new MultilingualString();
-        StmtIterator labelStatementIterator = subject.listProperties(graph.getProperty(SKOS.PREF_LABEL));
-        if (!labelStatementIterator.hasNext()) {
-            labelStatementIterator = subject.listProperties(graph.getProperty(DC.Terms.TITLE));
-        }
-        if (labelStatementIterator.hasNext()) {
-            do {
-                Statement statement = labelStatementIterator.nextStatement();
-                Literal literal = statement.getObject().asLiteral();
-                multilingualString.set(literal.getLanguage(), literal.getString());
-            } while (labelStatementIterator.hasNext());
-        } else {
-            multilingualString = projectContextDao.getPrefLabelOfIRI(project.getUri(), URI.create(subject.getURI()));
-            if (multilingualString.isEmpty()) {
-                multilingualString = projectContextDao.getPrefLabelOfIRI(URI.create(subject.getURI()));
+        if (hasLabel(description)) {
+            for (Node literal : description.getLabels()) {
+                multilingualString.set(literal.getLiteralLanguage(), literal.getLiteralLexicalForm());
             }
+            return multilingualString;
         }
-        return multilingualString;
+        if (externalLabels == null) {
+            fetchExternalLabels();
+        }
+        return externalLabels.getOrDefault(URI.create(subject.getURI()), multilingualString);
+    }
+
+    /**
+     * Fetches at once labels of all subjects with change that are not labeled in their graph.
+     */
+    private void fetchExternalLabels() {
+        Set<URI> unlabeledSubjects = new HashSet<>();
+        Stream.of(delta.getCanonicalSubjects(), delta.getDraftSubjects()).forEach(subjects ->
+            subjects.forEach((subject, description) -> {
+                if (!hasLabel(description)) {
+                    unlabeledSubjects.add(URI.create(subject.getURI()));
+                }
+            }));
+        externalLabels = labelService.getLabels(project.getUri(), unlabeledSubjects);
     }
 
-    private ChangeSubjectType fetchSubjectType(Resource subject, Model graph) {
-        Property type = graph.getProperty(RDF.TYPE);
-        List<String> object =
-            subject.listProperties(type).toList().stream().map(stm -> stm.getObject().asResource().getURI()).toList();
-        if (object.contains(SKOS.CONCEPT)) {
+    private boolean hasLabel(SubjectDescription description) {
+        return description != null && !description.getLabels().isEmpty();
+    }
+
+    private ChangeSubjectType fetchSubjectType(SubjectDescription description) {
+        if (description == null) {
+            return ChangeSubjectType.UNKNOWN;
+        }
+        if (description.getTypes().contains(SKOS.CONCEPT)) {
             return ChangeSubjectType.TERM;
         }
-        if (object.contains(OWL.ONTOLOGY)) {
+        if (description.getTypes().contains(OWL.ONTOLOGY)) {
             return ChangeSubjectType.VOCABULARY;
         }
         return ChangeSubjectType.UNKNOWN;
     }
 
-    private HashMap<Resource, ArrayList<Statement>> getChangedStatementsWithoutBlankNodes(Model base, Model modified) {
-        HashMap<Resource, ArrayList<Statement>> changedStatements = new HashMap<>();
-        StmtIterator stmtIterator = modified.listStatements();
-        while (stmtIterator.hasNext()) {
-            Statement statement = stmtIterator.nextStatement();
-            if (statement.asTriple().getSubject().isBlank() || statement.asTriple().getObject().isBlank()
-                || base.contains(statement)) {
-                continue;
-            }
-            if (!changedStatements.containsKey(statement.getSubject())) {
-                changedStatements.put(statement.getSubject(), new ArrayList<>());
-            }
-            changedStatements.get(statement.getSubject()).add(statement);
+    private PairingKey pairingKeyOf(TripleTable statements, int row) {
+        int subject = statements.getSubject(row);
+        int predicate = statements.getPredicate(row);
+        Node object = dictionary.decode(statements.getObject(row));
+        if (object.isLiteral()) {
+            return new PairingKey(subject, predicate, true, object.getLiteralDatatypeURI(),
+                object.getLiteralLanguage());
         }
-        return changedStatements;
+        return new PairingKey(subject, predicate, false, null, null);
     }
 
-    private HashMap<Resource, Model> getSubGraphs(Model model) {
-        HashMap<Resource, Model> subGraphs = new HashMap<>();
-        StmtIterator stmtIterator = model.listStatements();
-        while (stmtIterator.hasNext()) {
-            Statement statement = stmtIterator.nextStatement();
-            if (!statement.asTriple().getSubject().isBlank()) {
-                continue;
-            }
-            if (!subGraphs.containsKey(statement.getSubject())) {
-                subGraphs.put(statement.getSubject(), ModelFactory.createDefaultModel());
-            }
-            subGraphs.get(statement.getSubject()).add(statement);
-        }
-        return subGraphs;
+    /**
+     * Key pairing removed statement with new statement it was modified to. Statements can be paired if they have the
+     * same subject and predicate and either both have IRI object, or both have literal object with the same datatype
+     * and language.
+     */
+    private record PairingKey(int subject, int predicate, boolean literal, String datatype, String language) {
     }
 
-    private HashMap<Resource, List<Statement>> getTopLevelSubjectsSubGraphs(Model model) {
-        HashMap<Resource, List<Statement>> subjectsSubGraphs = new HashMap<>();
-        StmtIterator stmtIterator = model.listStatements();
-        while (stmtIterator.hasNext()) {
-            Statement statement = stmtIterator.nextStatement();
-            if (!statement.asTriple().getObject().isBlank() || statement.asTriple().getSubject().isBlank()) {
-                continue;
-            }
-            if (!subjectsSubGraphs.containsKey(statement.getSubject())) {
-                subjectsSubGraphs.put(statement.getSubject(), new ArrayList<>());
-            }
-            subjectsSubGraphs.get(statement.getSubject()).add(statement);
-        }
-        return subjectsSubGraphs;
+    /**
+     * Change found by the resolver, not created yet. It refers to the changed statement by its row, modified
+     * statements refer to row of the new statement as well. Changes of blank node statements refer to change of
+     * statement the blank node is object of.
+     */
+    private record ResolvedChange(ChangeType changeType, TripleTable statements, int row, int newObjectRow,
+                                  int parent) {
     }
 }
@@ -0,0 +1,136 @@
+package com.github.checkit.service.auxiliary;
+
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.graph.GraphFactory;
+
+/**
+ * Differences between canonical and draft graph gathered by {@link GraphDeltaReader}.
+ *
+ * <p>Only the changed statements without blank nodes, statements containing blank nodes and descriptions of subjects
+ * affected by them are held, so the size of delta depends on the size of the changes rather than on the size of
+ * compared graphs. Statements are encoded by dictionary shared by both graphs and held in {@link TripleTable}s sorted
+ * by subject, so the same node has the same identifier in all of them.
+ */
+@Getter
+public class GraphDelta {
+
+    private final NodeDictionary dictionary = new NodeDictionary();
+    private final TripleTable removedStatements = new TripleTable();
+    private final TripleTable newStatements = new TripleTable();
+    private final Map<Node, SubjectDescription> canonicalSubjects = new LinkedHashMap<>();
+    private final Map<Node, SubjectDescription> draftSubjects = new LinkedHashMap<>();
+    private final TripleTable canonicalBlankNodeStatements = new TripleTable();
+    private final TripleTable draftBlankNodeStatements = new TripleTable();
+    private final GraphFingerprint canonicalFingerprint = new GraphFingerprint();
+    private final GraphFingerprint draftFingerprint = new GraphFingerprint();
+
+    /**
+     * Checks whether compared graphs contain the same statements without blank nodes and no statements with blank
+     * nodes.
+     *
+     * @return true if there are no differences to resolve
+     */
+    public boolean isEmpty() {
+        return removedStatements.isEmpty() && newStatements.isEmpty() && canonicalBlankNodeStatements.isEmpty()
+            && draftBlankNodeStatements.isEmpty();
+    }
+
+    /**
+     * Checks whether compared graphs are the same, so there is no need to resolve changes from the delta. Graphs with
+     * changed statements without blank nodes are never the same. Different numbers of statements with blank nodes or
+     * different fingerprints of them rule out the same blank node sub-graphs cheaply, only sub-graphs that can't be
+     * told apart by them are compared for isomorphism.
+     *
+     * @return true if graphs are the same
+     */
+    public boolean isUnchanged() {
+        if (!removedStatements.isEmpty() || !newStatements.isEmpty()) {
+            return false;
+        }
+        if (canonicalBlankNodeStatements.size() != draftBlankNodeStatements.size()) {
+            return false;
+        }
+        if (canonicalBlankNodeStatements.isEmpty()) {
+            return true;
+        }
+        if (canonicalFingerprint.getValue() != draftFingerprint.getValue()) {
+            return false;
+        }
+        return toGraph(canonicalBlankNodeStatements).isIsomorphicWith(toGraph(draftBlankNodeStatements));
+    }
+
+    void addStatement(TripleTable statements, Triple triple) {
+        statements.add(dictionary.encode(triple.getSubject()), dictionary.encode(triple.getPredicate()),
+            dictionary.encode(triple.getObject()));
+    }
+
+    private Graph toGraph(TripleTable statements) {
+        Graph graph = GraphFactory.createDefaultGraph();
+        for (int row = 0; row < statements.size(); row++) {
+            graph.add(Triple.create(dictionary.decode(statements.getSubject(row)),
+                dictionary.decode(statements.getPredicate(row)), dictionary.decode(statements.getObject(row))));
+        }
+        return graph;
+    }
+
+    void sortStatements() {
+        int nodeCount = dictionary.size();
+        removedStatements.sortBySubject(nodeCount);
+        newStatements.sortBySubject(nodeCount);
+        canonicalBlankNodeStatements.sortBySubject(nodeCount);
+        draftBlankNodeStatements.sortBySubject(nodeCount);
+    }
+
+    /**
+     * Description (labels and types) of a subject as it is stated in one of the compared graphs.
+     */
+    @Getter
+    public static class SubjectDescription {
+        private final List<Node> prefLabels = new ArrayList<>();
+        private final List<Node> titles = new ArrayList<>();
+        private final Set<String> types = new HashSet<>();
+
+        /**
+         * Creates description of a subject from all of its statements.
+         *
+         * @param statements statements with the described subject
+         * @return subject description
+         */
+        public static SubjectDescription of(List<Triple> statements) {
+            SubjectDescription description = new SubjectDescription();
+            for (Triple statement : statements) {
+                String predicate = statement.getPredicate().getURI();
+                Node object = statement.getObject();
+                if (predicate.equals(SKOS.PREF_LABEL) && object.isLiteral()) {
+                    description.prefLabels.add(object);
+                } else if (predicate.equals(DC.Terms.TITLE) && object.isLiteral()) {
+                    description.titles.add(object);
+                } else if (predicate.equals(RDF.TYPE) && object.isURI()) {
+                    description.types.add(object.getURI());
+                }
+            }
+            return description;
+        }
+
+        /**
+         * Gets literals labeling the subject. Preferred labels take precedence over titles.
+         *
+         * @return list of literals
+         */
+        public List<Node> getLabels() {
+            return prefLabels.isEmpty() ? titles : prefLabels;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.github.checkit.service.auxiliary;
+
+import com.github.checkit.service.auxiliary.GraphDelta.SubjectDescription;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares canonical and draft graph in a single pass over their statements sorted by subject.
+ *
+ * <p>Both inputs are consumed one subject at a time and only statements that differ (or contain blank node) are kept,
+ * so neither of the compared graphs has to be loaded into memory as a whole. Statements with blank node in subject
+ * position may appear anywhere in the input, other statements must be grouped by subject IRI, as SPARQL
+ * {@code ORDER BY ?s} does. Subjects are expected in the order given by {@link #SUBJECT_ORDER}. Subject found in only
+ * one of the inputs so far is kept until the end of the other input, so subjects the repository orders differently
+ * are still compared correctly, they only take more memory. Subjects out of the expected order are counted and
+ * reported, so a mismatch of orders doesn't go unnoticed.
+ */
+public final class GraphDeltaReader {
+
+    /**
+     * Order of subjects expected by the reader. Blank nodes go first, IRIs are ordered lexically. It should match the
+     * order of the repository, otherwise the reader keeps more subjects in memory.
+     */
+    public static final Comparator<Node> SUBJECT_ORDER = Comparator.comparing((Node node) -> !node.isBlank())
+        .thenComparing(node -> node.isBlank() ? "" : node.getURI());
+
+    private final Logger logger = LoggerFactory.getLogger(GraphDeltaReader.class);
+    private final SubjectGroupIterator canonical;
+    private final SubjectGroupIterator draft;
+    private final GraphDelta delta = new GraphDelta();
+    private final Map<Node, List<Triple>> unmatchedCanonicalGroups = new HashMap<>();
+    private final Map<Node, List<Triple>> unmatchedDraftGroups = new HashMap<>();
+
+    private GraphDeltaReader(Iterator<Triple> canonical, Iterator<Triple> draft) {
+        this.canonical = new SubjectGroupIterator(canonical,
+            triple -> delta.addStatement(delta.getCanonicalBlankNodeStatements(), triple));
+        this.draft = new SubjectGroupIterator(draft,
+            triple -> delta.addStatement(delta.getDraftBlankNodeStatements(), triple));
+    }
+
+    /**
+     * Reads both graphs and gathers differences between them.
+     *
+     * @param canonical statements of canonical graph grouped by subject
+     * @param draft     statements of draft graph grouped by subject
+     * @return differences between graphs
+     */
+    public static GraphDelta read(Iterator<Triple> canonical, Iterator<Triple> draft) {
+        return new GraphDeltaReader(canonical, draft).compareGraphs();
+    }
+
+    /**
+     * Lists statements of in-memory graph in order required by {@link #read(Iterator, Iterator)}.
+     *
+     * @param graph graph
+     * @return iterator over sorted statements
+     */
+    public static Iterator<Triple> subjectSorted(Graph graph) {
+        List<Triple> triples = graph.find().toList();
+        triples.sort(Comparator.comparing(Triple::getSubject, SUBJECT_ORDER));
+        return triples.iterator();
+    }
+
+    private GraphDelta compareGraphs() {
+        canonical.advance();
+        draft.advance();
+        while (canonical.hasGroup() || draft.hasGroup()) {
+            int comparison;
+            if (!canonical.hasGroup()) {
+                comparison = 1;
+            } else if (!draft.hasGroup()) {
+                comparison = -1;
+            } else {
+                comparison = SUBJECT_ORDER.compare(canonical.getSubject(), draft.getSubject());
+            }
+            if (comparison == 0) {
+                compareSubject(canonical.getGroup(), draft.getGroup());
+            } else if (comparison < 0) {
+                matchGroup(canonical, unmatchedCanonicalGroups, unmatchedDraftGroups, true);
+            } else {
+                matchGroup(draft, unmatchedDraftGroups, unmatchedCanonicalGroups, false);
+            }
+            if (comparison <= 0) {
+                canonical.advance();
+            }
+            if (comparison >= 0) {
+                draft.advance();
+            }
+        }
+        if (canonical.getSubjectsOutOfOrder() > 0 || draft.getSubjectsOutOfOrder() > 0) {
+            logger.warn("Subjects of compared graphs are not in expected order ({} canonical and {} draft subjects "
+                    + "out of order), subjects not matched yet had to be kept in memory.",
+                canonical.getSubjectsOutOfOrder(), draft.getSubjectsOutOfOrder());
+        }
+        unmatchedCanonicalGroups.values().forEach(group -> compareSubject(group, List.of()));
+        unmatchedDraftGroups.values().forEach(group -> compareSubject(List.of(), group));
+        delta.sortStatements();
+        delta.getCanonicalFingerprint().addBlankNodeStatements(delta.getCanonicalBlankNodeStatements(),
+            delta.getDictionary());
+        delta.getDraftFingerprint().addBlankNodeStatements(delta.getDraftBlankNodeStatements(), delta.getDictionary());
+        return delta;
+    }
+
+    /**
+     * Compares current group of specified input with group of the same subject read from the other input before,
+     * otherwise keeps it until the group of the same subject is read from the other input. Inputs sorted in the same
+     * order as {@link #SUBJECT_ORDER} only keep groups of subjects which are not in the other input.
+     */
+    private void matchGroup(SubjectGroupIterator input, Map<Node, List<Triple>> unmatchedGroups,
+                            Map<Node, List<Triple>> otherUnmatchedGroups, boolean canonicalInput) {
+        List<Triple> otherGroup = otherUnmatchedGroups.remove(input.getSubject());
+        if (otherGroup == null) {
+            unmatchedGroups.merge(input.getSubject(), input.getGroup(), (group, rest) -> {
+                group.addAll(rest);
+                return group;
+            });
+        } else if (canonicalInput) {
+            compareSubject(input.getGroup(), otherGroup);
+        } else {
+            compareSubject(otherGroup, input.getGroup());
+        }
+    }
+
+    private void compareSubject(List<Triple> canonicalGroup, List<Triple> draftGroup) {
+        boolean hasCanonicalBlankNodes = addBlankNodeStatements(canonicalGroup,
+            delta.getCanonicalBlankNodeStatements());
+        List<Triple> removed = difference(canonicalGroup, draftGroup);
+        removed.forEach(triple -> delta.addStatement(delta.getRemovedStatements(), triple));
+        if (!removed.isEmpty() || hasCanonicalBlankNodes) {
+            Node subject = canonicalGroup.get(0).getSubject();
+            delta.getCanonicalSubjects().put(subject, SubjectDescription.of(canonicalGroup));
+        }
+        boolean hasDraftBlankNodes = addBlankNodeStatements(draftGroup, delta.getDraftBlankNodeStatements());
+        List<Triple> created = difference(draftGroup, canonicalGroup);
+        created.forEach(triple -> delta.addStatement(delta.getNewStatements(), triple));
+        if (!created.isEmpty() || hasDraftBlankNodes) {
+            Node subject = draftGroup.get(0).getSubject();
+            delta.getDraftSubjects().put(subject, SubjectDescription.of(draftGroup));
+        }
+    }
+
+    /**
+     * Finds statements without blank node that are in modified group, but not in base group. Literals are compared by
+     * value the same way in-memory Jena graph does it.
+     */
+    private List<Triple> difference(List<Triple> modified, List<Triple> base) {
+        List<Triple> difference = new ArrayList<>();
+        if (modified.isEmpty()) {
+            return difference;
+        }
+        Map<ObjectKey, List<Node>> baseObjects = new HashMap<>();
+        for (Triple triple : base) {
+            if (!triple.getObject().isBlank()) {
+                baseObjects.computeIfAbsent(ObjectKey.of(triple), key -> new ArrayList<>()).add(triple.getObject());
+            }
+        }
+        Set<Triple> modifiedTriples = new LinkedHashSet<>(modified);
+        for (Triple triple : modifiedTriples) {
+            if (triple.getObject().isBlank()) {
+                continue;
+            }
+            List<Node> candidates = baseObjects.getOrDefault(ObjectKey.of(triple), List.of());
+            if (candidates.stream().noneMatch(candidate -> candidate.sameValueAs(triple.getObject()))) {
+                difference.add(triple);
+            }
+        }
+        return difference;
+    }
+
+    private boolean addBlankNodeStatements(List<Triple> group, TripleTable blankNodeStatements) {
+        boolean added = false;
+        for (Triple triple : group) {
+            if (triple.getObject().isBlank()) {
+                delta.addStatement(blankNodeStatements, triple);
+                added = true;
+            }
+        }
+        return added;
+    }
+
+    private record ObjectKey(Node predicate, Object value) {
+        static ObjectKey of(Triple triple) {
+            return new ObjectKey(triple.getPredicate(), triple.getObject().getIndexingValue());
+        }
+    }
+
+    /**
+     * Groups consecutive statements with the same IRI subject. Statements with blank node subject are not grouped, they
+     * are put to blank node statements right away. Subjects that don't follow the previous one in
+     * {@link #SUBJECT_ORDER} are counted.
+     */
+    private static class SubjectGroupIterator {
+        private final Iterator<Triple> triples;
+        private final Consumer<Triple> blankNodeStatements;
+        private List<Triple> group = new ArrayList<>();
+        private Node subject;
+        private Node lastSubject;
+        private Triple next;
+        private int subjectsOutOfOrder;
+
+        SubjectGroupIterator(Iterator<Triple> triples, Consumer<Triple> blankNodeStatements) {
+            this.triples = triples;
+            this.blankNodeStatements = blankNodeStatements;
+        }
+
+        boolean hasGroup() {
+            return !group.isEmpty();
+        }
+
+        Node getSubject() {
+            return subject;
+        }
+
+        List<Triple> getGroup() {
+            return group;
+        }
+
+        int getSubjectsOutOfOrder() {
+            return subjectsOutOfOrder;
+        }
+
+        void advance() {
+            group = new ArrayList<>();
+            subject = null;
+            if (next == null) {
+                next = nextNonBlankSubjectTriple();
+            }
+            if (next == null) {
+                return;
+            }
+            if (lastSubject != null && SUBJECT_ORDER.compare(lastSubject, next.getSubject()) >= 0) {
+                subjectsOutOfOrder++;
+            }
+            subject = next.getSubject();
+            lastSubject = subject;
+            while (next != null && next.getSubject().equals(subject)) {
+                group.add(next);
+                next = nextNonBlankSubjectTriple();
+            }
+        }
+
+        private Triple nextNonBlankSubjectTriple() {
+            while (triples.hasNext()) {
+                Triple triple = triples.next();
+                if (!triple.getSubject().isBlank()) {
+                    return triple;
+                }
+                blankNodeStatements.accept(triple);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.checkit.service.auxiliary;
+
+import java.util.BitSet;
+import lombok.Getter;
+import org.apache.jena.graph.Node;
+
+/**
+ * Order-independent fingerprint of statements with blank nodes of a graph. Statements without blank nodes are
+ * compared directly by {@link GraphDeltaReader}, so they are not part of the fingerprint.
+ *
+ * <p>Hashes of statements are combined by addition, so the fingerprint doesn't depend on the order of statements.
+ * Blank nodes are labeled canonically by {@link BlankNodeHasher}, which needs whole sub-graph of the blank node, so
+ * statements containing blank nodes are added at once. Graphs with different fingerprints are different, at least in
+ * lexical forms of literals, while graphs with the same fingerprint still have to be compared to be sure they are the
+ * same.
+ */
+@Getter
+public class GraphFingerprint {
+
+    private long value;
+
+    /**
+     * Adds all statements with blank nodes to the fingerprint. Blank nodes that are not in object position of any
+     * statement are taken as roots of their sub-graphs.
+     *
+     * @param blankNodeStatements statements with blank node in subject or object position sorted by subject
+     * @param dictionary          dictionary the statements are encoded by
+     */
+    public void addBlankNodeStatements(TripleTable blankNodeStatements, NodeDictionary dictionary) {
+        BlankNodeHasher hasher = new BlankNodeHasher(blankNodeStatements, dictionary);
+        BitSet objects = new BitSet();
+        for (int row = 0; row < blankNodeStatements.size(); row++) {
+            objects.set(blankNodeStatements.getObject(row));
+        }
+        int row = 0;
+        while (row < blankNodeStatements.size()) {
+            int subject = blankNodeStatements.getSubject(row);
+            int end = blankNodeStatements.endRowOf(subject);
+            if (!dictionary.isBlank(subject)) {
+                Node subjectNode = dictionary.decode(subject);
+                for (int statement = row; statement < end; statement++) {
+                    value += hashOfTriple(subjectNode, hasher.hashWithoutSubject(statement));
+                }
+            } else if (!objects.get(subject)) {
+                value += hasher.hash(subject);
+            }
+            row = end;
+        }
+    }
+
+    private long hashOfTriple(Node subject, long statementHash) {
+        return BlankNodeHasher.hashOfStatement(subject, statementHash);
+    }
+}
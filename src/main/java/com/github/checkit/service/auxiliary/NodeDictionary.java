@@ -0,0 +1,45 @@
+package com.github.checkit.service.auxiliary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.graph.Node;
+
+/**
+ * Assigns consecutive integer identifiers to nodes, so statements can be held as triples of integers in
+ * {@link TripleTable}. Equal nodes always get the same identifier.
+ */
+public class NodeDictionary {
+
+    private final Map<Node, Integer> identifiers = new HashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Gets identifier of node. Node that is not in the dictionary yet is added to it.
+     *
+     * @param node node
+     * @return identifier of node
+     */
+    public int encode(Node node) {
+        Integer identifier = identifiers.get(node);
+        if (identifier == null) {
+            identifier = nodes.size();
+            identifiers.put(node, identifier);
+            nodes.add(node);
+        }
+        return identifier;
+    }
+
+    public Node decode(int identifier) {
+        return nodes.get(identifier);
+    }
+
+    public boolean isBlank(int identifier) {
+        return nodes.get(identifier).isBlank();
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+}
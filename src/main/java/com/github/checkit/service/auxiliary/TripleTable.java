@@ -0,0 +1,118 @@
+package com.github.checkit.service.auxiliary;
+
+import java.util.Arrays;
+
+/**
+ * Statements encoded by {@link NodeDictionary} held in three primitive columns, one row per statement.
+ *
+ * <p>Once all statements are added, the table is sorted by subject with {@link #sortBySubject(int)}. Rows of every
+ * subject then form a continuous range that can be found in constant time. Statements are expected to be distinct.
+ */
+public class TripleTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] subjects = new int[INITIAL_CAPACITY];
+    private int[] predicates = new int[INITIAL_CAPACITY];
+    private int[] objects = new int[INITIAL_CAPACITY];
+    private int size;
+    private int[] subjectOffsets;
+
+    /**
+     * Adds statement to the table. Table has to be sorted again after statements are added.
+     *
+     * @param subject   identifier of subject
+     * @param predicate identifier of predicate
+     * @param object    identifier of object
+     */
+    public void add(int subject, int predicate, int object) {
+        if (size == subjects.length) {
+            int capacity = size * 2;
+            subjects = Arrays.copyOf(subjects, capacity);
+            predicates = Arrays.copyOf(predicates, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        subjects[size] = subject;
+        predicates[size] = predicate;
+        objects[size] = object;
+        size++;
+        subjectOffsets = null;
+    }
+
+    /**
+     * Sorts rows by identifier of subject. Order of rows with the same subject is kept.
+     *
+     * @param nodeCount number of nodes in dictionary the statements are encoded by
+     */
+    public void sortBySubject(int nodeCount) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int row = 0; row < size; row++) {
+            offsets[subjects[row] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        int[] nextRows = Arrays.copyOf(offsets, nodeCount);
+        int[] sortedSubjects = new int[size];
+        int[] sortedPredicates = new int[size];
+        int[] sortedObjects = new int[size];
+        for (int row = 0; row < size; row++) {
+            int sortedRow = nextRows[subjects[row]]++;
+            sortedSubjects[sortedRow] = subjects[row];
+            sortedPredicates[sortedRow] = predicates[row];
+            sortedObjects[sortedRow] = objects[row];
+        }
+        subjects = sortedSubjects;
+        predicates = sortedPredicates;
+        objects = sortedObjects;
+        subjectOffsets = offsets;
+    }
+
+    /**
+     * Gets first row with specified subject. Table has to be sorted.
+     *
+     * @param subject identifier of subject
+     * @return index of first row of the subject
+     */
+    public int firstRowOf(int subject) {
+        checkSorted();
+        return subject < subjectOffsets.length - 1 ? subjectOffsets[subject] : size;
+    }
+
+    /**
+     * Gets row following the last row with specified subject. Table has to be sorted.
+     *
+     * @param subject identifier of subject
+     * @return index of row after the last row of the subject
+     */
+    public int endRowOf(int subject) {
+        checkSorted();
+        return subject < subjectOffsets.length - 1 ? subjectOffsets[subject + 1] : size;
+    }
+
+    public int getSubject(int row) {
+        return subjects[row];
+    }
+
+    public int getPredicate(int row) {
+        return predicates[row];
+    }
+
+    public int getObject(int row) {
+        return objects[row];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void checkSorted() {
+        if (subjectOffsets == null) {
+            throw new IllegalStateException("Statements are not sorted by subject.");
+        }
+    }
+}
@@ -33,6 +33,8 @@ public final class TermVocabulary {
     public static final String s_c_objekt_zmeny = CHANGE_DESCRIPTION_NAMESPACE + "objekt-změny";
     public static final String s_c_komentovatelna_entita = CHANGE_DESCRIPTION_NAMESPACE + "komentovatelná-entita";
     public static final String s_c_notifikace = CHANGE_DESCRIPTION_NAMESPACE + "notifikace";
+    public static final String s_c_statistika_revizi = CHANGE_DESCRIPTION_NAMESPACE + "statistika-revizí";
+    public static final String s_c_skupina_zmen_vztahu = CHANGE_DESCRIPTION_NAMESPACE + "skupina-změn-vztahu";
     public static final String s_p_ma_gestora = CHANGE_DESCRIPTION_NAMESPACE + "má-gestora";
     public static final String s_p_je_gestorem = CHANGE_DESCRIPTION_NAMESPACE + "je-gestorem";
     public static final String s_p_ma_zadatele = CHANGE_DESCRIPTION_NAMESPACE + "má-žadatele";
@@ -54,6 +56,18 @@ public final class TermVocabulary {
         + "je-počitatelná-do-statistiky";
     public static final String s_p_odpovidajici_pull_request = CHANGE_DESCRIPTION_NAMESPACE
         + "odpovídající-pull-request";
+    public static final String s_p_ma_statistiku_revizi = CHANGE_DESCRIPTION_NAMESPACE + "má-statistiku-revizí";
+    public static final String s_p_ma_verzi_revizi = CHANGE_DESCRIPTION_NAMESPACE + "má-verzi-revizí";
+    public static final String s_p_ve_slovniku = CHANGE_DESCRIPTION_NAMESPACE + "ve-slovníku";
+    public static final String s_p_ma_revidujiciho = CHANGE_DESCRIPTION_NAMESPACE + "má-revidujícího";
+    public static final String s_p_ma_pocet_zmen = CHANGE_DESCRIPTION_NAMESPACE + "má-počet-změn";
+    public static final String s_p_ma_pocet_schvalenych_zmen = CHANGE_DESCRIPTION_NAMESPACE
+        + "má-počet-schválených-změn";
+    public static final String s_p_ma_pocet_zamitnutych_zmen = CHANGE_DESCRIPTION_NAMESPACE
+        + "má-počet-zamítnutých-změn";
+    public static final String s_p_ma_skupinu_zmen_vztahu = CHANGE_DESCRIPTION_NAMESPACE + "má-skupinu-změn-vztahu";
+    public static final String s_p_ma_seskupene_vztahy = CHANGE_DESCRIPTION_NAMESPACE + "má-seskupené-vztahy";
+    public static final String s_p_obsahuje_zmenu = CHANGE_DESCRIPTION_NAMESPACE + "obsahuje-změnu";
 
     /**
      * Other terms definition.
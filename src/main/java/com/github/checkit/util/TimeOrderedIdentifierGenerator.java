@@ -0,0 +1,61 @@
+package com.github.checkit.util;
+
+import java.net.URI;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates time-ordered UUIDs (version 7 layout) that are unique without asking the repository.
+ *
+ * <p>The most significant 48 bits hold milliseconds since epoch, the rest is random apart from version and variant
+ * bits. Within the same millisecond the random part of the previous identifier is incremented, so identifiers
+ * generated by one instance are strictly increasing.
+ */
+public final class TimeOrderedIdentifierGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final long RANDOM_BITS_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT_BITS = 0x8000000000000000L;
+
+    private static long lastTimestamp;
+    private static long lastSequence;
+    private static long lastRandom;
+
+    private TimeOrderedIdentifierGenerator() {
+    }
+
+    /**
+     * Generates next identifier.
+     *
+     * @return time-ordered UUID
+     */
+    public static synchronized UUID next() {
+        long timestamp = System.currentTimeMillis();
+        if (timestamp > lastTimestamp) {
+            lastTimestamp = timestamp;
+            lastSequence = RANDOM.nextInt(1 << 12);
+            lastRandom = RANDOM.nextLong() & RANDOM_BITS_MASK;
+        } else {
+            lastRandom = (lastRandom + 1) & RANDOM_BITS_MASK;
+            if (lastRandom == 0) {
+                lastSequence++;
+                if (lastSequence >= 1 << 12) {
+                    lastTimestamp++;
+                    lastSequence = 0;
+                }
+            }
+        }
+        long mostSignificantBits = (lastTimestamp << 16) | 0x7000L | lastSequence;
+        return new UUID(mostSignificantBits, VARIANT_BITS | lastRandom);
+    }
+
+    /**
+     * Generates next URI identifier of an entity of specified type, in the same form JOPA generates them.
+     *
+     * @param typeUri URI of type of entity
+     * @return URI identifier
+     */
+    public static URI nextUri(String typeUri) {
+        return URI.create(typeUri + "/instance-" + next());
+    }
+}
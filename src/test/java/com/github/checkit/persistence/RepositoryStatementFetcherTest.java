@@ -0,0 +1,137 @@
+package com.github.checkit.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.checkit.config.properties.RepositoryConfigProperties;
+import com.github.checkit.dto.RepositoryFetchStatisticsDto;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.ResultSetMgr;
+import org.apache.jena.riot.WebContent;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.impl.IteratingTupleQueryResult;
+import org.eclipse.rdf4j.query.impl.ListBindingSet;
+import org.eclipse.rdf4j.query.resultio.QueryResultIO;
+import org.eclipse.rdf4j.query.resultio.TupleQueryResultFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RepositoryStatementFetcherTest {
+
+    private static final List<String> VARIABLES = List.of("s", "p", "o");
+    private static final Query QUERY = QueryFactory.create("SELECT ?s ?p ?o WHERE { ?s ?p ?o . }");
+
+    private final Model model = ModelFactory.createDefaultModel().read(new StringReader(
+        "@prefix ex: <http://example.com/> . "
+            + "ex:term ex:label \"Term\"@en, \"Pojem\"@cs ; ex:count 3 ; "
+            + "ex:restriction [ ex:on ex:other ; ex:nested [ ex:value \"1\" ] ] ."), null, "TTL");
+    private HttpServer server;
+    private RepositoryStatementFetcher sut;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.start();
+        RepositoryConfigProperties repositoryConfigProperties = new RepositoryConfigProperties();
+        repositoryConfigProperties.setUrl("http://localhost:" + server.getAddress().getPort() + "/repository");
+        sut = new RepositoryStatementFetcher(repositoryConfigProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application/x-binary-rdf-results-table", WebContent.contentTypeResultsThrift,
+        WebContent.contentTypeResultsXML})
+    void fetchStatementsReadsNegotiatedContentType(String contentType) throws IOException {
+        byte[] results = compress(serialize(contentType));
+        server.createContext("/repository", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, results.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(results);
+            }
+        });
+
+        Graph fetched = GraphFactory.createDefaultGraph();
+        try (Stream<Triple> triples = sut.fetchStatements(QUERY)) {
+            triples.forEach(fetched::add);
+        }
+
+        assertTrue(fetched.isIsomorphicWith(model.getGraph()));
+        RepositoryFetchStatisticsDto statistics = sut.getStatistics();
+        assertEquals(1, statistics.getFetches());
+        assertEquals(model.size(), statistics.getStatements());
+        assertEquals(results.length, statistics.getTransferredBytes());
+    }
+
+    private byte[] serialize(String contentType) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (contentType.equals(TupleQueryResultFormat.BINARY.getDefaultMIMEType())) {
+            ValueFactory valueFactory = SimpleValueFactory.getInstance();
+            List<BindingSet> bindingSets = new ArrayList<>();
+            model.getGraph().find().forEach(triple -> bindingSets.add(new ListBindingSet(VARIABLES,
+                toValue(triple.getSubject(), valueFactory), toValue(triple.getPredicate(), valueFactory),
+                toValue(triple.getObject(), valueFactory))));
+            QueryResultIO.writeTuple(new IteratingTupleQueryResult(VARIABLES, bindingSets),
+                TupleQueryResultFormat.BINARY, output);
+        } else {
+            try (QueryExecution queryExecution = QueryExecutionFactory.create(QUERY, model)) {
+                ResultSetMgr.write(output, queryExecution.execSelect(),
+                    contentType.equals(WebContent.contentTypeResultsXML) ? ResultSetLang.RS_XML
+                        : ResultSetLang.RS_Thrift);
+            }
+        }
+        return output.toByteArray();
+    }
+
+    private Value toValue(Node node, ValueFactory valueFactory) {
+        if (node.isURI()) {
+            return valueFactory.createIRI(node.getURI());
+        }
+        if (node.isBlank()) {
+            return valueFactory.createBNode(node.getBlankNodeLabel());
+        }
+        if (!node.getLiteralLanguage().isEmpty()) {
+            return valueFactory.createLiteral(node.getLiteralLexicalForm(), node.getLiteralLanguage());
+        }
+        return valueFactory.createLiteral(node.getLiteralLexicalForm(),
+            valueFactory.createIRI(node.getLiteralDatatypeURI()));
+    }
+
+    private static byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(content);
+        }
+        return output.toByteArray();
+    }
+}
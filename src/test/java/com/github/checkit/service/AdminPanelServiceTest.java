@@ -1,18 +1,27 @@
 package com.github.checkit.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import com.github.checkit.config.properties.RepositoryConfigProperties;
 import com.github.checkit.dto.AdminPanelSummaryDto;
+import com.github.checkit.dto.EntityCacheStatisticsDto;
+import com.github.checkit.dto.LabelCacheStatisticsDto;
+import com.github.checkit.dto.RepositoryFetchStatisticsDto;
 import com.github.checkit.environment.Generator;
 import com.github.checkit.model.User;
 import com.github.checkit.model.Vocabulary;
+import com.github.checkit.persistence.RepositoryStatementFetcher;
 import com.github.checkit.service.auxilary.BaseServiceTestRunner;
+import java.net.URI;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.annotation.DirtiesContext;
 
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -21,8 +30,17 @@ class AdminPanelServiceTest extends BaseServiceTestRunner {
     @Autowired
     private AdminPanelService sut;
 
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private LabelService labelService;
+
     @Autowired
     private RepositoryConfigProperties repositoryConfigProperties;
+
+    @MockBean
+    private RepositoryStatementFetcher repositoryStatementFetcher;
     private User gestor;
     private Vocabulary vocabulary;
 
@@ -53,4 +71,43 @@ class AdminPanelServiceTest extends BaseServiceTestRunner {
         AdminPanelSummaryDto summary = sut.getSummary();
         assertEquals(summary.getVocabularyWithGestorCount(), 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCacheStatisticsCountsLookupsAndEvictions() {
+        vocabularyService.findRequired(vocabulary.getUri());
+        Vocabulary found = vocabularyService.findRequired(vocabulary.getUri());
+        vocabularyService.update(found);
+
+        List<EntityCacheStatisticsDto> statistics = sut.getCacheStatistics();
+        EntityCacheStatisticsDto vocabularyStatistics = statistics.stream()
+            .filter(dto -> dto.getEntityType().equals(Vocabulary.class.getSimpleName())).findFirst().orElseThrow();
+        assertEquals(2, vocabularyStatistics.getHits() + vocabularyStatistics.getMisses());
+        assertTrue(vocabularyStatistics.getHits() >= 1);
+        assertEquals(1, vocabularyStatistics.getEvictions());
+        EntityCacheStatisticsDto userStatistics = statistics.stream()
+            .filter(dto -> dto.getEntityType().equals(User.class.getSimpleName())).findFirst().orElseThrow();
+        assertEquals(1, userStatistics.getEvictions());
+    }
+
+    @Test
+    void getFetchStatisticsReturnsStatisticsOfRepositoryFetches() {
+        RepositoryFetchStatisticsDto fetchStatistics = new RepositoryFetchStatisticsDto(2, 100, 2048, 30, 10);
+        when(repositoryStatementFetcher.getStatistics()).thenReturn(fetchStatistics);
+
+        assertSame(fetchStatistics, sut.getFetchStatistics());
+    }
+
+    @Test
+    void getLabelCacheStatisticsReportsHitRate() {
+        URI projectUri = URI.create("http://example.com/project");
+        labelService.getLabels(projectUri, List.of(vocabulary.getUri()));
+        labelService.getLabels(projectUri, List.of(vocabulary.getUri()));
+
+        LabelCacheStatisticsDto statistics = sut.getLabelCacheStatistics();
+        // the project doesn't exist, so every lookup misses in its scope before the label is looked up anywhere
+        assertEquals(1, statistics.getSize());
+        assertEquals(1, statistics.getHits());
+        assertEquals(3, statistics.getMisses());
+        assertEquals(0.25, statistics.getHitRate(), 1e-9);
+    }
+}
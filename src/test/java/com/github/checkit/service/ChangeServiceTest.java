@@ -1,15 +1,19 @@
 package com.github.checkit.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.checkit.config.properties.RepositoryConfigProperties;
+import com.github.checkit.dao.ChangeDao;
+import com.github.checkit.dao.PublicationContextDao;
 import com.github.checkit.environment.Generator;
 import com.github.checkit.exception.ForbiddenException;
 import com.github.checkit.exception.NotFoundException;
 import com.github.checkit.exception.PublicationContextWasUpdatedException;
 import com.github.checkit.model.Change;
+import com.github.checkit.model.ChangeType;
 import com.github.checkit.model.Comment;
 import com.github.checkit.model.ProjectContext;
 import com.github.checkit.model.PublicationContext;
@@ -17,13 +21,30 @@ import com.github.checkit.model.User;
 import com.github.checkit.model.Vocabulary;
 import com.github.checkit.model.VocabularyContext;
 import com.github.checkit.model.auxilary.AbstractEntity;
+import com.github.checkit.model.auxilary.ReviewStatistics;
 import com.github.checkit.service.auxilary.BaseServiceTestRunner;
+import com.github.checkit.service.auxiliary.GraphDelta;
+import com.github.checkit.service.auxiliary.GraphDeltaReader;
+import com.github.checkit.service.auxiliary.NodeDictionary;
+import com.github.checkit.service.auxiliary.TripleTable;
+import com.github.checkit.util.TermVocabulary;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import java.io.StringReader;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.RDFDataMgr;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +57,12 @@ class ChangeServiceTest extends BaseServiceTestRunner {
     @Autowired
     private ChangeService sut;
 
+    @Autowired
+    private PublicationContextDao publicationContextDao;
+
+    @Autowired
+    private ChangeDao changeDao;
+
     @Autowired
     private RepositoryConfigProperties repositoryConfigProperties;
 
@@ -368,6 +395,270 @@ class ChangeServiceTest extends BaseServiceTestRunner {
         changeUris.forEach(changeUri -> assertTrue(em.find(Change.class, changeUri).isReviewed(gestor)));
     }
 
+    @Test
+    void getChangesFindsModifiedStatement() {
+        Model canonicalGraph = RDFDataMgr.loadModel("doc/Test-datasets/simple.ttl");
+        Model draftGraph = RDFDataMgr.loadModel("doc/Test-datasets/simple-edited.ttl");
+
+        List<Change> changes = sut.getChanges(canonicalGraph, draftGraph, vocabularyContextWithGestor, projectContext);
+
+        assertEquals(1, changes.size());
+        Change change = changes.get(0);
+        assertEquals(ChangeType.MODIFIED, change.getChangeType());
+        assertEquals(URI.create(SKOS.DEFINITION), change.getPredicate());
+        assertEquals("A person at least saw this person.", change.getObject().getValue());
+        assertEquals("A person at least saw this person. - Edited", change.getNewObject().getValue());
+    }
+
+    @Test
+    void getChangesWithDifferentBlankNodeIdsFindsNothing() {
+        Model canonicalGraph = RDFDataMgr.loadModel("doc/Test-datasets/simple_blank.ttl");
+        Model draftGraph = RDFDataMgr.loadModel("doc/Test-datasets/simple_blank-changed-id.ttl");
+
+        assertTrue(sut.getChanges(canonicalGraph, draftGraph, vocabularyContextWithGestor, projectContext).isEmpty());
+    }
+
+    @Test
+    void graphDeltaOfEqualGraphsIsUnchanged() {
+        Model graph = RDFDataMgr.loadModel("doc/Test-datasets/simple_blank.ttl");
+
+        assertTrue(readDelta(graph, RDFDataMgr.loadModel("doc/Test-datasets/simple_blank.ttl")).isUnchanged());
+    }
+
+    @Test
+    void graphDeltaWithRelabeledBlankNodesIsUnchanged() {
+        Model canonicalGraph = RDFDataMgr.loadModel("doc/Test-datasets/simple_blank.ttl");
+        Model draftGraph = RDFDataMgr.loadModel("doc/Test-datasets/simple_blank-changed-id.ttl");
+
+        GraphDelta delta = readDelta(canonicalGraph, draftGraph);
+        assertFalse(delta.isEmpty());
+        assertTrue(delta.isUnchanged());
+    }
+
+    @Test
+    void graphDeltaWithDifferentBlankNodeSubGraphOfSameIrisIsChanged() {
+        String prefix = "@prefix ex: <http://example.com/> . ";
+        Model canonicalGraph = ModelFactory.createDefaultModel().read(new StringReader(prefix
+            + "ex:a ex:p [ ex:q ex:b ] ; ex:r [ ex:q ex:c ] ."), null, "TTL");
+        Model draftGraph = ModelFactory.createDefaultModel().read(new StringReader(prefix
+            + "ex:a ex:p [ ex:q ex:c ] ; ex:r [ ex:q ex:b ] ."), null, "TTL");
+
+        GraphDelta delta = readDelta(canonicalGraph, draftGraph);
+        assertTrue(delta.getRemovedStatements().isEmpty());
+        assertTrue(delta.getNewStatements().isEmpty());
+        assertFalse(delta.isUnchanged());
+    }
+
+    @Test
+    void graphDeltaReaderFindsSameStatementsAsModelComparisonInAnyOrderOfSubjects() {
+        List<String> datasets = List.of("real-world_(361-2000).ttl", "real-world_(361-2000)-edited.ttl",
+            "real-world_(361-2000)-changed-blankNode.ttl", "real-world_(361-2000)-same-blanknode.ttl");
+        for (String canonicalDataset : datasets) {
+            for (String draftDataset : datasets) {
+                Model canonicalGraph = RDFDataMgr.loadModel("doc/Test-datasets/" + canonicalDataset);
+                Model draftGraph = RDFDataMgr.loadModel("doc/Test-datasets/" + draftDataset);
+                for (Comparator<Node> order : List.of(GraphDeltaReader.SUBJECT_ORDER,
+                    GraphDeltaReader.SUBJECT_ORDER.reversed())) {
+                    GraphDelta delta = GraphDeltaReader.read(sorted(canonicalGraph, order), sorted(draftGraph, order));
+                    String pair = canonicalDataset + " -> " + draftDataset;
+                    assertEquals(changedStatementsWithoutBlankNode(draftGraph, canonicalGraph),
+                        decode(delta, delta.getRemovedStatements()), pair);
+                    assertEquals(changedStatementsWithoutBlankNode(canonicalGraph, draftGraph),
+                        decode(delta, delta.getNewStatements()), pair);
+                    assertEquals(statementsWithBlankNode(canonicalGraph),
+                        decode(delta, delta.getCanonicalBlankNodeStatements()), pair);
+                    assertEquals(statementsWithBlankNode(draftGraph),
+                        decode(delta, delta.getDraftBlankNodeStatements()), pair);
+                }
+            }
+        }
+    }
+
+    @Test
+    void getChangesFindsChangedBlankNode() {
+        Model canonicalGraph = RDFDataMgr.loadModel("doc/Test-datasets/simple_blank.ttl");
+        Model draftGraph = RDFDataMgr.loadModel("doc/Test-datasets/simple_blank-changed-blank.ttl");
+
+        List<Change> changes = sut.getChanges(canonicalGraph, draftGraph, vocabularyContextWithGestor, projectContext);
+
+        assertEquals(2, changes.stream().filter(change -> change.getChangeType() == ChangeType.CREATED).count());
+        assertEquals(2, changes.stream().filter(change -> change.getChangeType() == ChangeType.REMOVED).count());
+    }
+
+    @Test
+    void getChangesFindsChangeInNestedBlankNode() {
+        String canonical = "<http://example.org/term> <http://example.org/rel> [ "
+            + "<http://example.org/nested> [ <http://example.org/value> \"1\" ] ] .";
+        String draft = "<http://example.org/term> <http://example.org/rel> [ "
+            + "<http://example.org/nested> [ <http://example.org/value> \"2\" ] ] .";
+        Model canonicalGraph = ModelFactory.createDefaultModel().read(new StringReader(canonical), null, "TTL");
+        Model draftGraph = ModelFactory.createDefaultModel().read(new StringReader(draft), null, "TTL");
+
+        List<Change> changes = sut.getChanges(canonicalGraph, draftGraph, vocabularyContextWithGestor, projectContext);
+
+        assertEquals(3, changes.stream().filter(change -> change.getChangeType() == ChangeType.CREATED).count());
+        assertEquals(3, changes.stream().filter(change -> change.getChangeType() == ChangeType.REMOVED).count());
+    }
+
+    @Test
+    void getChangesFindsBlankNodeMovedToOtherPredicate() {
+        String canonical = "<http://example.org/term> <http://example.org/rel> [ <http://example.org/value> \"1\" ] .";
+        String draft = "<http://example.org/term> <http://example.org/other> [ <http://example.org/value> \"1\" ] .";
+        Model canonicalGraph = ModelFactory.createDefaultModel().read(new StringReader(canonical), null, "TTL");
+        Model draftGraph = ModelFactory.createDefaultModel().read(new StringReader(draft), null, "TTL");
+
+        List<Change> changes = sut.getChanges(canonicalGraph, draftGraph, vocabularyContextWithGestor, projectContext);
+
+        assertEquals(2, changes.stream().filter(change -> change.getChangeType() == ChangeType.CREATED).count());
+        assertEquals(2, changes.stream().filter(change -> change.getChangeType() == ChangeType.REMOVED).count());
+    }
+
+    @Test
+    void getChangesPairsModifiedStatementsByLanguage() {
+        String canonical = "<http://example.org/term> <http://www.w3.org/2004/02/skos/core#definition> "
+            + "\"Definition\"@en, \"Definice\"@cs .";
+        String draft = "<http://example.org/term> <http://www.w3.org/2004/02/skos/core#definition> "
+            + "\"Edited definition\"@en, \"Upravená definice\"@cs .";
+        Model canonicalGraph = ModelFactory.createDefaultModel().read(new StringReader(canonical), null, "TTL");
+        Model draftGraph = ModelFactory.createDefaultModel().read(new StringReader(draft), null, "TTL");
+
+        List<Change> changes = sut.getChanges(canonicalGraph, draftGraph, vocabularyContextWithGestor, projectContext);
+
+        assertEquals(2, changes.size());
+        changes.forEach(change -> {
+            assertEquals(ChangeType.MODIFIED, change.getChangeType());
+            assertEquals(change.getObject().getLanguage(), change.getNewObject().getLanguage());
+        });
+    }
+
+    @Test
+    @WithMockUser("gestor")
+    void reviewsUpdateReviewStatistics() {
+        transactional(() -> publicationContextDao.recomputeReviewStatistics(publicationContext.getUri()));
+
+        sut.approveChange(changeWithGestor.getId(), publicationContext.getModified());
+        ReviewStatistics statistics = publicationContextDao.findReviewStatistics(publicationContext.getUri());
+        assertEquals(2, statistics.getTotalChanges());
+        assertEquals(1, statistics.getApprovedChanges());
+        assertEquals(1, statistics.getApprovedChanges(gestor.getUri(), vocabularyWithGestor.getUri()));
+
+        sut.rejectChange(changeWithGestor.getId(), publicationContext.getModified());
+        statistics = publicationContextDao.findReviewStatistics(publicationContext.getUri());
+        assertEquals(0, statistics.getApprovedChanges());
+        assertEquals(0, statistics.getApprovedChanges(gestor.getUri()));
+        assertEquals(1, statistics.getRejectedChanges(gestor.getUri(), vocabularyWithGestor.getUri()));
+
+        sut.removeChangeReview(changeWithGestor.getId(), publicationContext.getModified());
+        statistics = publicationContextDao.findReviewStatistics(publicationContext.getUri());
+        assertEquals(0, statistics.getRejectedChanges(gestor.getUri()));
+    }
+
+    @Test
+    @WithMockUser("gestor")
+    void reviewsAdjustStatisticsByReviewsTheyChange() {
+        transactional(() -> em.createNativeQuery("INSERT DATA { GRAPH ?pc { ?change ?approvedBy ?user . } }")
+            .setParameter("pc", publicationContext.getUri())
+            .setParameter("change", changeWithGestor.getUri())
+            .setParameter("approvedBy", URI.create(TermVocabulary.s_p_schvaleno))
+            .setParameter("user", user.getUri())
+            .executeUpdate());
+        transactional(() -> publicationContextDao.recomputeReviewStatistics(publicationContext.getUri()));
+
+        sut.approveChanges(List.of(changeWithGestor.getUri()), publicationContext.getModified());
+        sut.approveChanges(List.of(changeWithGestor.getUri()), publicationContext.getModified());
+        ReviewStatistics statistics = publicationContextDao.findReviewStatistics(publicationContext.getUri());
+        assertEquals(1, statistics.getApprovedChanges());
+        assertEquals(1, statistics.getApprovedChanges(user.getUri()));
+        assertEquals(1, statistics.getApprovedChanges(gestor.getUri()));
+
+        sut.rejectSelectedChanges(sut.createSelection(publicationContext.getId(), vocabularyWithGestor.getUri(),
+            null, null, null), publicationContext.getModified());
+        statistics = publicationContextDao.findReviewStatistics(publicationContext.getUri());
+        assertEquals(1, statistics.getApprovedChanges());
+        assertEquals(0, statistics.getApprovedChanges(gestor.getUri()));
+        assertEquals(1, statistics.getRejectedChanges(gestor.getUri(), vocabularyWithGestor.getUri()));
+
+        transactional(() -> publicationContextDao.recomputeReviewStatistics(publicationContext.getUri()));
+        ReviewStatistics recomputed = publicationContextDao.findReviewStatistics(publicationContext.getUri());
+        assertEquals(recomputed.getApprovedChanges(), statistics.getApprovedChanges());
+        assertEquals(recomputed.getApprovedChanges(user.getUri()), statistics.getApprovedChanges(user.getUri()));
+        assertEquals(recomputed.getRejectedChanges(gestor.getUri()), statistics.getRejectedChanges(gestor.getUri()));
+    }
+
+    @Test
+    @WithMockUser("gestor")
+    void approveChangesReportsAllForbiddenChangesAndUpdatesStatistics() {
+        List<URI> changeUris = List.of(changeWithGestor.getUri(), changeWithoutGestor.getUri());
+        ForbiddenException forbiddenException = assertThrowsExactly(ForbiddenException.class,
+            () -> sut.approveChanges(changeUris, publicationContext.getModified()));
+        assertTrue(forbiddenException.getMessage().contains(changeWithoutGestor.getUri().toString()));
+        assertFalse(forbiddenException.getMessage().contains(changeWithGestor.getUri().toString()));
+
+        vocabularyWithoutGestor.addGestor(gestor);
+        transactional(
+            () -> em.merge(vocabularyWithoutGestor, descriptorFactory.vocabularyDescriptor(vocabularyWithoutGestor)));
+        sut.approveChanges(changeUris, publicationContext.getModified());
+        ReviewStatistics statistics = publicationContextDao.findReviewStatistics(publicationContext.getUri());
+        assertEquals(2, statistics.getApprovedChanges());
+        assertEquals(2, statistics.getApprovedChanges(gestor.getUri()));
+    }
+
+    @Test
+    @WithMockUser("gestor")
+    void updateReviewsChangesNothingInOutdatedPublicationContext() {
+        changeDao.updateReviews(publicationContext.getUri(), List.of(changeWithGestor.getUri()),
+            publicationContext.getModified().minusSeconds(500), gestor.getUri(), true, false);
+        em.getEntityManagerFactory().getCache().evictAll();
+        assertFalse(em.find(Change.class, changeWithGestor.getUri()).isApproved(gestor));
+
+        transactional(() -> em.createNativeQuery("DELETE WHERE { ?pc ?updated ?modified . }")
+            .setParameter("pc", publicationContext.getUri())
+            .setParameter("updated", URI.create(TermVocabulary.s_p_ma_datum_a_cas_posledni_modifikace))
+            .executeUpdate());
+        assertThrowsExactly(PublicationContextWasUpdatedException.class,
+            () -> sut.approveChanges(List.of(changeWithGestor.getUri()), publicationContext.getModified()));
+    }
+
+    @Test
+    @WithMockUser("gestor")
+    void approveSelectedChangesApprovesOnlyChangesOfVocabulary() {
+        sut.approveSelectedChanges(sut.createSelection(publicationContext.getId(), vocabularyWithGestor.getUri(),
+            changeWithGestor.getSubject(), ChangeType.CREATED, null), publicationContext.getModified());
+        em.getEntityManagerFactory().getCache().evictAll();
+        assertTrue(em.find(Change.class, changeWithGestor.getUri()).isApproved(gestor));
+        assertFalse(em.find(Change.class, changeWithoutGestor.getUri()).isApproved(gestor));
+
+        assertThrowsExactly(ForbiddenException.class, () -> sut.approveSelectedChanges(
+            sut.createSelection(publicationContext.getId(), vocabularyWithoutGestor.getUri(), null, null, null),
+            publicationContext.getModified()));
+        assertThrowsExactly(PublicationContextWasUpdatedException.class, () -> sut.removeSelectedChangesReview(
+            sut.createSelection(publicationContext.getId(), vocabularyWithGestor.getUri(), null, null, null),
+            publicationContext.getModified().minusSeconds(500)));
+        em.getEntityManagerFactory().getCache().evictAll();
+        assertTrue(em.find(Change.class, changeWithGestor.getUri()).isApproved(gestor));
+    }
+
+    @Test
+    @WithMockUser("gestor")
+    void reviewsIncreaseReviewVersion() {
+        int reviewVersion = publicationContextDao.findVersion(publicationContext.getUri()).get().reviewVersion();
+        sut.approveChange(changeWithGestor.getId(), publicationContext.getModified());
+        assertEquals(reviewVersion + 1,
+            publicationContextDao.findVersion(publicationContext.getUri()).get().reviewVersion());
+    }
+
+    @Test
+    void generateEntityUriGeneratesUniqueIncreasingUris() {
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            uris.add(sut.generateEntityUri());
+        }
+
+        assertEquals(uris.size(), new HashSet<>(uris).size());
+        assertEquals(uris, uris.stream().sorted().toList());
+        uris.forEach(uri -> assertTrue(uri.toString().startsWith(TermVocabulary.s_c_zmena + "/")));
+    }
+
     private void setChangesAsReviewed() {
         vocabularyWithoutGestor.addGestor(gestor);
         changeWithGestor.addApprovedBy(gestor);
@@ -377,4 +668,41 @@ class ChangeServiceTest extends BaseServiceTestRunner {
             em.merge(publicationContext, descriptorFactory.publicationContextDescriptor(publicationContext));
         });
     }
-}
\ No newline at end of file
+
+    private static GraphDelta readDelta(Model canonicalGraph, Model draftGraph) {
+        return GraphDeltaReader.read(GraphDeltaReader.subjectSorted(canonicalGraph.getGraph()),
+            GraphDeltaReader.subjectSorted(draftGraph.getGraph()));
+    }
+
+    private static Iterator<Triple> sorted(Model graph, Comparator<Node> order) {
+        List<Triple> triples = graph.getGraph().find().toList();
+        triples.sort(Comparator.comparing(Triple::getSubject, order));
+        return triples.iterator();
+    }
+
+    /**
+     * Finds statements without blank node of modified graph missing in base graph the way changes were resolved
+     * before {@link GraphDeltaReader}.
+     */
+    private static Set<Triple> changedStatementsWithoutBlankNode(Model base, Model modified) {
+        return modified.listStatements().toList().stream().filter(statement -> !statement.getSubject().isAnon()
+                && !statement.getObject().isAnon() && !base.contains(statement))
+            .map(Statement::asTriple).collect(Collectors.toSet());
+    }
+
+    private static Set<Triple> statementsWithBlankNode(Model graph) {
+        return graph.getGraph().find().toList().stream()
+            .filter(triple -> triple.getSubject().isBlank() || triple.getObject().isBlank())
+            .collect(Collectors.toSet());
+    }
+
+    private static Set<Triple> decode(GraphDelta delta, TripleTable statements) {
+        Set<Triple> triples = new HashSet<>();
+        NodeDictionary dictionary = delta.getDictionary();
+        for (int row = 0; row < statements.size(); row++) {
+            triples.add(Triple.create(dictionary.decode(statements.getSubject(row)),
+                dictionary.decode(statements.getPredicate(row)), dictionary.decode(statements.getObject(row))));
+        }
+        return triples;
+    }
+}
@@ -18,6 +18,7 @@ import com.github.checkit.model.PublicationContext;
 import com.github.checkit.model.User;
 import com.github.checkit.model.Vocabulary;
 import com.github.checkit.model.VocabularyContext;
+import com.github.checkit.model.auxilary.ChangeComments;
 import com.github.checkit.model.auxilary.CommentTag;
 import com.github.checkit.service.auxilary.BaseServiceTestRunner;
 import com.github.checkit.util.TermVocabulary;
@@ -109,6 +110,25 @@ class CommentServiceTest extends BaseServiceTestRunner {
         assertEquals(discussionCommentsCount, 1);
     }
 
+    @Test
+    @WithMockUser
+    void findCommentsOfChanges() {
+        assertTrue(sut.findCommentsOfChanges(List.of(changeWithGestor)).isEmpty());
+
+        transactional(() -> {
+            em.persist(Generator.generateDiscussionComment(gestor, changeWithGestor),
+                descriptorFactory.commentDescriptor());
+            em.persist(Generator.generateDiscussionComment(user, changeWithGestor),
+                descriptorFactory.commentDescriptor());
+            em.persist(Generator.generateRejectionCommentOnChange(gestor, changeWithGestor),
+                descriptorFactory.commentDescriptor());
+        });
+        ChangeComments comments = sut.findCommentsOfChanges(List.of(changeWithGestor)).get(changeWithGestor.getUri());
+        assertEquals(2, comments.discussionCommentsCount());
+        assertEquals(1, comments.finalComments().size());
+        assertEquals(gestor, comments.finalComments().get(0).getAuthor());
+    }
+
     @Test
     @WithMockUser
     void findFinalComment() {
@@ -0,0 +1,67 @@
+package com.github.checkit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.checkit.environment.Generator;
+import com.github.checkit.model.Vocabulary;
+import com.github.checkit.service.auxilary.BaseServiceTestRunner;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LabelServiceTest extends BaseServiceTestRunner {
+
+    private static final URI PROJECT_URI = URI.create("http://example.com/project");
+    private static final URI UNLABELED_URI = URI.create("http://example.com/unlabeled");
+
+    @Autowired
+    private LabelService sut;
+
+    private Vocabulary vocabulary;
+
+    @BeforeEach
+    void setUp() {
+        this.vocabulary = Generator.generateVocabulary();
+        transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+    }
+
+    @Test
+    void getLabelsFindsLabelsOutsideOfProject() {
+        Map<URI, MultilingualString> labels = sut.getLabels(PROJECT_URI, List.of(vocabulary.getUri(), UNLABELED_URI));
+
+        assertEquals(2, labels.size());
+        assertTrue(labels.get(vocabulary.getUri()).getValue().containsValue(vocabulary.getLabel()));
+        assertTrue(labels.get(UNLABELED_URI).isEmpty());
+    }
+
+    @Test
+    void getLabelsAnswersRepeatedLookupFromCache() {
+        sut.getLabels(PROJECT_URI, List.of(vocabulary.getUri(), UNLABELED_URI));
+        LabelService.LabelCacheStatistics before = sut.getStatistics();
+
+        Map<URI, MultilingualString> labels = sut.getLabels(PROJECT_URI, List.of(vocabulary.getUri(), UNLABELED_URI));
+
+        LabelService.LabelCacheStatistics after = sut.getStatistics();
+        assertEquals(before.hits() + 1, after.hits());
+        assertTrue(labels.get(vocabulary.getUri()).getValue().containsValue(vocabulary.getLabel()));
+    }
+
+    @Test
+    void getLabelsDoesNotCacheMissingLabels() {
+        Vocabulary otherVocabulary = Generator.generateVocabulary();
+        assertTrue(sut.getLabels(PROJECT_URI, List.of(otherVocabulary.getUri())).get(otherVocabulary.getUri())
+            .isEmpty());
+
+        transactional(() -> em.persist(otherVocabulary, descriptorFactory.vocabularyDescriptor(otherVocabulary)));
+
+        Map<URI, MultilingualString> labels = sut.getLabels(PROJECT_URI, List.of(otherVocabulary.getUri()));
+        assertTrue(labels.get(otherVocabulary.getUri()).getValue().containsValue(otherVocabulary.getLabel()));
+    }
+}
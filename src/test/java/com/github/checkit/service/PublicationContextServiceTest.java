@@ -1,40 +1,69 @@
 package com.github.checkit.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 
 import com.github.checkit.config.properties.ApplicationConfigProperties;
 import com.github.checkit.config.properties.RepositoryConfigProperties;
+import com.github.checkit.dao.PublicationContextDao;
 import com.github.checkit.dto.ChangeDto;
 import com.github.checkit.dto.CommentDto;
 import com.github.checkit.dto.ContextChangesDto;
+import com.github.checkit.dto.CursorPageDto;
 import com.github.checkit.dto.PublicationContextDetailDto;
 import com.github.checkit.dto.PublicationContextDto;
 import com.github.checkit.dto.auxiliary.PublicationContextState;
 import com.github.checkit.environment.Generator;
 import com.github.checkit.exception.AlreadyExistsException;
 import com.github.checkit.exception.ForbiddenException;
+import com.github.checkit.exception.InvalidPageCursorException;
 import com.github.checkit.exception.NotApprovableException;
 import com.github.checkit.exception.NotFoundException;
 import com.github.checkit.exception.RejectionCommentTooShortException;
 import com.github.checkit.model.Change;
+import com.github.checkit.model.ChangeObject;
+import com.github.checkit.model.ChangeType;
 import com.github.checkit.model.Comment;
 import com.github.checkit.model.ProjectContext;
 import com.github.checkit.model.PublicationContext;
 import com.github.checkit.model.User;
 import com.github.checkit.model.Vocabulary;
 import com.github.checkit.model.VocabularyContext;
+import com.github.checkit.model.auxilary.AbstractEntity;
+import com.github.checkit.model.auxilary.ChangeSnapshot;
+import com.github.checkit.model.auxilary.ChangeSubjectType;
 import com.github.checkit.model.auxilary.CommentTag;
+import com.github.checkit.model.auxilary.PageCursor;
+import com.github.checkit.model.auxilary.RelationshipGroup;
+import com.github.checkit.model.auxilary.ReviewStatistics;
+import com.github.checkit.persistence.ChangeLocationCache;
 import com.github.checkit.service.auxilary.BaseServiceTestRunner;
+import com.github.checkit.util.TermVocabulary;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 
@@ -44,6 +73,18 @@ class PublicationContextServiceTest extends BaseServiceTestRunner {
     @Autowired
     private PublicationContextService sut;
 
+    @Autowired
+    private PublicationContextDao publicationContextDao;
+
+    @SpyBean
+    private ChangeService changeService;
+
+    @SpyBean
+    private SGoVServerService sgovServerService;
+
+    @Autowired
+    private ChangeLocationCache changeLocationCache;
+
     @Autowired
     private RepositoryConfigProperties repositoryConfigProperties;
 
@@ -110,6 +151,20 @@ class PublicationContextServiceTest extends BaseServiceTestRunner {
         assertEquals(reviewablePublicationContexts.get(0).getUri(), publicationContext.getUri());
     }
 
+    @Test
+    @WithMockUser("gestor")
+    void getReviewablePublicationContextsWithStatistics() {
+        transactional(() -> publicationContextDao.recomputeReviewStatistics(publicationContext.getUri()));
+        List<PublicationContextDto> reviewablePublicationContexts = sut.getReviewablePublicationContexts();
+        assertEquals(1, reviewablePublicationContexts.size());
+        PublicationContextDto dto = reviewablePublicationContexts.get(0);
+        assertEquals(projectContext.getLabel(), dto.getLabel());
+        assertEquals(projectContext.getUri(), dto.getProjectContext());
+        assertEquals(1, dto.getStatistics().getTotalChanges());
+        assertEquals(1, dto.getStatistics().getReviewableChanges());
+        assertEquals(0, dto.getStatistics().getApprovedChanges());
+    }
+
     @Test
     @WithMockUser
     void getPublicationContextDetailWithNoChangesToReview() {
@@ -182,6 +237,194 @@ class PublicationContextServiceTest extends BaseServiceTestRunner {
             .containsAll(changes.stream().map(ChangeDto::getUri).toList()));
     }
 
+    @Test
+    void createPublicationContextStoresReviewStatisticsOfItsChanges() {
+        VocabularyContext otherVocabularyContext = Generator.generateVocabularyContext(vocabulary);
+        ProjectContext otherProjectContext =
+            Generator.generateProjectContext(user, Collections.singleton(otherVocabularyContext));
+        transactional(() -> {
+            em.persist(otherVocabularyContext,
+                descriptorFactory.vocabularyDescriptor(otherVocabularyContext.getUri()));
+            em.persist(otherProjectContext, descriptorFactory.projectContextDescriptor(otherProjectContext));
+        });
+        List<Change> changes = List.of(Generator.generateCreateChange(otherVocabularyContext),
+            Generator.generateCreateChange(otherVocabularyContext));
+        doReturn(changes).when(changeService).getChanges(any(ProjectContext.class));
+
+        URI publicationContextUri = sut.createOrUpdatePublicationContext(otherProjectContext.getUri());
+
+        assertTrue(em.createNativeQuery("ASK { GRAPH ?pc { "
+                + "?pc ?hasStatistics ?statistics . "
+                + "?statistics ?totalCount ?total . "
+                + "FILTER NOT EXISTS { ?statistics ?inVocabulary ?vocabulary . } "
+                + "FILTER(?total = 2) "
+                + "} }", Boolean.class)
+            .setParameter("pc", publicationContextUri)
+            .setParameter("hasStatistics", URI.create(TermVocabulary.s_p_ma_statistiku_revizi))
+            .setParameter("totalCount", URI.create(TermVocabulary.s_p_ma_pocet_zmen))
+            .setParameter("inVocabulary", URI.create(TermVocabulary.s_p_ve_slovniku))
+            .getSingleResult());
+        ReviewStatistics statistics = publicationContextDao.findReviewStatistics(publicationContextUri);
+        assertEquals(2, statistics.getTotalChanges());
+        assertEquals(2, statistics.getTotalChanges(vocabulary.getUri()));
+        assertEquals(Optional.of(List.of()),
+            publicationContextDao.findRelationshipGroups(publicationContextUri, vocabulary.getUri()));
+    }
+
+    @Test
+    void updatePublicationContextRemovesObsoleteChangesWithTheirObjects() {
+        assertEquals(change.getUri(), changeService.findRequired(change.getUri()).getUri());
+        assertEquals(Optional.of(publicationContext.getUri()), changeLocationCache.get(change.getUri()));
+        Change newChange = Generator.generateCreateChange(vocabularyContext);
+        doReturn(List.of(newChange)).when(changeService).getChanges(any(ProjectContext.class));
+
+        sut.createOrUpdatePublicationContext(projectContext.getUri());
+
+        em.getEntityManagerFactory().getCache().evictAll();
+        PublicationContext dbPublicationContext = em.find(PublicationContext.class, publicationContext.getUri(),
+            descriptorFactory.publicationContextDescriptor(publicationContext));
+        assertEquals(Set.of(newChange.getUri()),
+            dbPublicationContext.getChanges().stream().map(AbstractEntity::getUri).collect(Collectors.toSet()));
+        for (URI removedUri : List.of(change.getUri(), change.getObject().getUri())) {
+            assertFalse(em.createNativeQuery("ASK { ?x ?p ?o . }", Boolean.class)
+                .setParameter("x", removedUri)
+                .getSingleResult());
+        }
+        assertTrue(changeLocationCache.get(change.getUri()).isEmpty());
+        assertEquals(Optional.of(List.of()),
+            publicationContextDao.findRelationshipGroups(publicationContext.getUri(), vocabulary.getUri()));
+    }
+
+    @Test
+    void updatePublicationContextStoresReviewStatisticsInSameUpdate() {
+        transactional(() -> publicationContextDao.recomputeReviewStatistics(publicationContext.getUri()));
+        List<Change> changes = List.of(Generator.generateCreateChange(vocabularyContext),
+            Generator.generateCreateChange(vocabularyContext), Generator.generateCreateChange(vocabularyContext));
+        doReturn(changes).when(changeService).getChanges(any(ProjectContext.class));
+
+        sut.createOrUpdatePublicationContext(projectContext.getUri());
+
+        ReviewStatistics statistics = publicationContextDao.findReviewStatistics(publicationContext.getUri());
+        assertEquals(3, statistics.getTotalChanges());
+        assertEquals(3, statistics.getTotalChanges(vocabulary.getUri()));
+    }
+
+    @Test
+    void updatePublicationContextKeepsObsoleteChangesWhenUpdateFails() {
+        doReturn(List.of(Generator.generateCreateChange(vocabularyContext))).when(changeService)
+            .getChanges(any(ProjectContext.class));
+        doThrow(IllegalStateException.class).when(sgovServerService).createPullRequest(any(ProjectContext.class));
+
+        assertThrowsExactly(IllegalStateException.class,
+            () -> sut.createOrUpdatePublicationContext(projectContext.getUri()));
+
+        em.getEntityManagerFactory().getCache().evictAll();
+        PublicationContext dbPublicationContext = em.find(PublicationContext.class, publicationContext.getUri(),
+            descriptorFactory.publicationContextDescriptor(publicationContext));
+        assertEquals(Set.of(change.getUri()),
+            dbPublicationContext.getChanges().stream().map(AbstractEntity::getUri).collect(Collectors.toSet()));
+        assertTrue(em.createNativeQuery("ASK { ?x ?p ?o . }", Boolean.class)
+            .setParameter("x", change.getObject().getUri())
+            .getSingleResult());
+    }
+
+    @Test
+    void updateChangesWritesChangesAsJopaPersistsThem() {
+        Change reviewed = Generator.generateCreateChange(vocabularyContext);
+        reviewed.addApprovedBy(gestor);
+        reviewed.addRejectedBy(user);
+        Change modified = Generator.generateCreateChange(vocabularyContext);
+        modified.addApprovedBy(gestor);
+        Change obsolete = Generator.generateCreateChange(vocabularyContext);
+        PublicationContext updated = Generator.generatePublicationContext(projectContext,
+            new HashSet<>(Set.of(reviewed, modified, obsolete)));
+        transactional(() -> em.persist(updated, descriptorFactory.publicationContextDescriptor(updated)));
+
+        Change inserted = Generator.generateCreateChange(vocabularyContext);
+        inserted.setChangeType(ChangeType.MODIFIED);
+        inserted.setSubjectType(ChangeSubjectType.BLANK_NODE);
+        inserted.setObject(new ChangeObject("1", URI.create("http://www.w3.org/2001/XMLSchema#integer"), null));
+        inserted.setNewObject(new ChangeObject("nová \"hodnota\"", null, "cs"));
+        inserted.addApprovedBy(user);
+        inserted.addRejectedBy(gestor);
+        Map<URI, Change> finalChanges = new HashMap<>();
+        transactional(() -> {
+            PublicationContext detached = publicationContextDao.find(updated.getUri()).get();
+            publicationContextDao.detach(detached);
+            Map<URI, ChangeSnapshot> previousChanges = new HashMap<>();
+            detached.getChanges().forEach(change -> previousChanges.put(change.getUri(), ChangeSnapshot.of(change)));
+            Set<Change> changes = new HashSet<>(Set.of(inserted));
+            for (Change change : detached.getChanges()) {
+                if (change.getUri().equals(modified.getUri())) {
+                    change.setChangeType(ChangeType.ROLLBACKED);
+                    change.setCountable(false);
+                    change.setLabel(new MultilingualString().set("cs", "nový").set("en", "new"));
+                }
+                if (!change.getUri().equals(obsolete.getUri())) {
+                    changes.add(change);
+                }
+            }
+            detached.setChanges(changes);
+            publicationContextDao.updateChanges(detached, previousChanges, List.of(obsolete.getUri()),
+                List.of());
+            changes.forEach(change -> finalChanges.put(change.getUri(), change));
+        });
+
+        Map<URI, Change> persistedChanges = new HashMap<>();
+        finalChanges.forEach((uri, change) -> persistedChanges.put(uri, copyOf(change)));
+        ProjectContext otherProjectContext =
+            Generator.generateProjectContext(user, Collections.singleton(vocabularyContext));
+        PublicationContext persisted = Generator.generatePublicationContext(otherProjectContext,
+            new HashSet<>(persistedChanges.values()));
+        transactional(() -> {
+            em.persist(otherProjectContext, descriptorFactory.projectContextDescriptor(otherProjectContext));
+            em.persist(persisted, descriptorFactory.publicationContextDescriptor(persisted));
+        });
+
+        assertEquals(Set.of(reviewed.getUri(), modified.getUri(), inserted.getUri()), finalChanges.keySet());
+        finalChanges.keySet().forEach(uri -> assertEquals(
+            findStatementsOfChange(persisted.getUri(), persistedChanges.get(uri).getUri()),
+            findStatementsOfChange(updated.getUri(), uri)));
+        assertTrue(findStatementsOfChange(updated.getUri(), obsolete.getUri()).isEmpty());
+        em.getEntityManagerFactory().getCache().evictAll();
+        transactional(() -> {
+            for (URI uri : finalChanges.keySet()) {
+                Change dbChange = em.find(Change.class, uri, descriptorFactory.changeDescriptor(updated.getUri()));
+                Change dbPersistedChange = em.find(Change.class, persistedChanges.get(uri).getUri(),
+                    descriptorFactory.changeDescriptor(persisted.getUri()));
+                assertEquals(dbPersistedChange.getChangeType(), dbChange.getChangeType());
+                assertEquals(dbPersistedChange.getSubject(), dbChange.getSubject());
+                assertEquals(dbPersistedChange.getPredicate(), dbChange.getPredicate());
+                assertEquals(dbPersistedChange.getObject(), dbChange.getObject());
+                assertEquals(dbPersistedChange.getNewObject(), dbChange.getNewObject());
+                assertEquals(dbPersistedChange.getLabel(), dbChange.getLabel());
+                assertEquals(dbPersistedChange.getCountable(), dbChange.getCountable());
+                assertEquals(dbPersistedChange.getSubjectType(), dbChange.getSubjectType());
+                assertEquals(dbPersistedChange.getApprovedBy(), dbChange.getApprovedBy());
+                assertEquals(dbPersistedChange.getRejectedBy(), dbChange.getRejectedBy());
+            }
+        });
+    }
+
+    @Test
+    @WithMockUser
+    void getChangesInContextInPublicationContextWithStoredRelationshipGroups() {
+        assertTrue(publicationContextDao.findRelationshipGroups(publicationContext.getUri(), vocabulary.getUri())
+            .isEmpty());
+        RelationshipGroup relationshipGroup = new RelationshipGroup(vocabulary.getUri(), Set.of(change.getUri()));
+        transactional(() ->
+            publicationContextDao.replaceRelationshipGroups(publicationContext.getUri(), List.of(relationshipGroup)));
+        assertEquals(Optional.of(List.of(relationshipGroup)),
+            publicationContextDao.findRelationshipGroups(publicationContext.getUri(), vocabulary.getUri()));
+        ContextChangesDto contextChangesDto =
+            sut.getChangesInContextInPublicationContext(publicationContext.getId(), vocabulary.getUri(), "en");
+        assertEquals(1, contextChangesDto.getChanges().size());
+
+        transactional(() -> publicationContextDao.replaceRelationshipGroups(publicationContext.getUri(), List.of()));
+        assertEquals(Optional.of(List.of()),
+            publicationContextDao.findRelationshipGroups(publicationContext.getUri(), vocabulary.getUri()));
+    }
+
     @Test
     @WithMockUser("gestor")
     void approvePublicationContext() {
@@ -313,6 +556,76 @@ class PublicationContextServiceTest extends BaseServiceTestRunner {
         assertEquals(finalComment.getContent(), finalMessage);
     }
 
+    @Test
+    @WithMockUser("gestor")
+    void getClosedPublicationContextsAfterCursor() {
+        assertEquals(0, sut.getPageCountOfClosedPublicationContexts());
+        sut.rejectPublicationContext(publicationContext.getId(), "Final message that is long enough.");
+        assertEquals(1, sut.getPageCountOfClosedPublicationContexts());
+
+        CursorPageDto<PublicationContextDto> page = sut.getClosedPublicationContextsAfter(null);
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+        PublicationContextDto closed = page.getItems().get(0);
+        assertEquals(publicationContext.getUri(), closed.getUri());
+
+        String cursor = new PageCursor(closed.getFinalComment().getCreationDate(), closed.getUri()).toToken();
+        assertTrue(sut.getClosedPublicationContextsAfter(cursor).getItems().isEmpty());
+        cursor = new PageCursor(closed.getFinalComment().getCreationDate().plusSeconds(1), closed.getUri()).toToken();
+        assertEquals(1, sut.getClosedPublicationContextsAfter(cursor).getItems().size());
+        assertThrowsExactly(InvalidPageCursorException.class, () -> sut.getClosedPublicationContextsAfter("x"));
+    }
+
+    @Test
+    void findAllClosedPagesThroughPublicationContextsClosedAtSameTime() {
+        Change otherChange = Generator.generateCreateChange(vocabularyContext);
+        PublicationContext otherPublicationContext =
+            Generator.generatePublicationContext(projectContext, Collections.singleton(otherChange));
+        Comment comment = Generator.generateApprovalCommentOnPC(gestor, publicationContext);
+        Comment otherComment = Generator.generateRejectionCommentOnPC(gestor, otherPublicationContext);
+        transactional(() -> {
+            em.persist(otherPublicationContext,
+                descriptorFactory.publicationContextDescriptor(otherPublicationContext));
+            em.persist(comment, descriptorFactory.commentDescriptor());
+            em.persist(otherComment, descriptorFactory.commentDescriptor());
+        });
+        transactional(() -> em.createNativeQuery("DELETE { GRAPH ?g { ?other ?created ?otherTime . } } "
+                + "INSERT { GRAPH ?g { ?other ?created ?time . } } "
+                + "WHERE { ?comment ?created ?time . GRAPH ?g { ?other ?created ?otherTime . } }")
+            .setParameter("comment", comment.getUri())
+            .setParameter("other", otherComment.getUri())
+            .setParameter("created", URI.create(TermVocabulary.s_p_ma_datum_a_cas_vytvoreni))
+            .executeUpdate());
+        em.getEntityManagerFactory().getCache().evictAll();
+        Instant closed = em.find(Comment.class, comment.getUri(), descriptorFactory.commentDescriptor()).getCreated();
+        assertEquals(closed,
+            em.find(Comment.class, otherComment.getUri(), descriptorFactory.commentDescriptor()).getCreated());
+
+        List<URI> pagedUris = new ArrayList<>();
+        List<PublicationContext> page = publicationContextDao.findAllClosed(null, 1);
+        while (!page.isEmpty() && pagedUris.size() <= 2) {
+            assertEquals(1, page.size());
+            pagedUris.add(page.get(0).getUri());
+            page = publicationContextDao.findAllClosed(new PageCursor(closed, page.get(0).getUri()), 1);
+        }
+
+        assertEquals(2, pagedUris.size());
+        assertEquals(Set.of(publicationContext.getUri(), otherPublicationContext.getUri()), Set.copyOf(pagedUris));
+    }
+
+    @Test
+    @WithMockUser("gestor")
+    void getPublicationContextETagChangesWithComment() {
+        String entityTag = sut.getPublicationContextETag(publicationContext.getId());
+        assertNotNull(entityTag);
+        assertEquals(entityTag, sut.getPublicationContextETag(publicationContext.getId()));
+        assertNotEquals(entityTag, sut.getPublicationContextETag(publicationContext.getId(), vocabulary.getUri()));
+
+        sut.rejectPublicationContext(publicationContext.getId(), "Final message that is long enough.");
+        assertNotEquals(entityTag, sut.getPublicationContextETag(publicationContext.getId()));
+        assertNull(sut.getPublicationContextETag("non-existent"));
+    }
+
     @Test
     @WithMockUser
     void rejectPublicationContextWithoutPermission() {
@@ -369,4 +682,53 @@ class PublicationContextServiceTest extends BaseServiceTestRunner {
             sut.approvePublicationContext(publicationContext.getId(), finalMessage));
         assertTrue(alreadyExistsException.getMessage().contains("was already reviewed"));
     }
-}
\ No newline at end of file
+
+    private static Change copyOf(Change change) {
+        Change copy = new Change(change.getContext());
+        copy.setUri(Generator.generateUri(TermVocabulary.s_c_zmena, Change.class));
+        copy.setChangeType(change.getChangeType());
+        copy.setLabel(new MultilingualString(change.getLabel().getValue()));
+        copy.setCountable(change.getCountable());
+        copy.setSubjectType(change.getSubjectType());
+        copy.setSubject(change.getSubject());
+        copy.setPredicate(change.getPredicate());
+        copy.setObject(copyOf(change.getObject()));
+        if (Objects.nonNull(change.getNewObject())) {
+            copy.setNewObject(copyOf(change.getNewObject()));
+        }
+        copy.setApprovedBy(new HashSet<>(change.getApprovedBy()));
+        copy.setRejectedBy(new HashSet<>(change.getRejectedBy()));
+        return copy;
+    }
+
+    private static ChangeObject copyOf(ChangeObject changeObject) {
+        ChangeObject copy = new ChangeObject();
+        copy.setValueWithLanguageTag(new MultilingualString(changeObject.getValueWithLanguageTag().getValue()));
+        copy.setType(changeObject.getType());
+        return copy;
+    }
+
+    /**
+     * Finds statements of specified change and its objects in specified publication context with URI identifiers of
+     * the change and its objects left out, so statements of different changes can be compared.
+     */
+    private Set<String> findStatementsOfChange(URI publicationContextUri, URI changeUri) {
+        return new HashSet<>(em.createNativeQuery("SELECT ?statement WHERE { GRAPH ?pc { "
+                + "{ ?change ?p ?o . BIND(\"change\" AS ?s) } "
+                + "UNION { "
+                + "    ?change ?objectProperty ?changeObject . "
+                + "    ?changeObject a ?changeObjectType ; ?p ?o . "
+                + "    BIND(STR(?objectProperty) AS ?s) "
+                + "    } "
+                + "UNION { ?pc ?p ?change . BIND(?change AS ?o) BIND(\"publication context\" AS ?s) } "
+                + "BIND(IF(?o = ?change, \"change\", IF(isLiteral(?o), "
+                + "CONCAT(STR(?o), \"@\", LANG(?o), \"^^\", STR(DATATYPE(?o))), "
+                + "IF(EXISTS { ?o a ?changeObjectType . }, \"object\", STR(?o)))) AS ?value) "
+                + "BIND(CONCAT(?s, \" \", STR(?p), \" \", ?value) AS ?statement) "
+                + "} }", String.class)
+            .setParameter("pc", publicationContextUri)
+            .setParameter("change", changeUri)
+            .setParameter("changeObjectType", URI.create(TermVocabulary.s_c_objekt_zmeny))
+            .getResultList());
+    }
+}
@@ -1,11 +1,15 @@
 package com.github.checkit.service.auxilary;
 
+import com.github.checkit.config.ExecutorConfig;
 import com.github.checkit.config.PersistenceConfig;
 import com.github.checkit.config.properties.ApplicationConfigProperties;
 import com.github.checkit.config.properties.RepositoryConfigProperties;
 import com.github.checkit.environment.TestPersistenceFactory;
 import com.github.checkit.environment.TransactionalTestRunner;
+import com.github.checkit.persistence.ChangeLocationCache;
 import com.github.checkit.persistence.DescriptorFactory;
+import com.github.checkit.persistence.EntityCache;
+import com.github.checkit.persistence.RepositoryStatementFetcher;
 import com.github.checkit.util.KeycloakApiUtil;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import java.net.URI;
@@ -31,8 +35,12 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @ContextConfiguration(initializers = {ConfigDataApplicationContextInitializer.class},
     classes = {
         PersistenceConfig.class,
+        ExecutorConfig.class,
         TestPersistenceFactory.class,
         DescriptorFactory.class,
+        EntityCache.class,
+        ChangeLocationCache.class,
+        RepositoryStatementFetcher.class,
         RepositoryConfigProperties.class,
         ApplicationConfigProperties.class,
         KeycloakApiUtil.class